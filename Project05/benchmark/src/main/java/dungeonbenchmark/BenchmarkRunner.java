@@ -0,0 +1,33 @@
+package dungeonbenchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the dungeon benchmarks with the GC profiler, so that every result also gives the
+ * allocation rate and the bytes allocated by every operation.
+ * Takes the usual JMH command line options, for example a regular expression selecting
+ * the benchmarks to run or {@code -p size=6,50} to select parameters.
+ */
+public class BenchmarkRunner {
+
+  /**
+   * Main() method to run the benchmarks.
+   *
+   * @param args the JMH command line options.
+   * @throws RunnerException            if a benchmark fails.
+   * @throws CommandLineOptionException if the options are not valid.
+   */
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,137 @@
+package dungeonbenchmark;
+
+import dungeonmodel.Direction;
+import dungeonmodel.DungeonModel;
+import dungeonmodel.DungeonModelImpl;
+import dungeonmodel.GraphType;
+import dungeonmodel.HitStatus;
+import dungeonmodel.MazeAlgorithm;
+import dungeonmodel.SmellLevel;
+import random.SplittableRandomSource;
+import structureddata.LocationDescription;
+import structureddata.Position;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the calls made by the game on an already generated dungeon.
+ * The dungeon has a single Otyugh at the end cave and no other monsters or pits, so that the
+ * player can keep moving between the start cave and one of its neighbours.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class GameplayBenchmark {
+  private static final int NUM_POSITIONS = 1024;
+  private static final int ARROWS = 3;
+  private static final int SHOOT_POOL = 256;
+  private static final int SHOOT_BATCH = SHOOT_POOL * ARROWS;
+
+  @Param({"10", "100", "1000"})
+  private int size;
+
+  @Param({"STANDARD", "COMPACT"})
+  private GraphType graphType;
+
+  private DungeonModel model;
+  private Position[] positions;
+  private Position start;
+  private Position end;
+  private Direction direction;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    model = new DungeonModelImpl(size, size, false, 5, 50, 1, 0, 0, 0, false, graphType,
+            MazeAlgorithm.KRUSKAL, new SplittableRandomSource(7));
+    start = model.getStartCave().getPosition();
+    end = model.getEndCave().getPosition();
+    direction = model.getCurrentLocation().getPossibleDirections().iterator().next();
+    SplittableRandom random = new SplittableRandom(11);
+    positions = new Position[NUM_POSITIONS];
+    for (int i = 0; i < NUM_POSITIONS; i++) {
+      positions[i] = new Position(random.nextInt(size), random.nextInt(size));
+    }
+    next = 0;
+  }
+
+  private Position nextPosition() {
+    next = (next + 1) & (NUM_POSITIONS - 1);
+    return positions[next];
+  }
+
+  @Benchmark
+  public int distanceStartToEnd() {
+    return model.getDistance(start, end);
+  }
+
+  @Benchmark
+  public int distanceRandomPairs() {
+    return model.getDistance(nextPosition(), nextPosition());
+  }
+
+  @Benchmark
+  public SmellLevel detectSmell() {
+    return model.detectSmell();
+  }
+
+  @Benchmark
+  public LocationDescription getLocation() {
+    return model.getLocation(nextPosition());
+  }
+
+  @Benchmark
+  public LocationDescription movePlayerAndBack() {
+    model.movePlayer(direction);
+    model.movePlayer(direction.opposite());
+    return model.getCurrentLocation();
+  }
+
+  /**
+   * A pool of dungeons generated before every iteration, as the player has only a few arrows.
+   * Every shot takes the next arrow from the pool, so an iteration is a single batch of as many
+   * shots as the pool has arrows, scored as the time of the whole batch, and generating the
+   * dungeons is not measured.
+   */
+  @State(Scope.Thread)
+  public static class ShootState {
+    private final DungeonModel[] models = new DungeonModel[SHOOT_POOL];
+    private final Direction[] directions = new Direction[SHOOT_POOL];
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+      for (int i = 0; i < SHOOT_POOL; i++) {
+        models[i] = new DungeonModelImpl(10, 10, false, 5, 50, 1, 0, 0, 0, false,
+                GraphType.STANDARD, MazeAlgorithm.KRUSKAL, new SplittableRandomSource(7 + i));
+        directions[i] = models[i].getCurrentLocation().getPossibleDirections().iterator().next();
+      }
+      next = 0;
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 3, batchSize = SHOOT_BATCH)
+  @Measurement(iterations = 5, batchSize = SHOOT_BATCH)
+  public HitStatus shoot(ShootState state) {
+    int index = state.next++ / ARROWS;
+    return state.models[index].shoot(state.directions[index], 3);
+  }
+}
@@ -0,0 +1,54 @@
+package dungeonbenchmark;
+
+import dungeonmodel.DungeonModel;
+import dungeonmodel.DungeonModelImpl;
+import dungeonmodel.GraphType;
+import dungeonmodel.MazeAlgorithm;
+import random.SplittableRandomSource;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the generation of a whole dungeon by the constructor of {@link DungeonModelImpl}.
+ * Every dungeon is generated from the same seed, so every invocation does the same work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class GenerationBenchmark {
+  private static final long SEED = 42;
+
+  @Param({"6", "50", "200", "1000", "2000"})
+  private int size;
+
+  @Param({"false", "true"})
+  private boolean wrapped;
+
+  @Param({"0", "10"})
+  private int degree;
+
+  @Param({"STANDARD", "COMPACT"})
+  private GraphType graphType;
+
+  @Param({"KRUSKAL"})
+  private MazeAlgorithm algorithm;
+
+  @Benchmark
+  public DungeonModel generate() {
+    return new DungeonModelImpl(size, size, wrapped, degree, 50, 1, 1, 1, 1, true, graphType,
+            algorithm, new SplittableRandomSource(SEED));
+  }
+}
@@ -0,0 +1,55 @@
+package dungeonbenchmark;
+
+import dungeonmodel.DungeonModel;
+import dungeonmodel.DungeonModelImpl;
+import dungeonmodel.GraphType;
+import dungeonmodel.MazeAlgorithm;
+import random.SplittableRandomSource;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the algorithms selecting the paths of a dungeon on the same grids.
+ * The dungeons have no items and only the Otyugh at the end, so the time is mostly spent
+ * selecting the paths. Run by {@link BenchmarkRunner}, every result also gives the bytes
+ * allocated by the generation. The shape of the dungeons of every algorithm is reported by
+ * {@link MazeShapeReport}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class MazeBenchmark {
+  private static final long SEED = 42;
+
+  @Param({"50", "200", "1000"})
+  private int size;
+
+  @Param({"false", "true"})
+  private boolean wrapped;
+
+  @Param({"0", "10"})
+  private int degree;
+
+  @Param({"KRUSKAL", "FAST_KRUSKAL", "TILED_KRUSKAL", "RECURSIVE_BACKTRACKER", "PRIM", "WILSON",
+          "ALDOUS_BRODER"})
+  private MazeAlgorithm algorithm;
+
+  @Benchmark
+  public DungeonModel generate() {
+    return new DungeonModelImpl(size, size, wrapped, degree, 0, 1, 0, 0, 0, false,
+            GraphType.COMPACT, algorithm, new SplittableRandomSource(SEED));
+  }
+}
@@ -0,0 +1,116 @@
+package dungeonbenchmark;
+
+import dungeonmodel.Direction;
+import dungeonmodel.DungeonModel;
+import dungeonmodel.DungeonModelImpl;
+import dungeonmodel.GraphType;
+import dungeonmodel.MazeAlgorithm;
+import random.SplittableRandomSource;
+import structureddata.Position;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Reports the shape of the dungeons generated by every {@link MazeAlgorithm}, to be read along
+ * with the times and allocations of {@link MazeBenchmark}. For every algorithm a number of
+ * seeded dungeons are generated, and the following are averaged over them: the percentage of
+ * dead ends and of tunnels among the locations, the length of the path from the start to the
+ * end, and the mean and the largest length of the paths from the start to every location.
+ * Takes the size of the square dungeons, whether they are wrapped, the degree of
+ * interconnectivity and the number of dungeons, by default 100 false 0 20.
+ * Run with java -cp target/benchmarks.jar dungeonbenchmark.MazeShapeReport 100 false 0 20.
+ */
+public class MazeShapeReport {
+
+  /**
+   * Main() method to print the report.
+   *
+   * @param args the size, whether wrapped, the degree and the number of dungeons.
+   */
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+    boolean wrapped = args.length > 1 && Boolean.parseBoolean(args[1]);
+    int degree = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+    int dungeons = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+    System.out.printf("%d x %d dungeons, wrapped: %b, degree: %d, %d dungeons each%n",
+            size, size, wrapped, degree, dungeons);
+    System.out.printf("%-22s %10s %10s %10s %10s %10s%n", "algorithm", "dead ends%",
+            "tunnels%", "start-end", "mean path", "max path");
+    for (MazeAlgorithm algorithm : MazeAlgorithm.values()) {
+      double[] totals = new double[5];
+      for (int seed = 0; seed < dungeons; seed++) {
+        DungeonModel model = new DungeonModelImpl(size, size, wrapped, degree, 0, 1, 0, 0, 0,
+                false, GraphType.COMPACT, algorithm, new SplittableRandomSource(seed));
+        double[] shape = measure(model);
+        for (int i = 0; i < totals.length; i++) {
+          totals[i] += shape[i];
+        }
+      }
+      System.out.printf("%-22s %10.2f %10.2f %10.1f %10.1f %10.1f%n", algorithm,
+              totals[0] / dungeons, totals[1] / dungeons, totals[2] / dungeons,
+              totals[3] / dungeons, totals[4] / dungeons);
+    }
+  }
+
+  /**
+   * Measures the shape of a dungeon with a breadth first search from its start.
+   *
+   * @return the percentage of dead ends and of tunnels, the length of the path from the start
+   *         to the end and the mean and the largest length of the paths from the start.
+   */
+  private static double[] measure(DungeonModel model) {
+    int rows = model.getRows();
+    int columns = model.getColumns();
+    int cells = rows * columns;
+    Position start = model.getStartCave().getPosition();
+    Position end = model.getEndCave().getPosition();
+    int[] distance = new int[cells];
+    Arrays.fill(distance, -1);
+    int[] queue = new int[cells];
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = start.getRow() * columns + start.getColumn();
+    distance[queue[0]] = 0;
+    int deadEnds = 0;
+    int tunnels = 0;
+    long totalDistance = 0;
+    int maxDistance = 0;
+    while (head < tail) {
+      int cell = queue[head++];
+      int row = cell / columns;
+      int column = cell % columns;
+      Set<Direction> directions = model.getLocation(new Position(row, column))
+              .getPossibleDirections();
+      deadEnds += directions.size() == 1 ? 1 : 0;
+      tunnels += directions.size() == 2 ? 1 : 0;
+      totalDistance += distance[cell];
+      maxDistance = Math.max(maxDistance, distance[cell]);
+      for (Direction direction : directions) {
+        int next = neighbor(row, column, direction, rows, columns);
+        if (distance[next] == -1) {
+          distance[next] = distance[cell] + 1;
+          queue[tail++] = next;
+        }
+      }
+    }
+    return new double[] {100.0 * deadEnds / cells, 100.0 * tunnels / cells,
+        distance[end.getRow() * columns + end.getColumn()], (double) totalDistance / cells,
+        maxDistance};
+  }
+
+  private static int neighbor(int row, int column, Direction direction, int rows,
+                              int columns) {
+    switch (direction) {
+      case NORTH:
+        return (row + rows - 1) % rows * columns + column;
+      case SOUTH:
+        return (row + 1) % rows * columns + column;
+      case EAST:
+        return row * columns + (column + 1) % columns;
+      default:
+        return row * columns + (column + columns - 1) % columns;
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package dungeonbot;
+
+import dungeonmodel.Arrow;
+import dungeonmodel.Direction;
+import dungeonmodel.DungeonModel;
+import dungeonmodel.Key;
+import dungeonmodel.Treasure;
+import random.RandomSource;
+import structureddata.LocationDescription;
+import structureddata.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Abstract strategy handling what every bot does at its current location.
+ * A bot kills an Aboleth in its location, picks up the key and exits the dungeon when it has
+ * the key at the end cave. Otherwise the strategy chooses what to do next.
+ * Visibility: Package - private
+ */
+abstract class AbstractStrategy implements Strategy {
+  @Override
+  public void takeTurn(DungeonModel model, RandomSource random) {
+    if (model == null || random == null) {
+      throw new IllegalArgumentException("Model or random cannot be null.");
+    }
+    LocationDescription location = model.getCurrentLocation();
+    if (location.containsAboleth()) {
+      model.killMonster();
+    } else if (location.hasKey()) {
+      model.pickItem(Key.DOOR_KEY);
+    } else if (model.getPlayerDescription().hasKey()
+            && location.getPosition().equals(model.getEndCave().getPosition())) {
+      model.exitDungeon();
+    } else {
+      play(model, location, random);
+    }
+  }
+
+  /**
+   * Chooses and performs the action of the bot when nothing needs to be done urgently.
+   *
+   * @param model    the game being played.
+   * @param location the current location of the player.
+   * @param random   the source of random numbers of the bot.
+   */
+  protected abstract void play(DungeonModel model, LocationDescription location,
+                               RandomSource random);
+
+  /**
+   * Picks one item from the location, if there is any.
+   *
+   * @param model    the game being played.
+   * @param location the current location of the player.
+   * @param arrows   whether arrows are picked.
+   * @return whether an item was picked.
+   */
+  protected boolean pickAnyItem(DungeonModel model, LocationDescription location,
+                                boolean arrows) {
+    for (Map.Entry<Treasure, Integer> entry : location.getTreasureMap().entrySet()) {
+      if (entry.getValue() > 0) {
+        model.pickItem(entry.getKey());
+        return true;
+      }
+    }
+    if (arrows && location.countArrows() > 0) {
+      model.pickItem(Arrow.CROOKED_ARROW);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Gives the position reached by moving in a direction from a position, wrapping around the
+   * edges of the dungeon.
+   *
+   * @param model     the game being played.
+   * @param position  the starting position.
+   * @param direction the direction of the move.
+   * @return the reached position.
+   */
+  protected Position neighbor(DungeonModel model, Position position, Direction direction) {
+    int rows = model.getRows();
+    int columns = model.getColumns();
+    int row = position.getRow();
+    int column = position.getColumn();
+    switch (direction) {
+      case NORTH:
+        row = (row - 1 + rows) % rows;
+        break;
+      case SOUTH:
+        row = (row + 1) % rows;
+        break;
+      case EAST:
+        column = (column + 1) % columns;
+        break;
+      default:
+        column = (column - 1 + columns) % columns;
+        break;
+    }
+    return new Position(row, column);
+  }
+
+  /**
+   * Gives the possible directions from the location which lead to locations not yet visited.
+   *
+   * @param model    the game being played.
+   * @param location the current location of the player.
+   * @return the directions leading to unvisited locations.
+   */
+  protected List<Direction> unvisitedDirections(DungeonModel model,
+                                                LocationDescription location) {
+    List<Direction> directions = new ArrayList<>();
+    for (Direction direction : location.getPossibleDirections()) {
+      if (!model.getLocation(neighbor(model, location.getPosition(), direction)).isVisited()) {
+        directions.add(direction);
+      }
+    }
+    return directions;
+  }
+
+  /**
+   * Moves the player in a random direction out of the given ones.
+   *
+   * @param model      the game being played.
+   * @param directions the directions to choose from.
+   * @param random     the source of random numbers of the bot.
+   */
+  protected void moveRandomly(DungeonModel model, List<Direction> directions,
+                              RandomSource random) {
+    model.movePlayer(directions.get(random.getIntInRange(0, directions.size() - 1)));
+  }
+}
@@ -0,0 +1,172 @@
+package dungeonbot;
+
+import random.RandomSource;
+import random.SplittableRandomSource;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Plays many games with bots over a grid of dungeon parameters, to tune the difficulty of
+ * the game. The games are split between the threads of a {@link ForkJoinPool}. Every game is
+ * generated and played from its own seed, derived from the seed of the sweep, the index of its
+ * parameters and its index, so a sweep gives the same statistics every time, whatever the
+ * number of threads.
+ */
+public class BalanceSweep {
+  private static final int GAMES_PER_TASK = 32;
+  private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+
+  private final ForkJoinPool pool;
+  private final GameRunner runner;
+  private final int gamesPerSetting;
+  private final long seed;
+
+  /**
+   * Creates a sweep playing the given number of games for every parameters.
+   *
+   * @param pool            the pool playing the games.
+   * @param runner          the runner playing every game.
+   * @param gamesPerSetting the number of games played for every parameters.
+   * @param seed            the seed of the sweep.
+   * @throws IllegalArgumentException if pool or runner is null or the number of games is not
+   *                                  positive.
+   */
+  public BalanceSweep(ForkJoinPool pool, GameRunner runner, int gamesPerSetting, long seed) {
+    if (pool == null || runner == null || gamesPerSetting <= 0) {
+      throw new IllegalArgumentException("Invalid pool, runner or number of games.");
+    }
+    this.pool = pool;
+    this.runner = runner;
+    this.gamesPerSetting = gamesPerSetting;
+    this.seed = seed;
+  }
+
+  /**
+   * Plays the games for every parameters of the grid, with a new strategy for every game.
+   *
+   * @param grid       the parameters of the dungeons.
+   * @param strategies gives the strategy for every game.
+   * @return the statistics for every parameters, in the order of the grid.
+   * @throws IllegalArgumentException if the grid or strategies is null or any parameters are
+   *                                  not valid for a dungeon.
+   */
+  public Map<GameParameters, SweepStats> run(List<GameParameters> grid,
+                                             Supplier<? extends Strategy> strategies) {
+    if (grid == null || strategies == null) {
+      throw new IllegalArgumentException("Grid or strategies cannot be null.");
+    }
+    List<SweepTask> tasks = new ArrayList<>();
+    for (int i = 0; i < grid.size(); i++) {
+      SweepTask task = new SweepTask(grid.get(i), i, 0, gamesPerSetting, strategies);
+      pool.execute(task);
+      tasks.add(task);
+    }
+    Map<GameParameters, SweepStats> results = new LinkedHashMap<>();
+    for (int i = 0; i < grid.size(); i++) {
+      results.merge(grid.get(i), join(tasks.get(i)), (first, second) -> {
+        first.merge(second);
+        return first;
+      });
+    }
+    return results;
+  }
+
+  private static SweepStats join(SweepTask task) {
+    try {
+      return task.join();
+    } catch (IllegalArgumentException e) {
+      //An exception thrown by another thread of the pool is wrapped in a new one by join.
+      if (e.getCause() instanceof IllegalArgumentException) {
+        throw (IllegalArgumentException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Gives every combination of the given parameters, for square dungeons which are not wrapped.
+   *
+   * @param sizes       the numbers of rows and columns.
+   * @param degrees     the degrees of interconnectivity.
+   * @param percentages the percentages of locations having items.
+   * @param otyughs     the numbers of otyughs.
+   * @param aboleths    the numbers of aboleths.
+   * @param thieves     the numbers of thieves.
+   * @param pits        the numbers of pits.
+   * @return all the combinations of the parameters.
+   */
+  public static List<GameParameters> grid(int[] sizes, int[] degrees, int[] percentages,
+                                          int[] otyughs, int[] aboleths, int[] thieves,
+                                          int[] pits) {
+    List<GameParameters> grid = new ArrayList<>();
+    for (int size : sizes) {
+      for (int degree : degrees) {
+        for (int percentage : percentages) {
+          for (int numOtyugh : otyughs) {
+            for (int numAboleth : aboleths) {
+              for (int numThief : thieves) {
+                for (int numPits : pits) {
+                  grid.add(new GameParameters(size, size, false, degree, percentage, numOtyugh,
+                          numAboleth, numThief, numPits));
+                }
+              }
+            }
+          }
+        }
+      }
+    }
+    return grid;
+  }
+
+  private long gameSeed(int setting, int game) {
+    return seed + SEED_STEP * ((long) setting * gamesPerSetting + game + 1);
+  }
+
+  /**
+   * Plays a range of the games of one parameters, splitting the range until it is small.
+   */
+  private final class SweepTask extends RecursiveTask<SweepStats> {
+    private static final long serialVersionUID = 1L;
+
+    private final GameParameters parameters;
+    private final int setting;
+    private final int from;
+    private final int to;
+    private final Supplier<? extends Strategy> strategies;
+
+    private SweepTask(GameParameters parameters, int setting, int from, int to,
+                      Supplier<? extends Strategy> strategies) {
+      this.parameters = parameters;
+      this.setting = setting;
+      this.from = from;
+      this.to = to;
+      this.strategies = strategies;
+    }
+
+    @Override
+    protected SweepStats compute() {
+      if (to - from > GAMES_PER_TASK) {
+        int middle = (from + to) >>> 1;
+        SweepTask left = new SweepTask(parameters, setting, from, middle, strategies);
+        SweepTask right = new SweepTask(parameters, setting, middle, to, strategies);
+        left.fork();
+        SweepStats stats = right.compute();
+        stats.merge(left.join());
+        return stats;
+      }
+      SweepStats stats = new SweepStats();
+      for (int game = from; game < to; game++) {
+        RandomSource random = new SplittableRandomSource(gameSeed(setting, game));
+        RandomSource botRandom = random.split();
+        stats.add(runner.play(parameters.createModel(random), strategies.get(), botRandom));
+      }
+      return stats;
+    }
+  }
+}
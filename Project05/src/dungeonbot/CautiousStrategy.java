@@ -0,0 +1,69 @@
+package dungeonbot;
+
+import dungeonmodel.Direction;
+import dungeonmodel.DungeonModel;
+import dungeonmodel.SmellLevel;
+import random.RandomSource;
+import structureddata.LocationDescription;
+import structureddata.Position;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A strategy which explores carefully.
+ * The bot picks the items of a location and explores locations it has not visited yet.
+ * When it smells an Otyugh nearby it shoots twice into every unexplored direction before
+ * moving there. When it has no arrows left it goes back through the visited locations, which
+ * are known to be safe, and when it senses a pit nearby it goes back half of the time.
+ */
+public class CautiousStrategy extends AbstractStrategy {
+  private static final int SHOTS_TO_KILL = 2;
+
+  private final Map<Position, Map<Direction, Integer>> shots;
+
+  /**
+   * Creates a cautious strategy for a new game.
+   */
+  public CautiousStrategy() {
+    this.shots = new HashMap<>();
+  }
+
+  @Override
+  protected void play(DungeonModel model, LocationDescription location, RandomSource random) {
+    if (pickAnyItem(model, location, true)) {
+      return;
+    }
+    List<Direction> unvisited = unvisitedDirections(model, location);
+    List<Direction> visited = new ArrayList<>(location.getPossibleDirections());
+    visited.removeAll(unvisited);
+
+    if (!unvisited.isEmpty() && model.detectSmell() == SmellLevel.MORE_PUNGENT) {
+      if (model.getPlayerDescription().countArrows() > 0) {
+        Map<Direction, Integer> shotsHere = shots.computeIfAbsent(location.getPosition(),
+            position -> new EnumMap<>(Direction.class));
+        for (Direction direction : unvisited) {
+          int count = shotsHere.getOrDefault(direction, 0);
+          if (count < SHOTS_TO_KILL) {
+            shotsHere.put(direction, count + 1);
+            model.shoot(direction, 1);
+            return;
+          }
+        }
+      } else if (!visited.isEmpty()) {
+        moveRandomly(model, visited, random);
+        return;
+      }
+    }
+    if (location.hasPitNearby() && !visited.isEmpty() && random.getIntInRange(0, 1) == 0) {
+      moveRandomly(model, visited, random);
+    } else if (!unvisited.isEmpty()) {
+      moveRandomly(model, unvisited, random);
+    } else {
+      moveRandomly(model, visited, random);
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package dungeonbot;
+
+import dungeonmodel.DungeonModel;
+import dungeonmodel.DungeonModelImpl;
+import dungeonmodel.GraphType;
+import dungeonmodel.MazeAlgorithm;
+import random.RandomSource;
+
+import java.util.Objects;
+
+/**
+ * The parameters used to generate the dungeons of a balance sweep.
+ * Every dungeon requires a key to open the door at the end cave, like the Swing game.
+ */
+public final class GameParameters {
+  private final int rows;
+  private final int columns;
+  private final boolean wrapped;
+  private final int degree;
+  private final int percentageItems;
+  private final int numOtyugh;
+  private final int numAboleth;
+  private final int numThief;
+  private final int numPits;
+
+  /**
+   * Creates the parameters of a dungeon.
+   *
+   * @param rows            Number of rows in the dungeon. Should be at least 6.
+   * @param columns         Number of Columns in the dungeon. Should be at least 6.
+   * @param wrapped         Whether the dungeon is wrapped around its end
+   * @param degree          The degree of interconnectivity for the dungeon.
+   * @param percentageItems The percentage of locations having items
+   * @param numOtyugh       Number of otyughs in the dungeon
+   * @param numAboleth      Number of aboleths in the dungeon
+   * @param numThief        Number of thieves in the dungeon
+   * @param numPits         Number of pits in the dungeon
+   * @throws IllegalArgumentException if any number is negative.
+   */
+  public GameParameters(int rows, int columns, boolean wrapped, int degree, int percentageItems,
+                        int numOtyugh, int numAboleth, int numThief, int numPits) {
+    if (rows < 0 || columns < 0 || degree < 0 || percentageItems < 0 || numOtyugh < 0
+            || numAboleth < 0 || numThief < 0 || numPits < 0) {
+      throw new IllegalArgumentException("Parameters cannot be negative.");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.wrapped = wrapped;
+    this.degree = degree;
+    this.percentageItems = percentageItems;
+    this.numOtyugh = numOtyugh;
+    this.numAboleth = numAboleth;
+    this.numThief = numThief;
+    this.numPits = numPits;
+  }
+
+  /**
+   * Generates a dungeon with these parameters.
+   *
+   * @param random the source of random numbers of the dungeon.
+   * @return the generated dungeon.
+   * @throws IllegalArgumentException if the parameters are not valid for a dungeon.
+   */
+  public DungeonModel createModel(RandomSource random) {
+    return new DungeonModelImpl(rows, columns, wrapped, degree, percentageItems, numOtyugh,
+            numAboleth, numThief, numPits, true, GraphType.STANDARD, MazeAlgorithm.KRUSKAL,
+            random);
+  }
+
+  /**
+   * Gives the number of rows of the dungeon.
+   *
+   * @return the number of rows.
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Gives the number of columns of the dungeon.
+   *
+   * @return the number of columns.
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Gives whether the dungeon is wrapped around its end.
+   *
+   * @return true if the dungeon is wrapped.
+   */
+  public boolean isWrapped() {
+    return wrapped;
+  }
+
+  /**
+   * Gives the degree of interconnectivity of the dungeon.
+   *
+   * @return the degree of interconnectivity.
+   */
+  public int getDegree() {
+    return degree;
+  }
+
+  /**
+   * Gives the percentage of locations having items.
+   *
+   * @return the percentage of locations having items.
+   */
+  public int getPercentageItems() {
+    return percentageItems;
+  }
+
+  /**
+   * Gives the number of Otyughs in the dungeon.
+   *
+   * @return the number of Otyughs.
+   */
+  public int getNumOtyugh() {
+    return numOtyugh;
+  }
+
+  /**
+   * Gives the number of Aboleths in the dungeon.
+   *
+   * @return the number of Aboleths.
+   */
+  public int getNumAboleth() {
+    return numAboleth;
+  }
+
+  /**
+   * Gives the number of thieves in the dungeon.
+   *
+   * @return the number of thieves.
+   */
+  public int getNumThief() {
+    return numThief;
+  }
+
+  /**
+   * Gives the number of pits in the dungeon.
+   *
+   * @return the number of pits.
+   */
+  public int getNumPits() {
+    return numPits;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof GameParameters)) {
+      return false;
+    }
+    GameParameters that = (GameParameters) o;
+    return rows == that.rows && columns == that.columns && wrapped == that.wrapped
+            && degree == that.degree && percentageItems == that.percentageItems
+            && numOtyugh == that.numOtyugh && numAboleth == that.numAboleth
+            && numThief == that.numThief && numPits == that.numPits;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(rows, columns, wrapped, degree, percentageItems, numOtyugh, numAboleth,
+            numThief, numPits);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%dx%d%s degree=%d items=%d%% otyughs=%d aboleths=%d thieves=%d pits=%d",
+            rows, columns, wrapped ? " wrapped" : "", degree, percentageItems, numOtyugh,
+            numAboleth, numThief, numPits);
+  }
+}
@@ -0,0 +1,92 @@
+package dungeonbot;
+
+import dungeonmodel.GameStatus;
+import dungeonmodel.Treasure;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The result of a game played by a bot.
+ * The status is {@link GameStatus#GAME_CONTINUE} if the game was stopped at the turn limit.
+ */
+public final class GameResult {
+  private final GameStatus status;
+  private final int turns;
+  private final Map<Treasure, Integer> treasures;
+  private final int arrows;
+
+  /**
+   * Creates the result of a game.
+   *
+   * @param status    the status of the game when it ended.
+   * @param turns     the number of turns played.
+   * @param treasures the treasures collected by the player.
+   * @param arrows    the number of arrows left with the player.
+   * @throws IllegalArgumentException if status or treasures is null or a number is negative.
+   */
+  public GameResult(GameStatus status, int turns, Map<Treasure, Integer> treasures, int arrows) {
+    if (status == null || treasures == null || turns < 0 || arrows < 0) {
+      throw new IllegalArgumentException("Invalid result.");
+    }
+    this.status = status;
+    this.turns = turns;
+    this.treasures = new TreeMap<>(treasures);
+    this.arrows = arrows;
+  }
+
+  /**
+   * Gives the status of the game when it ended.
+   *
+   * @return the status of the game.
+   */
+  public GameStatus getStatus() {
+    return status;
+  }
+
+  /**
+   * Gives the number of turns played in the game.
+   *
+   * @return the number of turns.
+   */
+  public int getTurns() {
+    return turns;
+  }
+
+  /**
+   * Gives the amount of every treasure collected by the player.
+   *
+   * @return a copy of the collected treasures.
+   */
+  public Map<Treasure, Integer> getTreasures() {
+    return new TreeMap<>(treasures);
+  }
+
+  /**
+   * Gives the total number of treasures collected by the player.
+   *
+   * @return the number of collected treasures.
+   */
+  public int countTreasures() {
+    int count = 0;
+    for (int amount : treasures.values()) {
+      count += amount;
+    }
+    return count;
+  }
+
+  /**
+   * Gives the number of arrows the player had left.
+   *
+   * @return the number of arrows.
+   */
+  public int getArrows() {
+    return arrows;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s after %d turns with %s and %d arrows",
+            status, turns, treasures, arrows);
+  }
+}
@@ -0,0 +1,87 @@
+package dungeonbot;
+
+import dungeoncontroller.DungeonAsyncController;
+import dungeoncontroller.VirtualClock;
+import dungeonmodel.DungeonModel;
+import dungeonmodel.GameStatus;
+import random.RandomSource;
+import structureddata.PlayerDescription;
+import structureddata.Position;
+
+/**
+ * Plays a dungeon game with a bot, without a view and without waiting for real time.
+ * Every turn of the bot takes one second on a {@link VirtualClock}, which also moves the
+ * Aboleths and brings the player out of a pit after the same times as the Swing game.
+ * A thief steals from the player and a pit traps the player after every move, like in the
+ * Swing game. The game is stopped if it goes on for too many turns.
+ */
+public class GameRunner {
+  private static final long TURN_MS = 1000;
+
+  private final int turnsPerLocation;
+
+  /**
+   * Creates a runner which stops a game after the given number of turns for every location
+   * of its dungeon.
+   *
+   * @param turnsPerLocation the number of turns allowed for every location.
+   * @throws IllegalArgumentException if the number of turns is not positive.
+   */
+  public GameRunner(int turnsPerLocation) {
+    if (turnsPerLocation <= 0) {
+      throw new IllegalArgumentException("Turns per location should be positive.");
+    }
+    this.turnsPerLocation = turnsPerLocation;
+  }
+
+  /**
+   * Plays a game until it is over or the turn limit is reached.
+   *
+   * @param model    the game to play.
+   * @param strategy the strategy of the bot.
+   * @param random   the source of random numbers of the bot.
+   * @return the result of the game.
+   * @throws IllegalArgumentException if any argument is null.
+   */
+  public GameResult play(DungeonModel model, Strategy strategy, RandomSource random) {
+    if (model == null || strategy == null || random == null) {
+      throw new IllegalArgumentException("Model, strategy or random cannot be null.");
+    }
+    long maxTurns = (long) turnsPerLocation * model.getRows() * model.getColumns();
+    VirtualClock clock = new VirtualClock();
+    clock.scheduleRepeating(() -> {
+      if (model.getGameStatus() == GameStatus.GAME_CONTINUE) {
+        model.moveAboleth();
+      }
+    }, DungeonAsyncController.ABOLETH_PERIOD_MS);
+
+    int turns = 0;
+    while (model.getGameStatus() == GameStatus.GAME_CONTINUE && turns < maxTurns) {
+      turns++;
+      if (!model.getPlayerDescription().fallenInPit()) {
+        Position before = model.getPlayerDescription().getPosition();
+        try {
+          strategy.takeTurn(model, random);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+          //The action was rejected and the turn is wasted.
+        }
+        if (model.getGameStatus() == GameStatus.GAME_CONTINUE
+                && !before.equals(model.getPlayerDescription().getPosition())) {
+          afterMove(model, clock);
+        }
+      }
+      clock.advance(TURN_MS);
+    }
+    PlayerDescription player = model.getPlayerDescription();
+    return new GameResult(model.getGameStatus(), turns, player.getCollectedTreasures(),
+            player.countArrows());
+  }
+
+  private void afterMove(DungeonModel model, VirtualClock clock) {
+    model.stealTreasure();
+    if (model.getCurrentLocation().hasPit()) {
+      model.setPlayerinPit(true);
+      clock.schedule(() -> model.setPlayerinPit(false), DungeonAsyncController.PIT_DELAY_MS);
+    }
+  }
+}
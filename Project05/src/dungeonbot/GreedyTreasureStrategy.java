@@ -0,0 +1,28 @@
+package dungeonbot;
+
+import dungeonmodel.Direction;
+import dungeonmodel.DungeonModel;
+import random.RandomSource;
+import structureddata.LocationDescription;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A strategy which collects as many items as it can.
+ * The bot picks every treasure and arrow of a location before leaving it and prefers to move
+ * to locations it has not visited yet, without caring about the smell of the Otyughs.
+ */
+public class GreedyTreasureStrategy extends AbstractStrategy {
+  @Override
+  protected void play(DungeonModel model, LocationDescription location, RandomSource random) {
+    if (pickAnyItem(model, location, true)) {
+      return;
+    }
+    List<Direction> directions = unvisitedDirections(model, location);
+    if (directions.isEmpty()) {
+      directions = new ArrayList<>(location.getPossibleDirections());
+    }
+    moveRandomly(model, directions, random);
+  }
+}
@@ -0,0 +1,19 @@
+package dungeonbot;
+
+import dungeonmodel.DungeonModel;
+import random.RandomSource;
+import structureddata.LocationDescription;
+
+import java.util.ArrayList;
+
+/**
+ * A strategy which walks the dungeon randomly.
+ * The bot only picks the key and kills the Aboleths it meets, ignoring treasures and arrows,
+ * and otherwise moves in a random possible direction.
+ */
+public class RandomWalkStrategy extends AbstractStrategy {
+  @Override
+  protected void play(DungeonModel model, LocationDescription location, RandomSource random) {
+    moveRandomly(model, new ArrayList<>(location.getPossibleDirections()), random);
+  }
+}
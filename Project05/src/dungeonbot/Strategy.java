@@ -0,0 +1,23 @@
+package dungeonbot;
+
+import dungeonmodel.DungeonModel;
+import random.RandomSource;
+
+/**
+ * A strategy used by a bot to play a dungeon game.
+ * A strategy plays a single game, so it can remember what it has seen in that game.
+ * Every turn the strategy performs exactly one action on the model: moving, picking an item,
+ * shooting an arrow, killing an Aboleth or exiting the dungeon.
+ */
+public interface Strategy {
+  /**
+   * Performs the action of the bot for one turn.
+   * An action which the model rejects wastes the turn.
+   *
+   * @param model  the game being played.
+   * @param random the source of random numbers of the bot.
+   * @throws IllegalArgumentException if the model rejects the action.
+   * @throws IllegalStateException    if the model rejects the action.
+   */
+  void takeTurn(DungeonModel model, RandomSource random);
+}
@@ -0,0 +1,195 @@
+package dungeonbot;
+
+import dungeonmodel.GameStatus;
+import dungeonmodel.Treasure;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Statistics of the games played by bots with the same parameters.
+ * Counts the games won, the games in which the player was killed and the games stopped at the
+ * turn limit, the number of turns and the treasures collected. Statistics collected by
+ * different threads are merged at the end.
+ */
+public final class SweepStats {
+  private static final int HISTOGRAM_SIZE = 64;
+
+  private long games;
+  private long wins;
+  private long kills;
+  private long unfinished;
+  private long totalTurns;
+  private int minTurns;
+  private int maxTurns;
+  private final Map<Treasure, Long> treasures;
+  private final long[] treasureHistogram;
+
+  /**
+   * Creates empty statistics.
+   */
+  public SweepStats() {
+    this.minTurns = Integer.MAX_VALUE;
+    this.maxTurns = 0;
+    this.treasures = new EnumMap<>(Treasure.class);
+    this.treasureHistogram = new long[HISTOGRAM_SIZE];
+  }
+
+  /**
+   * Adds the result of a game.
+   *
+   * @param result the result of the game.
+   */
+  public void add(GameResult result) {
+    if (result == null) {
+      throw new IllegalArgumentException("Result cannot be null.");
+    }
+    games++;
+    if (result.getStatus() == GameStatus.GAME_OVER_WIN) {
+      wins++;
+    } else if (result.getStatus() == GameStatus.GAME_OVER_KILLED) {
+      kills++;
+    } else {
+      unfinished++;
+    }
+    totalTurns += result.getTurns();
+    minTurns = Math.min(minTurns, result.getTurns());
+    maxTurns = Math.max(maxTurns, result.getTurns());
+    for (Map.Entry<Treasure, Integer> entry : result.getTreasures().entrySet()) {
+      treasures.merge(entry.getKey(), (long) entry.getValue(), Long::sum);
+    }
+    treasureHistogram[Math.min(result.countTreasures(), HISTOGRAM_SIZE - 1)]++;
+  }
+
+  /**
+   * Adds all the games of other statistics to these statistics.
+   *
+   * @param other the statistics to add.
+   */
+  public void merge(SweepStats other) {
+    if (other == null) {
+      throw new IllegalArgumentException("Statistics cannot be null.");
+    }
+    games += other.games;
+    wins += other.wins;
+    kills += other.kills;
+    unfinished += other.unfinished;
+    totalTurns += other.totalTurns;
+    minTurns = Math.min(minTurns, other.minTurns);
+    maxTurns = Math.max(maxTurns, other.maxTurns);
+    for (Map.Entry<Treasure, Long> entry : other.treasures.entrySet()) {
+      treasures.merge(entry.getKey(), entry.getValue(), Long::sum);
+    }
+    for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+      treasureHistogram[i] += other.treasureHistogram[i];
+    }
+  }
+
+  /**
+   * Gives the number of games played.
+   *
+   * @return the number of games.
+   */
+  public long getGames() {
+    return games;
+  }
+
+  /**
+   * Gives the number of games in which the player reached the end.
+   *
+   * @return the number of won games.
+   */
+  public long getWins() {
+    return wins;
+  }
+
+  /**
+   * Gives the number of games in which the player was killed.
+   *
+   * @return the number of lost games.
+   */
+  public long getKills() {
+    return kills;
+  }
+
+  /**
+   * Gives the number of games stopped before they were over.
+   *
+   * @return the number of unfinished games.
+   */
+  public long getUnfinished() {
+    return unfinished;
+  }
+
+  /**
+   * Gives the fraction of the games which were won.
+   *
+   * @return the win rate, 0 if no game was played.
+   */
+  public double getWinRate() {
+    return games == 0 ? 0 : (double) wins / games;
+  }
+
+  /**
+   * Gives the fraction of the games in which the player was killed.
+   *
+   * @return the kill rate, 0 if no game was played.
+   */
+  public double getKillRate() {
+    return games == 0 ? 0 : (double) kills / games;
+  }
+
+  /**
+   * Gives the average number of turns of a game.
+   *
+   * @return the average number of turns, 0 if no game was played.
+   */
+  public double getAverageTurns() {
+    return games == 0 ? 0 : (double) totalTurns / games;
+  }
+
+  /**
+   * Gives the smallest number of turns of a game.
+   *
+   * @return the smallest number of turns, 0 if no game was played.
+   */
+  public int getMinTurns() {
+    return games == 0 ? 0 : minTurns;
+  }
+
+  /**
+   * Gives the largest number of turns of a game.
+   *
+   * @return the largest number of turns, 0 if no game was played.
+   */
+  public int getMaxTurns() {
+    return maxTurns;
+  }
+
+  /**
+   * Gives the total amount of every treasure collected in all the games.
+   *
+   * @return the collected amount of every treasure.
+   */
+  public Map<Treasure, Long> getTreasures() {
+    return new EnumMap<>(treasures);
+  }
+
+  /**
+   * Gives the number of games for every total number of collected treasures.
+   * The last entry counts the games with that many treasures or more.
+   *
+   * @return the number of games indexed by the number of collected treasures.
+   */
+  public long[] getTreasureHistogram() {
+    return Arrays.copyOf(treasureHistogram, HISTOGRAM_SIZE);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("games=%d win=%.1f%% killed=%.1f%% unfinished=%d turns=%.1f [%d, %d] "
+                    + "treasures=%s", games, 100 * getWinRate(), 100 * getKillRate(), unfinished,
+            getAverageTurns(), getMinTurns(), maxTurns, treasures);
+  }
+}
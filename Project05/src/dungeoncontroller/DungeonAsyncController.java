@@ -5,10 +5,15 @@ import dungeonmodel.Direction;
 import dungeonmodel.DungeonModel;
 import dungeonmodel.DungeonModelImpl;
 import dungeonmodel.GameStatus;
+import dungeonmodel.GraphType;
 import dungeonmodel.HitStatus;
 import dungeonmodel.Item;
+import dungeonmodel.MazeAlgorithm;
 import dungeonview.DungeonView;
-import random.RandomImpl;
+import random.RandomSource;
+import random.SplittableRandomSource;
+
+import java.util.SplittableRandom;
 
 /**
  * An MVC controller representation of {@link DungeonController}.
@@ -17,38 +22,104 @@ import random.RandomImpl;
  */
 public class DungeonAsyncController implements DungeonController, Features {
 
-  private DungeonModel model;
+  /**
+   * The time between two moves of the Aboleths, in milliseconds.
+   */
+  public static final long ABOLETH_PERIOD_MS = 2000;
+
+  /**
+   * The time for which a player who fell in a pit is trapped, in milliseconds.
+   */
+  public static final long PIT_DELAY_MS = 5000;
+
+  private volatile DungeonModel model;
   private final DungeonView view;
 
-  private MoveAbolethThread thread;
+  private final GameLoop loop;
+  private final RandomSource seeds;
+  private GameScheduler scheduler;
+  private MoveAbolethTask abolethTask;
 
   /**
    * Constructor for {@link DungeonAsyncController}.
+   * The timed events of the game follow the real time.
    *
    * @param view The DungeonView for the controller.
    */
   public DungeonAsyncController(DungeonView view) {
+    this(view, SystemClock.getInstance());
+  }
+
+  /**
+   * Constructor for {@link DungeonAsyncController}, timing the events of the game
+   * with the given clock.
+   *
+   * @param view  The DungeonView for the controller.
+   * @param clock The clock timing the events of the game.
+   */
+  public DungeonAsyncController(DungeonView view, GameClock clock) {
+    this(view, clock, new SplittableRandomSource(new SplittableRandom().nextLong()));
+  }
+
+  /**
+   * Constructor for {@link DungeonAsyncController}, timing the events of the game
+   * with the given clock. Each new game draws its random numbers from its own source
+   * split from the given one, so the games are the same for the same seed.
+   *
+   * @param view   The DungeonView for the controller.
+   * @param clock  The clock timing the events of the game.
+   * @param random The source from which the source of each new game is split.
+   */
+  public DungeonAsyncController(DungeonView view, GameClock clock, RandomSource random) {
     if (view == null) {
       throw new IllegalArgumentException("View cannot be null.");
     }
+    if (clock == null) {
+      throw new IllegalArgumentException("Clock cannot be null.");
+    }
+    if (random == null) {
+      throw new IllegalArgumentException("Random source cannot be null.");
+    }
     this.model = null; //Intentional
-    this.thread = null; //Intentional
+    this.seeds = random;
+    this.scheduler = new GameScheduler(clock);
+    this.abolethTask = null; //Intentional
     this.view = view;
+    this.loop = new GameLoop(() -> this.model, view);
   }
 
   /**
    * Constructor for {@link DungeonAsyncController}.
+   * The timed events of the game follow the real time.
    *
    * @param model The DungeonModel for the controller.
    * @param view  The DungeonView for the controller.
    */
   public DungeonAsyncController(DungeonModel model, DungeonView view) {
+    this(model, view, SystemClock.getInstance());
+  }
+
+  /**
+   * Constructor for {@link DungeonAsyncController}, timing the events of the game
+   * with the given clock.
+   *
+   * @param model The DungeonModel for the controller.
+   * @param view  The DungeonView for the controller.
+   * @param clock The clock timing the events of the game.
+   */
+  public DungeonAsyncController(DungeonModel model, DungeonView view, GameClock clock) {
     if (view == null || model == null) {
       throw new IllegalArgumentException("View or Model cannot be null.");
     }
+    if (clock == null) {
+      throw new IllegalArgumentException("Clock cannot be null.");
+    }
     this.model = model;
-    this.thread = null; //Intentional
+    this.seeds = new SplittableRandomSource(new SplittableRandom().nextLong());
+    this.scheduler = new GameScheduler(clock);
+    this.abolethTask = null; //Intentional
     this.view = view;
+    this.loop = new GameLoop(() -> this.model, view);
   }
 
   @Override
@@ -62,43 +133,44 @@ public class DungeonAsyncController implements DungeonController, Features {
     if (model == null) {
       throw new IllegalStateException("Model needs to be initialized.");
     }
-    try {
-      model.movePlayer(direction);
-      if (model.getGameStatus() == GameStatus.GAME_CONTINUE) {
-        view.showString("");
-        if (model.stealTreasure()) {
-          view.showString("The thief in tunnel stole some treasure and ran away.");
-        }
-        if (model.getCurrentLocation().containsOtyugh()) {
-          view.showString(
-                  "The Otyugh in the cave is too weak to attack!\nGet out of here ASAP!!\n");
-        }
-        if (model.getCurrentLocation().hasPit()) {
-          Thread pitThread = new Thread(() -> {
-            try {
-              model.setPlayerinPit(true);
-              view.showString("You are in a pit. It will take 5 seconds to come out.");
-              view.refresh();
-              Thread.sleep(5000);
-              model.setPlayerinPit(false);
-              if (model.getGameStatus() == GameStatus.GAME_CONTINUE) {
+    loop.submit(() -> {
+      try {
+        model.movePlayer(direction);
+        if (model.getGameStatus() == GameStatus.GAME_CONTINUE) {
+          view.showString("");
+          if (model.stealTreasure()) {
+            view.showString("The thief in tunnel stole some treasure and ran away.");
+          }
+          if (model.getCurrentLocation().containsOtyugh()) {
+            view.showString(
+                    "The Otyugh in the cave is too weak to attack!\nGet out of here ASAP!!\n");
+          }
+          if (model.getCurrentLocation().hasPit()) {
+            DungeonModel game = model;
+            GameScheduler gameScheduler = scheduler;
+            game.setPlayerinPit(true);
+            view.showString("You are in a pit. It will take 5 seconds to come out.");
+            gameScheduler.schedule(() -> loop.submit(() -> {
+              //A release queued before the game was restarted in the same batch is stale.
+              if (gameScheduler.isCancelled()) {
+                return;
+              }
+              game.setPlayerinPit(false);
+              if (game.getGameStatus() == GameStatus.GAME_CONTINUE) {
                 view.showString("You are out of pit and can move freely.");
               }
-              view.refresh();
-            } catch (InterruptedException e) {
-              //Ignore catch
-            }
-          });
-          pitThread.start();
+              loop.requestRefresh();
+            }), PIT_DELAY_MS);
+          }
+        } else if (model.getGameStatus() == GameStatus.GAME_OVER_KILLED) {
+          view.playSound("Project05\\res\\dungeonSounds\\monstereat.wav");
+          view.showString("Chomp, chomp, you are eaten by an Otyugh!!");
         }
-      } else if (model.getGameStatus() == GameStatus.GAME_OVER_KILLED) {
-        view.playSound("Project05\\res\\dungeonSounds\\monstereat.wav");
-        view.showString("Chomp, chomp, you are eaten by an Otyugh!!");
+        loop.requestRefresh();
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        //Ignore the message for move command thus ignoring invalid directions
       }
-      view.refresh();
-    } catch (IllegalArgumentException | IllegalStateException e) {
-      //Ignore the message for move command thus ignoring invalid directions
-    }
+    });
 
   }
 
@@ -107,18 +179,20 @@ public class DungeonAsyncController implements DungeonController, Features {
     if (model == null) {
       throw new IllegalStateException("Model needs to be initialized.");
     }
-    try {
-      model.pickItem(item);
-      if (item == Arrow.CROOKED_ARROW) {
-        view.playSound("Project05\\res\\dungeonSounds\\arrow_pick.wav");
-      } else {
-        view.playSound("Project05\\res\\dungeonSounds\\treasure_pick.wav");
+    loop.submit(() -> {
+      try {
+        model.pickItem(item);
+        if (item == Arrow.CROOKED_ARROW) {
+          view.playSound("Project05\\res\\dungeonSounds\\arrow_pick.wav");
+        } else {
+          view.playSound("Project05\\res\\dungeonSounds\\treasure_pick.wav");
+        }
+        view.showString(String.format("Picked %s.", item.getSingular()));
+        loop.requestRefresh();
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        view.showErrorMessage(e.getMessage());
       }
-      view.showString(String.format("Picked %s.", item.getSingular()));
-      view.refresh();
-    } catch (IllegalArgumentException | IllegalStateException e) {
-      view.showErrorMessage(e.getMessage());
-    }
+    });
   }
 
   @Override
@@ -126,22 +200,24 @@ public class DungeonAsyncController implements DungeonController, Features {
     if (model == null) {
       throw new IllegalStateException("Model needs to be initialized.");
     }
-    try {
-      HitStatus status = model.shoot(direction, distance);
-      if (status == HitStatus.HIT || status == HitStatus.KILLED) {
-        view.playSound("Project05\\res\\dungeonSounds\\otyugh_echo3.wav");
-      }
-      if (status == HitStatus.HIT) {
-        view.showString("You hear a great howl in the distance.");
-      } else if (status == HitStatus.KILLED) {
-        view.showString("The howl ended as it was slayed.");
-      } else if (status == HitStatus.MISS) {
-        view.showString("You shoot an arrow into the darkness.");
+    loop.submit(() -> {
+      try {
+        HitStatus status = model.shoot(direction, distance);
+        if (status == HitStatus.HIT || status == HitStatus.KILLED) {
+          view.playSound("Project05\\res\\dungeonSounds\\otyugh_echo3.wav");
+        }
+        if (status == HitStatus.HIT) {
+          view.showString("You hear a great howl in the distance.");
+        } else if (status == HitStatus.KILLED) {
+          view.showString("The howl ended as it was slayed.");
+        } else if (status == HitStatus.MISS) {
+          view.showString("You shoot an arrow into the darkness.");
+        }
+        loop.requestRefresh();
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        view.showErrorMessage(e.getMessage());
       }
-      view.refresh();
-    } catch (IllegalArgumentException | IllegalStateException e) {
-      view.showErrorMessage(e.getMessage());
-    }
+    });
   }
 
   @Override
@@ -154,13 +230,15 @@ public class DungeonAsyncController implements DungeonController, Features {
     if (model == null) {
       throw new IllegalStateException("Model needs to be initialized.");
     }
-    try {
-      model.killMonster();
-      view.showString("Aboleth was killed.");
-      view.refresh();
-    } catch (IllegalArgumentException | IllegalStateException e) {
-      //Ignore the catches
-    }
+    loop.submit(() -> {
+      try {
+        model.killMonster();
+        view.showString("Aboleth was killed.");
+        loop.requestRefresh();
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        //Ignore the catches
+      }
+    });
   }
 
   @Override
@@ -168,44 +246,53 @@ public class DungeonAsyncController implements DungeonController, Features {
     if (model == null) {
       throw new IllegalStateException("Model needs to be initialized.");
     }
-    try {
-      model.exitDungeon();
-      view.playSound("Project05\\res\\dungeonSounds\\win.wav");
-      view.showString("Congrats, you reached the end location.");
-      view.refresh();
-    } catch (IllegalArgumentException | IllegalStateException e) {
-      view.showErrorMessage(e.getMessage());
-    }
+    loop.submit(() -> {
+      try {
+        model.exitDungeon();
+        view.playSound("Project05\\res\\dungeonSounds\\win.wav");
+        view.showString("Congrats, you reached the end location.");
+        loop.requestRefresh();
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        view.showErrorMessage(e.getMessage());
+      }
+    });
   }
 
   @Override
   public void createNewModel(int rows, int columns, boolean isWrapped,
                              int degree, int percentageItems, int numOtyugh,
                              int numAboleth, int numThief, int numPits) {
-    RandomImpl.setSeed(RandomImpl.getIntInRange(0, 1000));
-    createModel(rows, columns, isWrapped, degree, percentageItems, numOtyugh,
-            numAboleth, numThief, numPits);
+    //The model is built by the caller so that invalid details are thrown back to it.
+    DungeonModel created = new DungeonModelImpl(rows, columns, isWrapped,
+            degree, percentageItems, numOtyugh, numAboleth, numThief, numPits, true,
+            GraphType.STANDARD, MazeAlgorithm.KRUSKAL, nextRandom());
+    loop.submit(() -> {
+      this.model = created;
+      startGame();
+    });
   }
 
   @Override
   public void resetModel() {
-    RandomImpl.setSeed(RandomImpl.getSeed());
-    createModel(model.getRows(), model.getColumns(), model.getWrapped(),
-            model.getDegree(), model.getPercentageItems(), model.countOtyughs(),
-            model.countAboleth(), model.countThief(), model.countPits());
+    if (model == null) {
+      throw new IllegalStateException("Model needs to be initialized.");
+    }
+    loop.submit(() -> {
+      model.reset();
+      startGame();
+    });
   }
 
-  private void createModel(int rows, int columns, boolean isWrapped, int degree,
-                           int percentageItems, int numOtyugh, int numAboleth,
-                           int numThief, int numPits) {
-    if (thread != null) {
-      thread.stop();
-    }
-    this.model = new DungeonModelImpl(rows, columns, isWrapped,
-            degree, percentageItems, numOtyugh, numAboleth, numThief, numPits, true);
+  private synchronized RandomSource nextRandom() {
+    return seeds.split();
+  }
+
+  private void startGame() {
+    scheduler.cancel();
+    scheduler = new GameScheduler(scheduler.getClock());
     view.setModel(model);
-    thread = new MoveAbolethThread(model, view);
-    thread.start();
-    view.refresh();
+    abolethTask = new MoveAbolethTask(scheduler, loop, model, view);
+    abolethTask.start();
+    loop.requestRefresh();
   }
 }
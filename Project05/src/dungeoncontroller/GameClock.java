@@ -0,0 +1,39 @@
+package dungeoncontroller;
+
+import java.util.concurrent.Future;
+
+/**
+ * The clock used to time the events of a game, like coming out of a pit or moving the Aboleths.
+ * The clock tells the current time and runs the scheduled events when their time comes.
+ * {@link SystemClock} follows the real time, while {@link VirtualClock} only moves when it is
+ * advanced, so that games can be simulated faster than real time and replayed exactly.
+ */
+public interface GameClock {
+  /**
+   * Gives the current time of the clock in milliseconds.
+   *
+   * @return the current time in milliseconds.
+   */
+  long currentTimeMillis();
+
+  /**
+   * Schedules an event to run once after the given delay.
+   *
+   * @param event   the event to run.
+   * @param delayMs the delay in milliseconds.
+   * @return the future of the event, which can be used to cancel it.
+   * @throws IllegalArgumentException if the event is null or the delay is negative.
+   */
+  Future<?> schedule(Runnable event, long delayMs);
+
+  /**
+   * Schedules an event to run repeatedly, first after the given period and then every period
+   * after the previous run ends, until it is cancelled.
+   *
+   * @param event    the event to run.
+   * @param periodMs the period in milliseconds.
+   * @return the future of the event, which can be used to cancel it.
+   * @throws IllegalArgumentException if the event is null or the period is not positive.
+   */
+  Future<?> scheduleRepeating(Runnable event, long periodMs);
+}
@@ -0,0 +1,92 @@
+package dungeoncontroller;
+
+import dungeonmodel.DungeonModel;
+import dungeonview.DungeonView;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Applies all the commands which change the model of a game one at a time.
+ * Any thread can submit a command to the lock-free queue of the loop. The thread which finds
+ * the loop idle becomes its only writer until the queue is empty, applying every queued command
+ * as a single batch, so the model is never changed by two threads at once and a submitting
+ * thread never waits for a lock. After each batch a snapshot of the model is published for
+ * the readers. Commands ask for the view to be refreshed and the view is refreshed once
+ * after each batch.
+ * A command runs on whichever thread drains the queue, which may be a timer thread even for
+ * a command submitted from the event thread, so the view must hand its work to its own thread.
+ * The commands report the errors expected from the model themselves. Any other exception of a
+ * command is a defect, which is passed to the uncaught exception handler of the draining
+ * thread while the rest of the batch is still applied. A caller which needs to see the errors
+ * of its arguments must check them before submitting.
+ * Visibility: Package - private
+ */
+class GameLoop {
+  private final Supplier<DungeonModel> model;
+  private final DungeonView view;
+  private final Queue<Runnable> commands;
+  private final AtomicBoolean running;
+  private boolean refresh;
+
+  protected GameLoop(Supplier<DungeonModel> model, DungeonView view) {
+    if (model == null || view == null) {
+      throw new IllegalArgumentException("Model or view cannot be null.");
+    }
+    this.model = model;
+    this.view = view;
+    this.commands = new ConcurrentLinkedQueue<>();
+    this.running = new AtomicBoolean(false);
+    this.refresh = false;
+  }
+
+  /**
+   * Submits a command to be applied by the loop. If no other thread is applying commands,
+   * the command is applied by the calling thread before this method returns, otherwise it is
+   * applied by the thread which is applying commands.
+   *
+   * @param command the command to apply.
+   */
+  protected void submit(Runnable command) {
+    if (command == null) {
+      throw new IllegalArgumentException("Command cannot be null.");
+    }
+    commands.offer(command);
+    while (!commands.isEmpty() && running.compareAndSet(false, true)) {
+      try {
+        applyBatch();
+      } finally {
+        running.set(false);
+      }
+    }
+  }
+
+  /**
+   * Asks for the view to be refreshed after the current batch. Called only by the commands.
+   */
+  protected void requestRefresh() {
+    refresh = true;
+  }
+
+  private void applyBatch() {
+    Runnable command;
+    while ((command = commands.poll()) != null) {
+      try {
+        command.run();
+      } catch (RuntimeException e) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+      }
+    }
+    DungeonModel current = model.get();
+    if (current != null) {
+      current.publishSnapshot();
+    }
+    if (refresh) {
+      refresh = false;
+      view.refresh();
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package dungeoncontroller;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+/**
+ * Schedules the timed events of a single game, like coming out of a pit or moving the Aboleths.
+ * The events are run by the {@link GameClock} of the game, which is shared by many games.
+ * Cancelling the scheduler cancels all the pending events of its game and no new events can be
+ * scheduled after that.
+ * Visibility: Package - private
+ */
+class GameScheduler {
+  private final GameClock clock;
+  private final Set<Future<?>> events;
+  private volatile boolean cancelled;
+
+  protected GameScheduler(GameClock clock) {
+    if (clock == null) {
+      throw new IllegalArgumentException("Clock cannot be null.");
+    }
+    this.clock = clock;
+    this.events = ConcurrentHashMap.newKeySet();
+    this.cancelled = false;
+  }
+
+  /**
+   * Schedules an event to run once after the given delay.
+   *
+   * @param event   the event to run.
+   * @param delayMs the delay in milliseconds.
+   * @return the future of the event, which can be used to cancel it.
+   * @throws IllegalStateException if the scheduler has been cancelled.
+   */
+  protected Future<?> schedule(Runnable event, long delayMs) {
+    checkEvent(event, delayMs);
+    return track(clock.schedule(guard(event), delayMs));
+  }
+
+  /**
+   * Schedules an event to run repeatedly, first after the given period and then every period,
+   * until it is cancelled.
+   *
+   * @param event    the event to run.
+   * @param periodMs the period in milliseconds.
+   * @return the future of the event, which can be used to cancel it.
+   * @throws IllegalStateException if the scheduler has been cancelled.
+   */
+  protected Future<?> scheduleRepeating(Runnable event, long periodMs) {
+    checkEvent(event, periodMs);
+    if (periodMs == 0) {
+      throw new IllegalArgumentException("Period should be positive.");
+    }
+    return track(clock.scheduleRepeating(guard(event), periodMs));
+  }
+
+  /**
+   * Cancels all the pending events of the game.
+   */
+  protected void cancel() {
+    cancelled = true;
+    for (Future<?> event : events) {
+      event.cancel(false);
+    }
+    events.clear();
+  }
+
+  protected boolean isCancelled() {
+    return cancelled;
+  }
+
+  protected GameClock getClock() {
+    return clock;
+  }
+
+  private void checkEvent(Runnable event, long delayMs) {
+    if (event == null || delayMs < 0) {
+      throw new IllegalArgumentException("Invalid event or delay.");
+    }
+    if (cancelled) {
+      throw new IllegalStateException("Scheduler has been cancelled.");
+    }
+  }
+
+  private Future<?> track(Future<?> event) {
+    events.removeIf(Future::isDone);
+    events.add(event);
+    if (cancelled) {
+      event.cancel(false);
+    }
+    return event;
+  }
+
+  private Runnable guard(Runnable event) {
+    return () -> {
+      if (!cancelled) {
+        event.run();
+      }
+    };
+  }
+}
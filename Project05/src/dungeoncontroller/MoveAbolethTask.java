@@ -0,0 +1,73 @@
+package dungeoncontroller;
+
+import dungeonmodel.DungeonModel;
+import dungeonmodel.GameStatus;
+import dungeonview.DungeonView;
+
+import java.util.concurrent.Future;
+
+/**
+ * A timed event to move Aboleths independent of player movement.
+ * Aboleths will move every 2 seconds on the scheduler of the game, until the game ends
+ * or the task is stopped. Every move is submitted to the game loop, so that it is applied
+ * in order with the commands of the player.
+ * Visibility: package-private
+ */
+class MoveAbolethTask implements Runnable {
+
+  private final GameScheduler scheduler;
+  private final GameLoop loop;
+  private final DungeonModel model;
+  private final DungeonView view;
+  private Future<?> event;
+
+  protected MoveAbolethTask(GameScheduler scheduler, GameLoop loop, DungeonModel model,
+                            DungeonView view) {
+    if (scheduler == null || loop == null || model == null || view == null) {
+      throw new IllegalArgumentException("Scheduler, loop, model or view cannot be null");
+    }
+    this.scheduler = scheduler;
+    this.loop = loop;
+    this.model = model;
+    this.view = view;
+    this.event = null;
+  }
+
+  @Override
+  public void run() {
+    loop.submit(this::moveAboleth);
+  }
+
+  private void moveAboleth() {
+    //A move queued before the game was restarted in the same batch is stale.
+    if (scheduler.isCancelled()) {
+      return;
+    }
+    if (model.getGameStatus() != GameStatus.GAME_CONTINUE) {
+      stop();
+      return;
+    }
+    model.moveAboleth();
+    if (model.getGameStatus() == GameStatus.GAME_OVER_KILLED) {
+      view.playSound("Project05\\res\\dungeonSounds\\monstereat.wav");
+      view.showString("Chomp, chomp, you are eaten by an Aboleth!!");
+    }
+    loop.requestRefresh();
+  }
+
+  protected synchronized void start() {
+    if (event == null) {
+      event = scheduler.scheduleRepeating(this, DungeonAsyncController.ABOLETH_PERIOD_MS);
+    }
+  }
+
+  protected synchronized void stop() {
+    if (event != null) {
+      event.cancel(false);
+    }
+  }
+
+  protected synchronized boolean isRunning() {
+    return event != null && !event.isDone();
+  }
+}
@@ -0,0 +1,56 @@
+package dungeoncontroller;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link GameClock} following the real time.
+ * The events of all the games run on a small pool of daemon threads shared by every game,
+ * so a game does not need a thread of its own for waiting.
+ */
+public final class SystemClock implements GameClock {
+  private static final int NUM_THREADS = 2;
+  private static final SystemClock INSTANCE = new SystemClock();
+
+  private final ScheduledThreadPoolExecutor executor;
+
+  private SystemClock() {
+    executor = new ScheduledThreadPoolExecutor(NUM_THREADS, runnable -> {
+      Thread thread = new Thread(runnable, "dungeon-events");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.setRemoveOnCancelPolicy(true);
+  }
+
+  /**
+   * Gives the clock shared by all the games.
+   *
+   * @return the system clock.
+   */
+  public static SystemClock getInstance() {
+    return INSTANCE;
+  }
+
+  @Override
+  public long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  @Override
+  public Future<?> schedule(Runnable event, long delayMs) {
+    if (event == null || delayMs < 0) {
+      throw new IllegalArgumentException("Invalid event or delay.");
+    }
+    return executor.schedule(event, delayMs, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Future<?> scheduleRepeating(Runnable event, long periodMs) {
+    if (event == null || periodMs <= 0) {
+      throw new IllegalArgumentException("Invalid event or period.");
+    }
+    return executor.scheduleWithFixedDelay(event, periodMs, periodMs, TimeUnit.MILLISECONDS);
+  }
+}
@@ -0,0 +1,227 @@
+package dungeoncontroller;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link GameClock} which moves only when it is advanced.
+ * Advancing the clock runs all the events which become due, in the order of their time and
+ * then of their scheduling, on the thread advancing the clock. No time is spent waiting, so
+ * a whole game with pits and moving Aboleths can be simulated instantly and gives the same
+ * result every time it is replayed.
+ */
+public final class VirtualClock implements GameClock {
+  private final PriorityQueue<Event> events;
+  private long now;
+  private long sequence;
+
+  /**
+   * Creates a virtual clock starting at time 0.
+   */
+  public VirtualClock() {
+    this.events = new PriorityQueue<>();
+    this.now = 0;
+    this.sequence = 0;
+  }
+
+  @Override
+  public synchronized long currentTimeMillis() {
+    return now;
+  }
+
+  @Override
+  public Future<?> schedule(Runnable event, long delayMs) {
+    if (event == null || delayMs < 0) {
+      throw new IllegalArgumentException("Invalid event or delay.");
+    }
+    return add(event, delayMs, 0);
+  }
+
+  @Override
+  public Future<?> scheduleRepeating(Runnable event, long periodMs) {
+    if (event == null || periodMs <= 0) {
+      throw new IllegalArgumentException("Invalid event or period.");
+    }
+    return add(event, periodMs, periodMs);
+  }
+
+  /**
+   * Moves the clock forward by the given time, running every event which becomes due.
+   * Events scheduled by the running events are also run if they become due.
+   * If an event throws, it is completed with the exception and not repeated, like an event
+   * of a scheduled executor, and the exception is thrown from this method. The clock is then
+   * left at the time of the failed event, with the later events still pending, so advancing
+   * it again runs them.
+   *
+   * @param timeMs the time in milliseconds by which to move the clock.
+   * @throws IllegalArgumentException if the time is negative.
+   * @throws RuntimeException         the exception thrown by an event.
+   */
+  public void advance(long timeMs) {
+    if (timeMs < 0) {
+      throw new IllegalArgumentException("Time cannot be negative.");
+    }
+    long target;
+    synchronized (this) {
+      target = now + timeMs;
+    }
+    Event event;
+    while ((event = nextDue(target)) != null) {
+      event.run();
+    }
+    synchronized (this) {
+      now = Math.max(now, target);
+    }
+  }
+
+  /**
+   * Gives the number of events waiting to run.
+   *
+   * @return the number of pending events.
+   */
+  public synchronized int countPendingEvents() {
+    return events.size();
+  }
+
+  private synchronized Event add(Runnable task, long delayMs, long periodMs) {
+    Event event = new Event(task, now + delayMs, sequence++, periodMs);
+    events.add(event);
+    return event;
+  }
+
+  private synchronized Event nextDue(long target) {
+    if (events.isEmpty() || events.peek().time > target) {
+      return null;
+    }
+    Event event = events.poll();
+    now = event.time;
+    return event;
+  }
+
+  private synchronized void reschedule(Event event) {
+    if (!event.cancelled) {
+      event.time = now + event.periodMs;
+      event.sequence = sequence++;
+      events.add(event);
+    }
+  }
+
+  /**
+   * An event scheduled on the virtual clock.
+   */
+  private final class Event implements Future<Void>, Comparable<Event> {
+    private final Runnable task;
+    private final long periodMs;
+    private long time;
+    private long sequence;
+    private volatile boolean cancelled;
+    private volatile boolean done;
+    private volatile RuntimeException failure;
+
+    private Event(Runnable task, long time, long sequence, long periodMs) {
+      this.task = task;
+      this.time = time;
+      this.sequence = sequence;
+      this.periodMs = periodMs;
+    }
+
+    private void run() {
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        //Like a scheduled executor, a failed event is completed and not repeated.
+        failure = e;
+        done = true;
+        throw e;
+      }
+      if (periodMs == 0) {
+        done = true;
+      } else {
+        reschedule(this);
+      }
+    }
+
+    @Override
+    public int compareTo(Event other) {
+      if (time != other.time) {
+        return Long.compare(time, other.time);
+      }
+      return Long.compare(sequence, other.sequence);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      if (done || cancelled) {
+        return false;
+      }
+      cancelled = true;
+      synchronized (VirtualClock.this) {
+        events.remove(this);
+      }
+      return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+      return done || cancelled;
+    }
+
+    /**
+     * Gives the result of the event once it has run. Nothing else advances a virtual clock,
+     * so waiting for a pending event would never end and the clock must be advanced first.
+     *
+     * @return null.
+     * @throws CancellationException if the event was cancelled.
+     * @throws ExecutionException    if the event threw an exception.
+     * @throws IllegalStateException if the event has not run yet.
+     */
+    @Override
+    public Void get() throws ExecutionException {
+      if (!isDone()) {
+        throw new IllegalStateException("Event has not run yet, the clock needs to be advanced.");
+      }
+      return result();
+    }
+
+    /**
+     * Gives the result of the event if it has run. The clock cannot move while waiting, so a
+     * pending event times out at once.
+     *
+     * @param timeout the time to wait, which makes no difference.
+     * @param unit    the unit of the timeout.
+     * @return null.
+     * @throws CancellationException if the event was cancelled.
+     * @throws ExecutionException    if the event threw an exception.
+     * @throws TimeoutException      if the event has not run yet.
+     */
+    @Override
+    public Void get(long timeout, TimeUnit unit) throws ExecutionException, TimeoutException {
+      if (unit == null) {
+        throw new IllegalArgumentException("Unit cannot be null.");
+      }
+      if (!isDone()) {
+        throw new TimeoutException("Event has not run yet, the clock needs to be advanced.");
+      }
+      return result();
+    }
+
+    private Void result() throws ExecutionException {
+      if (cancelled) {
+        throw new CancellationException("Event was cancelled.");
+      }
+      if (failure != null) {
+        throw new ExecutionException(failure);
+      }
+      return null;
+    }
+  }
+}
@@ -1,28 +1,46 @@
 package dungeonmodel;
 
-import random.RandomImpl;
+import random.RandomSource;
 import structureddata.Position;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Aboleth Monster that resides in dungeon.
  * Aboleth is able to move to any of the nearby location from its current location.
  * Aboleth will kill player 100% of times when it sees the player.
+ * A living Aboleth keeps its cell up to date in the index of the Aboleths of its dungeon.
  * Visibility: Package - private
  */
 class Aboleth implements Monster {
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private final OccupancyIndex index;
+  private final int id;
   private Location location;
   private int health;
 
-  protected Aboleth(Location location) {
-    if (location == null) {
-      throw new IllegalArgumentException("Location cannot be null");
+  protected Aboleth(Location location, OccupancyIndex index, int id) {
+    this(location, 1, index, id);
+  }
+
+  /**
+   * Creates an Aboleth with the given health, like a killed Aboleth of a saved dungeon.
+   * Only a living Aboleth is marked in its location and added to the index.
+   */
+  protected Aboleth(Location location, int health, OccupancyIndex index, int id) {
+    if (location == null || index == null) {
+      throw new IllegalArgumentException("Location or index cannot be null");
+    }
+    if (health < 0 || health > 1) {
+      throw new IllegalArgumentException("Health of an Aboleth should be 0 or 1.");
     }
     this.location = location;
-    location.setAboleth(true);
-    this.health = 1;
+    this.health = health;
+    this.index = index;
+    this.id = id;
+    if (isAlive()) {
+      location.setAboleth(true);
+      index.add(id, location.getPosition());
+    }
   }
 
   @Override
@@ -32,9 +50,11 @@ class Aboleth implements Monster {
 
   @Override
   public void damage() {
-    health--;
-    if (health <= 0) {
-      location.setAboleth(false);
+    if (isAlive()) {
+      health--;
+      if (!isAlive()) {
+        leave();
+      }
     }
   }
 
@@ -44,16 +64,46 @@ class Aboleth implements Monster {
   }
 
   @Override
-  public GameStatus killPlayer() {
+  public int getHealth() {
+    return health;
+  }
+
+  @Override
+  public void restoreHealth(int health) {
+    if (health < 0 || health > 1) {
+      throw new IllegalArgumentException("Health of an Aboleth should be 0 or 1.");
+    }
+    if (!isAlive() && health > 0) {
+      location.setAboleth(true);
+      index.add(id, location.getPosition());
+    } else if (isAlive() && health == 0) {
+      leave();
+    }
+    this.health = health;
+  }
+
+  @Override
+  public GameStatus killPlayer(RandomSource random) {
     return GameStatus.GAME_OVER_KILLED;
   }
 
   @Override
-  public void move() {
-    List<Direction> possibleDirections = new ArrayList<>(location.getConnections().keySet());
-    int random = RandomImpl.getIntInRange(0, possibleDirections.size() - 1);
-    location.setAboleth(false);
-    location = location.getConnections().get(possibleDirections.get(random));
+  public void move(RandomSource random) {
+    int mask = location.getDirectionMask();
+    int choice = random.getIntInRange(0, Integer.bitCount(mask) - 1);
+    for (int i = 0; i < choice; i++) {
+      mask &= mask - 1;
+    }
+    leave();
+    location = location.neighbor(DIRECTIONS[Integer.numberOfTrailingZeros(mask)]);
     location.setAboleth(true);
+    index.add(id, location.getPosition());
+  }
+
+  private void leave() {
+    Position position = location.getPosition();
+    index.remove(id, position);
+    //Another Aboleth can still be in the same location.
+    location.setAboleth(index.first(position) != -1);
   }
 }
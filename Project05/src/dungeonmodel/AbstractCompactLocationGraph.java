@@ -0,0 +1,293 @@
+package dungeonmodel;
+
+import random.RandomSource;
+import structureddata.Position;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Abstract representation of a LocationGraph in which every location is a cell numbered row by
+ * row, whose connections are kept as a 4 bit mask with one bit for each direction.
+ * A location is a cave or a tunnel depending on the number of bits set in its mask.
+ * Items, flags and Otyughs of the locations are also stored per cell and
+ * the {@link Location}s are only created when they are asked for. A cell which has an Otyugh,
+ * living or killed, is flagged so that the Otyughs are looked up only for those cells.
+ * The masks, flags and items are read and written through a few methods, so that the
+ * subclasses decide where the cells are stored.
+ * Visibility: Package - private
+ */
+abstract class AbstractCompactLocationGraph extends AbstractLocationGraph {
+  protected static final int VISITED = 1;
+  protected static final int KEY = 2;
+  protected static final int THIEF = 4;
+  protected static final int ABOLETH = 8;
+  protected static final int PIT = 16;
+  protected static final int OTYUGH = 32;
+
+  protected static final Direction[] DIRECTIONS = Direction.values();
+  protected static final Treasure[] TREASURES = Treasure.values();
+
+  protected final Map<Integer, Monster> otyughs;
+
+  protected AbstractCompactLocationGraph(int rows, int columns, boolean isWrapped,
+                                         int degree, int percentageItems, int numAboleth,
+                                         int numThief, int numPits, boolean requireKey,
+                                         RandomSource random) {
+    super(rows, columns, isWrapped, degree, percentageItems, numAboleth,
+            numThief, numPits, requireKey, random);
+    otyughs = new HashMap<>();
+  }
+
+  protected abstract int getDirectionMask(int cell);
+
+  /**
+   * Adds a path from a cell in the given direction. Only the mask of the cell is changed.
+   *
+   * @param cell      the cell.
+   * @param direction the direction of the path.
+   */
+  protected abstract void addPath(int cell, Direction direction);
+
+  protected abstract int getFlags(int cell);
+
+  protected abstract void setFlags(int cell, int flags);
+
+  protected abstract int countArrows(int cell);
+
+  protected abstract void setArrows(int cell, int numArrows);
+
+  protected abstract int countTreasure(int cell, Treasure treasure);
+
+  protected abstract void setTreasureAmount(int cell, Treasure treasure, int amount);
+
+  @Override
+  protected Collection<Monster> getOtyughs() {
+    return otyughs.values();
+  }
+
+  @Override
+  public Location getLocation(Position position) {
+    return location(cellOf(position));
+  }
+
+  @Override
+  public boolean hasEdge(Position first, Position second) {
+    if (first == null || second == null) {
+      throw new IllegalArgumentException("Invalid location.");
+    }
+    return hasEdge(cellOf(first), cellOf(second));
+  }
+
+  protected Location location(int cell) {
+    return new CompactLocation(this, cell);
+  }
+
+  protected int cellOf(Position position) {
+    return grid.cell(position);
+  }
+
+  protected boolean hasDirection(int cell, Direction direction) {
+    return Grid.hasDirection(getDirectionMask(cell), direction);
+  }
+
+  protected int neighbor(int cell, Direction direction) {
+    return grid.neighbor(cell, direction);
+  }
+
+  protected Position getPosition(int cell) {
+    return grid.position(cell);
+  }
+
+  protected Map<Direction, Location> getConnections(int cell) {
+    Map<Direction, Location> connections = new TreeMap<>();
+    for (Direction direction : DIRECTIONS) {
+      if (hasDirection(cell, direction)) {
+        connections.put(direction, location(neighbor(cell, direction)));
+      }
+    }
+    return connections;
+  }
+
+  protected Location getNeighbor(int cell, Direction direction) {
+    if (direction == null) {
+      throw new IllegalArgumentException("Direction cannot be null.");
+    }
+    return hasDirection(cell, direction) ? location(neighbor(cell, direction)) : null;
+  }
+
+  protected Map<Treasure, Integer> getTreasureMap(int cell) {
+    Map<Treasure, Integer> treasureMap = new TreeMap<>();
+    for (Treasure treasure : TREASURES) {
+      int amount = countTreasure(cell, treasure);
+      if (amount > 0) {
+        treasureMap.put(treasure, amount);
+      }
+    }
+    return treasureMap;
+  }
+
+  protected boolean isCave(int cell) {
+    return Integer.bitCount(getDirectionMask(cell)) != 2;
+  }
+
+  protected boolean containsOtyugh(int cell) {
+    if (!hasFlag(cell, OTYUGH)) {
+      return false;
+    }
+    Monster otyugh = otyughs.get(cell);
+    return otyugh != null && otyugh.isAlive();
+  }
+
+  protected Monster getOtyugh(int cell) {
+    return otyughs.get(cell);
+  }
+
+  protected boolean hasFlag(int cell, int flag) {
+    return (getFlags(cell) & flag) != 0;
+  }
+
+  protected void setFlag(int cell, int flag, boolean value) {
+    int flags = getFlags(cell);
+    setFlags(cell, value ? flags | flag : flags & ~flag);
+  }
+
+  protected boolean hasEdge(int cell, int other) {
+    for (Direction direction : DIRECTIONS) {
+      if (hasDirection(cell, direction) && neighbor(cell, direction) == other) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  protected void setTreasure(int cell, RandomSource random) {
+    if (!isCave(cell)) {
+      throw new IllegalStateException("Cannot set/remove treasure in a tunnel");
+    }
+    Map<Treasure, Integer> treasureMap = new TreeMap<>();
+    Cave.addRandomTreasure(treasureMap, random);
+    for (Map.Entry<Treasure, Integer> entry : treasureMap.entrySet()) {
+      setTreasureAmount(cell, entry.getKey(), entry.getValue());
+    }
+  }
+
+  protected void setArrow(int cell, RandomSource random) {
+    setArrows(cell, countArrows(cell) + random.getIntInRange(1, 3));
+  }
+
+  protected void addOtyugh(int cell, SmellField smell) {
+    if (!isCave(cell)) {
+      throw new IllegalStateException("Cannot put Otyugh in a tunnel.");
+    }
+    otyughs.put(cell, new Otyugh(location(cell), smell));
+    setFlag(cell, OTYUGH, true);
+  }
+
+  protected void removeTreasure(int cell, Treasure treasure, int amount) {
+    if (treasure == null) {
+      throw new IllegalArgumentException("Invalid treasure.");
+    }
+    if (!isCave(cell)) {
+      throw new IllegalStateException("Cannot set/remove treasure in a tunnel");
+    }
+    int newAmount = countTreasure(cell, treasure) - amount;
+    if (newAmount < 0) {
+      throw new IllegalArgumentException("Does not contain enough treasure to be removed.");
+    }
+    setTreasureAmount(cell, treasure, newAmount);
+  }
+
+  protected void removeArrow(int cell, int amount) {
+    if (countArrows(cell) == 0) {
+      throw new IllegalStateException("Location does not have any arrows.");
+    }
+    int newAmount = countArrows(cell) - amount;
+    if (newAmount < 0) {
+      throw new IllegalArgumentException("Does not contain enough arrows to be removed.");
+    }
+    setArrows(cell, newAmount);
+  }
+
+  protected void restoreItems(int cell, int numArrows, Map<Treasure, Integer> treasureMap) {
+    if (numArrows < 0 || numArrows > Byte.MAX_VALUE || treasureMap == null) {
+      throw new IllegalArgumentException("Invalid arrows or treasures.");
+    }
+    if (!isCave(cell) && !treasureMap.isEmpty()) {
+      throw new IllegalStateException("Cannot set/remove treasure in a tunnel");
+    }
+    setArrows(cell, numArrows);
+    for (Treasure treasure : TREASURES) {
+      setTreasureAmount(cell, treasure, treasureMap.getOrDefault(treasure, 0));
+    }
+  }
+
+  protected HitStatus shootArrow(int cell, Direction direction, int distance) {
+    if (direction == null) {
+      throw new IllegalArgumentException("Direction cannot be null.");
+    } else if (distance < 1 || distance > 5) {
+      throw new IllegalArgumentException("Distance should be between 1 and 5.");
+    } else if (hasDirection(cell, direction)) {
+      return shootArrowHelper(neighbor(cell, direction), direction, distance - 1);
+    } else {
+      return HitStatus.MISS;
+    }
+  }
+
+  protected HitStatus shootArrowHelper(int cell, Direction direction, int distance) {
+    if (direction == null) {
+      throw new IllegalArgumentException("Direction cannot be null");
+    }
+    while (true) {
+      if (isCave(cell)) {
+        if (distance == 0) {
+          if (containsOtyugh(cell)) {
+            Monster otyugh = otyughs.get(cell);
+            otyugh.damage();
+            return otyugh.isAlive() ? HitStatus.HIT : HitStatus.KILLED;
+          }
+          return HitStatus.MISS;
+        } else if (!hasDirection(cell, direction)) {
+          return HitStatus.MISS;
+        }
+      } else {
+        if (distance == 0 || !hasDirection(cell, direction.opposite())) {
+          return HitStatus.MISS;
+        }
+        Direction entry = direction.opposite();
+        for (Direction exit : DIRECTIONS) {
+          if (exit != entry && hasDirection(cell, exit)) {
+            direction = exit;
+            break;
+          }
+        }
+      }
+      cell = neighbor(cell, direction);
+      distance--;
+    }
+  }
+
+  protected Direction getDirection(int cell, Position otherPosition) {
+    if (otherPosition == null) {
+      throw new IllegalArgumentException("Invalid Position");
+    }
+    int other = cellOf(otherPosition);
+    for (Direction direction : DIRECTIONS) {
+      if (neighbor(cell, direction) == other) {
+        return direction;
+      }
+    }
+    throw new IllegalArgumentException("The Locations cannot be connected");
+  }
+
+  protected boolean hasPitNearby(int cell) {
+    for (Direction direction : DIRECTIONS) {
+      if (hasDirection(cell, direction) && hasFlag(neighbor(cell, direction), PIT)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -1,15 +1,11 @@
 package dungeonmodel;
 
-import random.RandomImpl;
-import structureddata.DistanceData;
+import random.RandomSource;
 import structureddata.Position;
 
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.Map;
-import java.util.Queue;
-import java.util.Set;
 import java.util.TreeMap;
+import java.util.function.Consumer;
 
 /**
  * Abstract representation of a location.
@@ -17,7 +13,10 @@ import java.util.TreeMap;
  * Visibility: Package - private
  */
 abstract class AbstractLocation implements Location {
-  protected final Map<Direction, Location> connectedMap;
+  protected static final Direction[] DIRECTIONS = Direction.values();
+
+  protected final Location[] neighbors;
+  protected int directionMask;
   protected final Position position;
   protected int numCrookedArrows;
   protected boolean visited;
@@ -30,7 +29,10 @@ abstract class AbstractLocation implements Location {
       throw new IllegalArgumentException("Invalid argument.");
     }
     this.position = new Position(row, column);
-    this.connectedMap = connectedMap;
+    this.neighbors = new Location[DIRECTIONS.length];
+    for (Map.Entry<Direction, Location> entry : connectedMap.entrySet()) {
+      connect(entry.getKey(), entry.getValue());
+    }
     this.numCrookedArrows = 0;
     this.visited = false;
     this.hasAboleth = false;
@@ -45,7 +47,43 @@ abstract class AbstractLocation implements Location {
 
   @Override
   public Map<Direction, Location> getConnections() {
-    return new TreeMap<>(connectedMap);
+    Map<Direction, Location> connections = new TreeMap<>();
+    for (Direction direction : DIRECTIONS) {
+      if (neighbors[direction.ordinal()] != null) {
+        connections.put(direction, neighbors[direction.ordinal()]);
+      }
+    }
+    return connections;
+  }
+
+  @Override
+  public Location neighbor(Direction direction) {
+    if (direction == null) {
+      throw new IllegalArgumentException("Direction cannot be null.");
+    }
+    return neighbors[direction.ordinal()];
+  }
+
+  @Override
+  public int getDirectionMask() {
+    return directionMask;
+  }
+
+  @Override
+  public void forEachNeighbor(Consumer<Location> action) {
+    if (action == null) {
+      throw new IllegalArgumentException("Action cannot be null.");
+    }
+    for (Location neighbor : neighbors) {
+      if (neighbor != null) {
+        action.accept(neighbor);
+      }
+    }
+  }
+
+  protected void connect(Direction direction, Location other) {
+    neighbors[direction.ordinal()] = other;
+    directionMask |= Grid.bit(direction);
   }
 
   @Override
@@ -83,7 +121,12 @@ abstract class AbstractLocation implements Location {
     if (location == null) {
       throw new IllegalArgumentException("Invalid location.");
     }
-    return connectedMap.containsValue(location);
+    for (Location neighbor : neighbors) {
+      if (location.equals(neighbor)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   @Override
@@ -91,13 +134,12 @@ abstract class AbstractLocation implements Location {
     if (other == null) {
       throw new IllegalArgumentException("Invalid location.");
     }
-    Direction direction = getDirection(other.getPosition());
-    connectedMap.put(direction, other);
+    connect(getDirection(other.getPosition()), other);
   }
 
   @Override
-  public void setArrow() {
-    int numArrows = RandomImpl.getIntInRange(1, 3);
+  public void setArrow(RandomSource random) {
+    int numArrows = random.getIntInRange(1, 3);
     this.numCrookedArrows += numArrows;
   }
 
@@ -115,32 +157,14 @@ abstract class AbstractLocation implements Location {
   }
 
   @Override
-  public SmellLevel getSmellLevel() {
-    Set<Location> visited = new HashSet<>();
-    Queue<DistanceData<Location>> q = new LinkedList<>();
-    visited.add(this);
-    q.add(new DistanceData<>(this, this, 0));
-    int[] otyughAtDistance = new int[3];
-    while (!q.isEmpty()) {
-      DistanceData<Location> distanceData = q.poll();
-      Location current = distanceData.getEnd();
-      int distance = distanceData.getDistance();
-      if (current.containsOtyugh()) {
-        otyughAtDistance[distance] += 1;
-      }
-      for (Location location : current.getConnections().values()) {
-        if (!visited.contains(location) && distance < 2) {
-          visited.add(location);
-          q.add(new DistanceData<>(this, location, distance + 1));
-        }
-      }
+  public void restoreItems(int numArrows, Map<Treasure, Integer> treasureMap) {
+    if (numArrows < 0 || treasureMap == null) {
+      throw new IllegalArgumentException("Invalid arrows or treasures.");
     }
-    if (otyughAtDistance[1] == 0 && otyughAtDistance[2] == 1) {
-      return SmellLevel.LESS_PUNGENT;
-    } else if (otyughAtDistance[1] + otyughAtDistance[2] > 0) {
-      return SmellLevel.MORE_PUNGENT;
+    if (!treasureMap.isEmpty()) {
+      throw new IllegalStateException("Cannot set/remove treasure in a tunnel");
     }
-    return SmellLevel.NO_SMELL;
+    numCrookedArrows = numArrows;
   }
 
   @Override
@@ -149,8 +173,8 @@ abstract class AbstractLocation implements Location {
       throw new IllegalArgumentException("Direction cannot be null.");
     } else if (distance < 1 || distance > 5) {
       throw new IllegalArgumentException("Distance should be between 1 and 5.");
-    } else if (connectedMap.containsKey(direction)) {
-      return connectedMap.get(direction).shootArrowHelper(direction, distance - 1);
+    } else if (neighbors[direction.ordinal()] != null) {
+      return neighbors[direction.ordinal()].shootArrowHelper(direction, distance - 1);
     } else {
       return HitStatus.MISS;
     }
@@ -219,8 +243,8 @@ abstract class AbstractLocation implements Location {
 
   @Override
   public boolean hasPitNearby() {
-    for (Location adjecent : connectedMap.values()) {
-      if (adjecent.hasPit()) {
+    for (Location adjecent : neighbors) {
+      if (adjecent != null && adjecent.hasPit()) {
         return true;
       }
     }
@@ -0,0 +1,309 @@
+package dungeonmodel;
+
+import random.RandomSource;
+import structureddata.LocationDescription;
+import structureddata.Position;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Abstract representation of a LocationGraph.
+ * Contains the properties of the dungeon and the handling of Aboleths and Thieves
+ * that is common to every storage of the locations.
+ * The state of the graph can be marked as pristine and reset back to it later. The reset
+ * restores only the locations changed since the mark, along with the monsters and thieves.
+ * Visibility: Package - private
+ */
+abstract class AbstractLocationGraph implements LocationGraph {
+
+  protected final int rows;
+  protected final int columns;
+  protected final boolean isWrapped;
+  protected int degreeOfInterconnectivity;
+  protected final int percentageItems;
+  protected int numOtyughs;
+  protected final boolean requireKey;
+  protected int numPits;
+
+  protected final Monster[] aboleth;
+  protected final Thief[] thief;
+  protected final OccupancyIndex abolethIndex;
+  protected final OccupancyIndex thiefIndex;
+  protected final RandomSource random;
+  protected final Grid grid;
+  protected final ChangeLog changes;
+
+  private Location[] pristineAboleths;
+  private int[] pristineAbolethHealth;
+  private Monster[] pristineOtyughs;
+  private int[] pristineOtyughHealth;
+  private Location[] pristineThieves;
+
+  protected AbstractLocationGraph(int rows, int columns, boolean isWrapped,
+                                  int degree, int percentageItems, int numAboleth,
+                                  int numThief, int numPits, boolean requireKey,
+                                  RandomSource random) {
+    checkArguments(rows, columns, degree, percentageItems, numAboleth, numThief, numPits);
+    if (random == null) {
+      throw new IllegalArgumentException("Random source cannot be null.");
+    }
+    this.random = random;
+    this.grid = new Grid(rows, columns);
+    this.changes = new ChangeLog(grid);
+    this.rows = rows;
+    this.columns = columns;
+    this.isWrapped = isWrapped;
+    this.degreeOfInterconnectivity = degree;
+    this.percentageItems = percentageItems;
+    this.requireKey = requireKey;
+    this.numPits = numPits;
+    aboleth = new Aboleth[numAboleth];
+    thief = new Thief[numThief];
+    abolethIndex = new OccupancyIndex(grid, numAboleth);
+    thiefIndex = new OccupancyIndex(grid, numThief);
+  }
+
+  private void checkArguments(int rows, int columns,
+                              int degreeOfInterconnectivity, int percentageCavesWithTreasure,
+                              int numAboleth, int numThief, int numPits) {
+    if (rows < 6 || columns < 6) {
+      throw new IllegalArgumentException("Rows and columns should be minimum 6.");
+    } else if (degreeOfInterconnectivity < 0) {
+      throw new IllegalArgumentException("Degree of interconnectivity should be >= 0.");
+    } else if (percentageCavesWithTreasure < 0 || percentageCavesWithTreasure > 100) {
+      throw new IllegalArgumentException(
+              "Percentage of caves with treasure should be between 0 and 100.");
+    } else if (numAboleth < 0) {
+      throw new IllegalArgumentException("Number of Aboleths should be > 0");
+    } else if (numThief < 0) {
+      throw new IllegalArgumentException("Number of Thieves should be > 0");
+    } else if (numPits < 0) {
+      throw new IllegalArgumentException("Number of Pits should be >= 0");
+    }
+  }
+
+  /**
+   * Selects the paths of the dungeon with the given algorithm.
+   *
+   * @param algorithm the algorithm selecting the paths.
+   * @param degree    the degree of interconnectivity.
+   * @param masks     the direction masks of the cells, to which the paths are added.
+   * @return the degree of interconnectivity that could be added to the dungeon.
+   */
+  protected int generatePaths(MazeAlgorithm algorithm, int degree, byte[] masks) {
+    return generatorOf(algorithm).generate(grid, isWrapped, degree, masks, random);
+  }
+
+  /**
+   * Gives the generator of the paths of an algorithm.
+   *
+   * @param algorithm the algorithm selecting the paths.
+   * @return the generator.
+   * @throws IllegalArgumentException if algorithm is null.
+   */
+  protected static MazeGenerator generatorOf(MazeAlgorithm algorithm) {
+    if (algorithm == null) {
+      throw new IllegalArgumentException("Algorithm cannot be null.");
+    }
+    switch (algorithm) {
+      case TILED_KRUSKAL:
+        return new TiledKruskalGenerator();
+      case FAST_KRUSKAL:
+        return new KruskalGenerator(true);
+      case RECURSIVE_BACKTRACKER:
+        return new RecursiveBacktrackerGenerator();
+      case PRIM:
+        return new PrimGenerator();
+      case WILSON:
+        return new WilsonGenerator();
+      case ALDOUS_BRODER:
+        return new AldousBroderGenerator();
+      default:
+        return new KruskalGenerator(false);
+    }
+  }
+
+  /**
+   * Gives all the Otyughs of the graph, living or killed.
+   *
+   * @return the Otyughs.
+   */
+  protected abstract Collection<Monster> getOtyughs();
+
+  @Override
+  public void markPristine() {
+    pristineAboleths = new Location[aboleth.length];
+    pristineAbolethHealth = new int[aboleth.length];
+    for (int i = 0; i < aboleth.length; i++) {
+      pristineAboleths[i] = getLocation(aboleth[i].getPosition());
+      pristineAbolethHealth[i] = aboleth[i].getHealth();
+    }
+    pristineOtyughs = getOtyughs().toArray(new Monster[0]);
+    pristineOtyughHealth = new int[pristineOtyughs.length];
+    for (int i = 0; i < pristineOtyughs.length; i++) {
+      pristineOtyughHealth[i] = pristineOtyughs[i].getHealth();
+    }
+    pristineThieves = new Location[thief.length];
+    for (int i = 0; i < thief.length; i++) {
+      pristineThieves[i] = getLocation(thief[i].getPosition());
+    }
+    changes.clearDirty();
+  }
+
+  @Override
+  public void reset(ReadOnlyDungeonModel pristine) {
+    if (pristine == null) {
+      throw new IllegalArgumentException("Pristine state cannot be null.");
+    }
+    if (pristineAboleths == null) {
+      throw new IllegalStateException("Graph has not been marked pristine.");
+    }
+    int[] dirtyCells = changes.getDirtyCells();
+    for (int cell : dirtyCells) {
+      Position position = grid.position(cell);
+      restoreLocation(getLocation(position), pristine.getLocation(position));
+    }
+    for (int i = 0; i < pristineOtyughs.length; i++) {
+      pristineOtyughs[i].restoreHealth(pristineOtyughHealth[i]);
+    }
+    for (int i = 0; i < aboleth.length; i++) {
+      abolethIndex.remove(i, aboleth[i].getPosition());
+      aboleth[i] = new Aboleth(pristineAboleths[i], pristineAbolethHealth[i], abolethIndex, i);
+    }
+    for (int i = 0; i < thief.length; i++) {
+      thiefIndex.remove(i, thief[i].getPosition());
+      thief[i] = new TunnelThief(pristineThieves[i], thiefIndex, i);
+    }
+    for (int cell : dirtyCells) {
+      changes.record(cell);
+    }
+    changes.clearDirty();
+  }
+
+  private void restoreLocation(Location location, LocationDescription pristine) {
+    location.setVisited(pristine.isVisited());
+    location.setKey(pristine.hasKey());
+    location.setAboleth(pristine.containsAboleth());
+    location.setPit(pristine.hasPit());
+    if (!location.isCave()) {
+      location.setThief(pristine.containsThief());
+    }
+    location.restoreItems(pristine.countArrows(), pristine.getTreasureMap());
+  }
+
+  /**
+   * Packs the state of every location of the graph into an array for a snapshot.
+   *
+   * @param encoder the function packing the state of the location at a position.
+   * @return the packed state of every location.
+   */
+  @Override
+  public CellArray captureCells(ToLongFunction<Position> encoder) {
+    if (encoder == null) {
+      throw new IllegalArgumentException("Encoder cannot be null.");
+    }
+    long[] values = new long[grid.size()];
+    for (int cell = 0; cell < values.length; cell++) {
+      values[cell] = encoder.applyAsLong(grid.position(cell));
+    }
+    return CellArray.of(values);
+  }
+
+  @Override
+  public ChangeLog getChangeLog() {
+    return changes;
+  }
+
+  @Override
+  public int getRows() {
+    return rows;
+  }
+
+  @Override
+  public int getColumns() {
+    return columns;
+  }
+
+  @Override
+  public boolean isWrapped() {
+    return isWrapped;
+  }
+
+  @Override
+  public int countOtyughs() {
+    return numOtyughs;
+  }
+
+  @Override
+  public int getDegree() {
+    return degreeOfInterconnectivity;
+  }
+
+  @Override
+  public int getPercentageItems() {
+    return percentageItems;
+  }
+
+  @Override
+  public int countAboleth() {
+    return aboleth.length;
+  }
+
+  @Override
+  public int countThief() {
+    return thief.length;
+  }
+
+  @Override
+  public void moveAboleth() {
+    for (int i = 0; i < aboleth.length; i++) {
+      if (aboleth[i].isAlive()) {
+        changes.record(aboleth[i].getPosition());
+        aboleth[i].move(random);
+        changes.record(aboleth[i].getPosition());
+      }
+    }
+  }
+
+  @Override
+  public Monster getAboleth(Location location) {
+    if (location == null) {
+      throw new IllegalArgumentException("Location cannot be null");
+    }
+    int id = abolethIndex.first(location.getPosition());
+    return id == -1 ? null : aboleth[id];
+  }
+
+  @Override
+  public Thief getThief(Location location) {
+    if (location == null) {
+      throw new IllegalArgumentException("Location cannot be null");
+    }
+    int id = thiefIndex.first(location.getPosition());
+    return id == -1 ? null : thief[id];
+  }
+
+  @Override
+  public List<Monster> getAboleths() {
+    return Collections.unmodifiableList(Arrays.asList(aboleth));
+  }
+
+  @Override
+  public List<Thief> getThieves() {
+    return Collections.unmodifiableList(Arrays.asList(thief));
+  }
+
+  @Override
+  public boolean requireKey() {
+    return requireKey;
+  }
+
+  @Override
+  public int countPits() {
+    return numPits;
+  }
+}
@@ -0,0 +1,97 @@
+package dungeonmodel;
+
+import random.RandomSource;
+
+/**
+ * Abstract representation of a MazeGenerator which first builds a spanning tree of the grid
+ * and then adds the degree of interconnectivity number of the edges left out, drawn at random.
+ * The subclasses only build the tree. Unless the dungeon is wrapped, the cells at the edges of
+ * the grid have no neighbours beyond them.
+ * Visibility: Package - private
+ */
+abstract class AbstractMazeGenerator implements MazeGenerator {
+  protected static final Direction[] DIRECTIONS = Direction.values();
+
+  @Override
+  public int generate(Grid grid, boolean isWrapped, int degree, byte[] masks,
+                      RandomSource random) {
+    if (grid == null || masks == null || masks.length != grid.size() || random == null) {
+      throw new IllegalArgumentException("Invalid grid, masks or random source.");
+    }
+    buildTree(grid, isWrapped, masks, random);
+    return addDegree(grid, isWrapped, degree, masks, random);
+  }
+
+  /**
+   * Selects the paths of a spanning tree of the grid and sets them in the masks of the cells.
+   *
+   * @param grid      the grid of cells
+   * @param isWrapped whether the dungeon is wrapped around its end
+   * @param masks     the direction masks of the cells, without any path
+   * @param random    the source of random numbers of the paths
+   */
+  protected abstract void buildTree(Grid grid, boolean isWrapped, byte[] masks,
+                                    RandomSource random);
+
+  /**
+   * Gives the directions in which a cell has a neighbour.
+   *
+   * @param grid       the grid of cells
+   * @param isWrapped  whether the dungeon is wrapped around its end
+   * @param cell       the cell
+   * @param directions filled with the directions, at most 4
+   * @return the number of directions.
+   */
+  protected static int neighborDirections(Grid grid, boolean isWrapped, int cell,
+                                          Direction[] directions) {
+    int count = 0;
+    for (Direction direction : DIRECTIONS) {
+      if (isWrapped || hasNeighbor(grid, cell, direction)) {
+        directions[count++] = direction;
+      }
+    }
+    return count;
+  }
+
+  private static boolean hasNeighbor(Grid grid, int cell, Direction direction) {
+    int row = cell / grid.getColumns();
+    int column = cell % grid.getColumns();
+    switch (direction) {
+      case NORTH:
+        return row > 0;
+      case SOUTH:
+        return row + 1 < grid.getRows();
+      case EAST:
+        return column + 1 < grid.getColumns();
+      default:
+        return column > 0;
+    }
+  }
+
+  private int addDegree(Grid grid, boolean isWrapped, int degree, byte[] masks,
+                        RandomSource random) {
+    int rows = grid.getRows();
+    int columns = grid.getColumns();
+    int totalEdges = isWrapped ? 2 * grid.size() : rows * (columns - 1) + (rows - 1) * columns;
+    int[] remainingEdges = new int[Math.max(0, totalEdges - grid.size() + 1)];
+    int numRemaining = 0;
+    for (int cell = 0; cell < grid.size(); cell++) {
+      if ((isWrapped || cell % columns + 1 < columns)
+              && !Grid.hasDirection(masks[cell], Direction.EAST)) {
+        remainingEdges[numRemaining++] = cell << 1;
+      }
+      if ((isWrapped || cell / columns + 1 < rows)
+              && !Grid.hasDirection(masks[cell], Direction.SOUTH)) {
+        remainingEdges[numRemaining++] = cell << 1 | 1;
+      }
+    }
+    int addedDegree = Math.min(degree, numRemaining);
+    for (int i = 0; i < addedDegree; i++) {
+      int j = random.getIntInRange(i, numRemaining - 1);
+      int edge = remainingEdges[j];
+      remainingEdges[j] = remainingEdges[i];
+      KruskalGenerator.connect(grid, masks, edge >>> 1, KruskalGenerator.direction(edge));
+    }
+    return addedDegree;
+  }
+}
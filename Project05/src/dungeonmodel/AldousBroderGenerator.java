@@ -0,0 +1,34 @@
+package dungeonmodel;
+
+import random.RandomSource;
+
+/**
+ * The Aldous-Broder algorithm to select the paths of a dungeon, which gives every spanning
+ * tree of the grid the same chance.
+ * A single random walk goes on until it has visited every cell, and the step by which a cell
+ * is first entered becomes a path. The walk revisits the cells many times before the last ones
+ * are found, so it is by far the slowest of the algorithms on large dungeons.
+ * Visibility: Package - private
+ */
+class AldousBroderGenerator extends AbstractMazeGenerator {
+
+  @Override
+  protected void buildTree(Grid grid, boolean isWrapped, byte[] masks, RandomSource random) {
+    boolean[] visited = new boolean[grid.size()];
+    Direction[] directions = new Direction[DIRECTIONS.length];
+    int cell = random.getIntInRange(0, grid.size() - 1);
+    visited[cell] = true;
+    int remaining = grid.size() - 1;
+    while (remaining > 0) {
+      int numDirections = neighborDirections(grid, isWrapped, cell, directions);
+      Direction direction = directions[random.getIntInRange(0, numDirections - 1)];
+      int next = grid.neighbor(cell, direction);
+      if (!visited[next]) {
+        KruskalGenerator.connect(grid, masks, cell, direction);
+        visited[next] = true;
+        remaining--;
+      }
+      cell = next;
+    }
+  }
+}
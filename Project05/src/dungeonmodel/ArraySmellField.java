@@ -0,0 +1,98 @@
+package dungeonmodel;
+
+import structureddata.Position;
+
+import java.util.BitSet;
+
+/**
+ * The smell of the Otyughs at every location of a dungeon, kept in arrays.
+ * Keeps for every cell the number of living Otyughs at a distance of 1 and of 2 from it.
+ * An Otyugh adds to the counts of the cells around its cave when it is added and removes
+ * from them when it is killed, so only the cells within a distance of 2 of its cave
+ * are updated and finding the smell at a location is an array read.
+ * The updated cells are recorded as changed in the change log.
+ * Visibility: Package - private
+ */
+class ArraySmellField implements SmellField {
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private static final int MAX_NEARBY = 17;
+
+  private final Grid grid;
+  private final byte[] masks;
+  private final byte[] near;
+  private final byte[] far;
+  private final BitSet otyughs;
+  private final ChangeLog changes;
+
+  protected ArraySmellField(Grid grid, byte[] masks, ChangeLog changes) {
+    if (grid == null || masks == null || masks.length != grid.size() || changes == null) {
+      throw new IllegalArgumentException("Invalid grid, masks or change log.");
+    }
+    this.grid = grid;
+    this.masks = masks;
+    this.changes = changes;
+    this.near = new byte[grid.size()];
+    this.far = new byte[grid.size()];
+    this.otyughs = new BitSet();
+  }
+
+  @Override
+  public synchronized void addOtyugh(Position position) {
+    int cell = grid.cell(position);
+    if (!otyughs.get(cell)) {
+      otyughs.set(cell);
+      update(cell, 1);
+    }
+  }
+
+  @Override
+  public synchronized void removeOtyugh(Position position) {
+    int cell = grid.cell(position);
+    if (otyughs.get(cell)) {
+      otyughs.clear(cell);
+      update(cell, -1);
+    }
+  }
+
+  @Override
+  public synchronized SmellLevel getSmellLevel(Position position) {
+    int cell = grid.cell(position);
+    if (near[cell] == 0 && far[cell] == 1) {
+      return SmellLevel.LESS_PUNGENT;
+    } else if (near[cell] + far[cell] > 0) {
+      return SmellLevel.MORE_PUNGENT;
+    }
+    return SmellLevel.NO_SMELL;
+  }
+
+  private void update(int cell, int change) {
+    int[] visited = new int[MAX_NEARBY];
+    int[] distance = new int[MAX_NEARBY];
+    int numVisited = 0;
+    visited[numVisited] = cell;
+    distance[numVisited++] = 0;
+    for (int index = 0; index < numVisited; index++) {
+      int current = visited[index];
+      changes.record(current);
+      if (distance[index] == 1) {
+        near[current] += change;
+      } else if (distance[index] == 2) {
+        far[current] += change;
+        continue;
+      }
+      for (Direction direction : DIRECTIONS) {
+        if (Grid.hasDirection(masks[current], direction)) {
+          int next = grid.neighbor(current, direction);
+          boolean seen = false;
+          for (int i = 0; i < numVisited && !seen; i++) {
+            seen = visited[i] == next;
+          }
+          if (!seen) {
+            visited[numVisited] = next;
+            distance[numVisited++] = distance[index] + 1;
+          }
+        }
+      }
+    }
+  }
+}
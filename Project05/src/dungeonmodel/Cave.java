@@ -1,6 +1,6 @@
 package dungeonmodel;
 
-import random.RandomImpl;
+import random.RandomSource;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -18,14 +18,12 @@ class Cave extends AbstractLocation {
   private Monster otyugh;
 
   protected Cave(int row, int column) {
-    super(row, column, new TreeMap<>());
-    treasureMap = new TreeMap<>();
-    otyugh = null;
+    this(row, column, new TreeMap<>());
   }
 
   protected Cave(int row, int column, Map<Direction, Location> connectedMap) {
-    this(row, column);
-    this.connectedMap.putAll(connectedMap);
+    super(row, column, connectedMap);
+    treasureMap = new TreeMap<>();
     otyugh = null;
   }
 
@@ -56,47 +54,66 @@ class Cave extends AbstractLocation {
     if (other == null) {
       throw new IllegalArgumentException("Invalid location.");
     }
-    Direction direction = getDirection(other.getPosition());
-    connectedMap.put(direction, other);
-    if (connectedMap.size() == 2) {
-      Tunnel newLocation = new Tunnel(position.getRow(), position.getColumn(), connectedMap);
-      for (Location location : connectedMap.values()) {
-        location.updatePath(newLocation);
-      }
+    connect(getDirection(other.getPosition()), other);
+    if (Integer.bitCount(directionMask) == 2) {
+      Tunnel newLocation = new Tunnel(position.getRow(), position.getColumn(), getConnections());
+      newLocation.forEachNeighbor(location -> location.updatePath(newLocation));
       return newLocation;
     }
     return this;
   }
 
   @Override
-  public void setTreasure() {
+  public void setTreasure(RandomSource random) {
+    addRandomTreasure(treasureMap, random);
+  }
+
+  /**
+   * Adds a random selection of treasures to the given treasure map, the same way
+   * a cave is filled with treasure.
+   * Shared with the locations that do not keep their own treasure map.
+   *
+   * @param treasureMap the map to which the treasures are added.
+   * @param random      the source of random numbers used to select the treasures.
+   */
+  static void addRandomTreasure(Map<Treasure, Integer> treasureMap, RandomSource random) {
     List<Treasure> treasures = new ArrayList<>(List.of(Treasure.values()));
-    int index = RandomImpl.getIntInRange(0, treasures.size() - 1);
-    treasureMap.put(treasures.get(index), RandomImpl.getIntInRange(1, 10));
+    int index = random.getIntInRange(0, treasures.size() - 1);
+    treasureMap.put(treasures.get(index), random.getIntInRange(1, 10));
     treasures.remove(index);
-    int randomNumber = RandomImpl.getIntInRange(1, 100);
+    int randomNumber = random.getIntInRange(1, 100);
     if (randomNumber <= 50) {
-      index = RandomImpl.getIntInRange(0, treasures.size() - 1);
-      treasureMap.put(treasures.get(index), RandomImpl.getIntInRange(1, 10));
+      index = random.getIntInRange(0, treasures.size() - 1);
+      treasureMap.put(treasures.get(index), random.getIntInRange(1, 10));
       treasures.remove(index);
-      randomNumber = RandomImpl.getIntInRange(1, 100);
+      randomNumber = random.getIntInRange(1, 100);
       if (randomNumber <= 40) {
-        index = RandomImpl.getIntInRange(0, treasures.size() - 1);
-        treasureMap.put(treasures.get(index), RandomImpl.getIntInRange(1, 10));
+        index = random.getIntInRange(0, treasures.size() - 1);
+        treasureMap.put(treasures.get(index), random.getIntInRange(1, 10));
         treasures.remove(index);
       }
     }
     for (Treasure treasure : treasures) {
-      int number = RandomImpl.getIntInRange(0, 5);
+      int number = random.getIntInRange(0, 5);
       if (number == 0) {
-        treasureMap.put(treasure, RandomImpl.getIntInRange(1, 10));
+        treasureMap.put(treasure, random.getIntInRange(1, 10));
       }
     }
   }
 
   @Override
-  public void addOtyugh() {
-    otyugh = new Otyugh(this);
+  public void restoreItems(int numArrows, Map<Treasure, Integer> treasureMap) {
+    if (numArrows < 0 || treasureMap == null) {
+      throw new IllegalArgumentException("Invalid arrows or treasures.");
+    }
+    numCrookedArrows = numArrows;
+    this.treasureMap.clear();
+    this.treasureMap.putAll(treasureMap);
+  }
+
+  @Override
+  public void addOtyugh(SmellField smell) {
+    otyugh = new Otyugh(this, smell);
   }
 
   @Override
@@ -129,8 +146,8 @@ class Cave extends AbstractLocation {
           return HitStatus.KILLED;
         }
       }
-    } else if (connectedMap.containsKey(direction)) {
-      return connectedMap.get(direction).shootArrowHelper(direction, distance - 1);
+    } else if (neighbors[direction.ordinal()] != null) {
+      return neighbors[direction.ordinal()].shootArrowHelper(direction, distance - 1);
     }
     return HitStatus.MISS;
   }
@@ -0,0 +1,165 @@
+package dungeonmodel;
+
+import java.util.Arrays;
+import java.util.function.IntToLongFunction;
+
+/**
+ * An immutable array of a long value for every cell of a dungeon.
+ * The values are stored in a tree of small arrays, so an updated array shares every part of
+ * the tree with the old one except the paths to the updated cells. Updating a few cells of
+ * a large dungeon copies only a few small arrays instead of the whole array.
+ * A sparse array holds only some parts of the tree and gives the value of a cell in a missing
+ * part from a function, so an array of a dungeon too large to copy holds only its changed cells.
+ * Visibility: Package - private
+ */
+final class CellArray {
+  private static final int BITS = 6;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+
+  private final int size;
+  private final int levels;
+  private final Object root;
+  private final IntToLongFunction fallback;
+
+  private CellArray(int size, int levels, Object root, IntToLongFunction fallback) {
+    this.size = size;
+    this.levels = levels;
+    this.root = root;
+    this.fallback = fallback;
+  }
+
+  /**
+   * Creates an array holding a copy of the given values.
+   *
+   * @param values the value of every cell.
+   * @return the created array.
+   */
+  protected static CellArray of(long[] values) {
+    if (values == null) {
+      throw new IllegalArgumentException("Values cannot be null.");
+    }
+    int levels = levels(values.length);
+    return new CellArray(values.length, levels, build(values, levels - 1, 0), null);
+  }
+
+  /**
+   * Creates an array holding only the given cells. The value of every other cell is given
+   * by the fallback function whenever it is read, so the function should always give the same
+   * value for a cell and may be called from any thread.
+   *
+   * @param size     the number of cells.
+   * @param cells    the held cells, in increasing order.
+   * @param values   the value of each held cell.
+   * @param fallback the function giving the value of a cell which is not held.
+   * @return the created array.
+   */
+  protected static CellArray sparse(int size, int[] cells, long[] values,
+                                    IntToLongFunction fallback) {
+    if (size < 0 || fallback == null) {
+      throw new IllegalArgumentException("Invalid size or fallback.");
+    }
+    return new CellArray(size, levels(size), null, fallback).with(cells, values);
+  }
+
+  private static int levels(int size) {
+    int levels = 1;
+    while ((long) WIDTH << (BITS * (levels - 1)) < size) {
+      levels++;
+    }
+    return levels;
+  }
+
+  protected int size() {
+    return size;
+  }
+
+  /**
+   * Gives the value of a cell.
+   *
+   * @param cell the cell.
+   * @return the value of the cell.
+   */
+  protected long get(int cell) {
+    if (cell < 0 || cell >= size) {
+      throw new IllegalArgumentException("Invalid cell.");
+    }
+    Object node = root;
+    for (int level = levels - 1; level > 0 && node != null; level--) {
+      node = ((Object[]) node)[(cell >>> (BITS * level)) & MASK];
+    }
+    return node == null ? fallback.applyAsLong(cell) : ((long[]) node)[cell & MASK];
+  }
+
+  /**
+   * Gives a new array with the given cells set to the given values.
+   * This array is not changed.
+   *
+   * @param cells  the cells to update, in increasing order.
+   * @param values the new value of each cell.
+   * @return the updated array.
+   */
+  protected CellArray with(int[] cells, long[] values) {
+    if (cells == null || values == null || cells.length != values.length) {
+      throw new IllegalArgumentException("Invalid cells or values.");
+    }
+    for (int i = 0; i < cells.length; i++) {
+      if (cells[i] < 0 || cells[i] >= size || (i > 0 && cells[i] <= cells[i - 1])) {
+        throw new IllegalArgumentException("Cells should be valid and in increasing order.");
+      }
+    }
+    if (cells.length == 0) {
+      return this;
+    }
+    return new CellArray(size, levels,
+            update(root, levels - 1, cells, values, 0, cells.length), fallback);
+  }
+
+  private static Object build(long[] values, int level, int start) {
+    if (level == 0) {
+      long[] leaf = new long[WIDTH];
+      int length = Math.max(0, Math.min(WIDTH, values.length - start));
+      System.arraycopy(values, start, leaf, 0, length);
+      return leaf;
+    }
+    int span = 1 << (BITS * level);
+    Object[] node = new Object[WIDTH];
+    for (int i = 0; i < WIDTH && start + (long) i * span < values.length; i++) {
+      node[i] = build(values, level - 1, start + i * span);
+    }
+    return node;
+  }
+
+  private Object update(Object node, int level, int[] cells, long[] values,
+                        int from, int to) {
+    if (level == 0) {
+      long[] leaf = node == null ? missingLeaf(cells[from] & ~MASK)
+              : Arrays.copyOf((long[]) node, WIDTH);
+      for (int i = from; i < to; i++) {
+        leaf[cells[i] & MASK] = values[i];
+      }
+      return leaf;
+    }
+    Object[] copy = node == null ? new Object[WIDTH] : Arrays.copyOf((Object[]) node, WIDTH);
+    int shift = BITS * level;
+    int i = from;
+    while (i < to) {
+      int child = (cells[i] >>> shift) & MASK;
+      int end = i + 1;
+      while (end < to && ((cells[end] >>> shift) & MASK) == child) {
+        end++;
+      }
+      copy[child] = update(copy[child], level - 1, cells, values, i, end);
+      i = end;
+    }
+    return copy;
+  }
+
+  private long[] missingLeaf(int start) {
+    long[] leaf = new long[WIDTH];
+    for (int i = 0; i < WIDTH && start + i < size; i++) {
+      leaf[i] = fallback.applyAsLong(start + i);
+    }
+    return leaf;
+  }
+}
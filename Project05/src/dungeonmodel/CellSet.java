@@ -0,0 +1,104 @@
+package dungeonmodel;
+
+import java.util.Arrays;
+
+/**
+ * A set of the cells of a dungeon, kept in the order in which they were added.
+ * The cells are kept in an open addressing hash table with linear probing, which grows as
+ * cells are added, and in an array in the order of their addition. Thus a cell takes two
+ * ints rather than a boxed Integer and a node of a HashSet, and the set takes space only for
+ * the added cells however large the dungeon is.
+ * Visibility: Package - private
+ */
+class CellSet {
+  private static final int EMPTY = -1;
+
+  private int[] keys;
+  private int mask;
+  private int shift;
+  private int[] cells;
+  private int size;
+
+  protected CellSet() {
+    this.cells = new int[16];
+    this.size = 0;
+    allocate(32);
+  }
+
+  /**
+   * Adds a cell to the set.
+   *
+   * @param cell the cell.
+   * @return true if the cell was not in the set.
+   */
+  protected boolean add(int cell) {
+    if (cell < 0) {
+      throw new IllegalArgumentException("Invalid cell.");
+    }
+    int slot = slot(cell);
+    if (keys[slot] == cell) {
+      return false;
+    }
+    keys[slot] = cell;
+    if (size == cells.length) {
+      cells = Arrays.copyOf(cells, 2 * size);
+    }
+    cells[size++] = cell;
+    if (2 * size > keys.length) {
+      allocate(2 * keys.length);
+      for (int i = 0; i < size; i++) {
+        keys[slot(cells[i])] = cells[i];
+      }
+    }
+    return true;
+  }
+
+  protected int size() {
+    return size;
+  }
+
+  /**
+   * Gives the cell added to the set at the given index.
+   *
+   * @param index the index of the cell in the order of addition.
+   * @return the cell.
+   */
+  protected int get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Invalid index.");
+    }
+    return cells[index];
+  }
+
+  /**
+   * Gives the cells of the set in the order in which they were added.
+   *
+   * @return a copy of the cells.
+   */
+  protected int[] toArray() {
+    return Arrays.copyOf(cells, size);
+  }
+
+  /**
+   * Removes all the cells of the set.
+   */
+  protected void clear() {
+    Arrays.fill(keys, EMPTY);
+    size = 0;
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    Arrays.fill(keys, EMPTY);
+    mask = capacity - 1;
+    shift = Integer.numberOfLeadingZeros(capacity) + 1;
+  }
+
+  private int slot(int cell) {
+    int slot = (cell * 0x9E3779B9) >>> shift;
+    while (keys[slot] != EMPTY && keys[slot] != cell) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+}
@@ -0,0 +1,102 @@
+package dungeonmodel;
+
+import structureddata.Position;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Log of the cells of a dungeon whose state has changed.
+ * Every change of a cell increases the version of the dungeon by one. The last changes are
+ * kept in a ring buffer, so the cells changed since a recent version can be found without
+ * comparing the whole dungeon. Changes older than the buffer are forgotten.
+ * The log also keeps every cell changed since the dirty cells were last cleared, once for each
+ * cell, so the changes of a whole game can be undone without looking at the unchanged cells.
+ * The dirty cells are kept in a {@link CellSet} rather than a bit for every cell, so the log
+ * takes space only for the changed cells however large the dungeon is.
+ * Visibility: Package - private
+ */
+class ChangeLog {
+  private static final int CAPACITY = 4096;
+
+  private final Grid grid;
+  private final int[] cells;
+  private final CellSet dirty;
+  private long version;
+
+  protected ChangeLog(Grid grid) {
+    if (grid == null) {
+      throw new IllegalArgumentException("Grid cannot be null.");
+    }
+    this.grid = grid;
+    this.cells = new int[CAPACITY];
+    this.dirty = new CellSet();
+    this.version = 0;
+  }
+
+  /**
+   * Records that the state of the cell at the given position has changed.
+   *
+   * @param position the position of the changed cell.
+   */
+  protected void record(Position position) {
+    record(grid.cell(position));
+  }
+
+  /**
+   * Records that the state of the given cell has changed.
+   *
+   * @param cell the changed cell.
+   */
+  protected synchronized void record(int cell) {
+    cells[(int) (version % CAPACITY)] = cell;
+    version++;
+    dirty.add(cell);
+  }
+
+  /**
+   * Gives the cells changed since the dirty cells were last cleared, each cell once.
+   *
+   * @return the dirty cells.
+   */
+  protected synchronized int[] getDirtyCells() {
+    return dirty.toArray();
+  }
+
+  /**
+   * Clears the dirty cells, so that only the cells changed after this are dirty.
+   */
+  protected synchronized void clearDirty() {
+    dirty.clear();
+  }
+
+  protected synchronized long getVersion() {
+    return version;
+  }
+
+  protected synchronized long getOldestVersion() {
+    return Math.max(0, version - CAPACITY);
+  }
+
+  /**
+   * Gives the positions of the cells changed after the given version, in the order in which
+   * they were first changed.
+   *
+   * @param since the version after which the changes are needed.
+   * @return the positions of the changed cells.
+   * @throws IllegalArgumentException if the version is older than the oldest kept change
+   *                                  or newer than the current version.
+   */
+  protected synchronized Set<Position> getChangedPositions(long since) {
+    if (since < getOldestVersion() || since > version) {
+      throw new IllegalArgumentException(
+              String.format("Changes are kept only from version %d to %d.",
+                      getOldestVersion(), version));
+    }
+    Set<Position> positions = new LinkedHashSet<>();
+    for (long i = since; i < version; i++) {
+      positions.add(grid.position(cells[(int) (i % CAPACITY)]));
+    }
+    return positions;
+  }
+}
@@ -0,0 +1,257 @@
+package dungeonmodel;
+
+import random.RandomSource;
+import random.SplittableRandomSource;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Generates the chunks of a dungeon, squares of 64 by 64 locations, one at a time.
+ * The paths inside a chunk are selected by a {@link MazeGenerator} from a source seeded with the
+ * seed of the dungeon and the number of the chunk, so a chunk is always generated the same
+ * way and without any other chunk. The chunks are joined by doors, a single path across the
+ * boundary of two chunks. Every chunk except the first has a door to the chunk to its north or
+ * to its west, picked by hashing its number, which connects all the chunks like a binary tree.
+ * The door of a chunk to its east or south neighbour is found from the hash of that neighbour.
+ * The degree of interconnectivity is spent first on doors across the wrapped edges of the
+ * dungeon and then shared between the chunks, each adding its share inside itself.
+ * The treasures and arrows are then added to the given percentage of the caves and locations
+ * of every chunk.
+ * A chunk is kept in one array with a section of 4096 bytes each for the masks, flags, arrows
+ * and every treasure of its locations, with a location at row * 64 + column of each section.
+ * Visibility: Package - private
+ */
+class ChunkGenerator {
+  protected static final int CHUNK_BITS = 6;
+  protected static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  protected static final int CHUNK_CELLS = CHUNK_SIZE * CHUNK_SIZE;
+  protected static final int MASKS = 0;
+  protected static final int FLAGS = CHUNK_CELLS;
+  protected static final int ARROWS = 2 * CHUNK_CELLS;
+  protected static final int TREASURES = 3 * CHUNK_CELLS;
+  protected static final int CHUNK_BYTES = (3 + Treasure.values().length) * CHUNK_CELLS;
+
+  private static final Treasure[] TREASURE_TYPES = Treasure.values();
+  private static final long SEED_SALT = 0x2545F4914F6CDD1DL;
+  private static final long DOOR_SALT = 0x9E3779B97F4A7C15L;
+  private static final long WRAP_SALT = 0xBF58476D1CE4E5B9L;
+
+  private final int rows;
+  private final int columns;
+  private final int chunkRows;
+  private final int chunkColumns;
+  private final int percentageItems;
+  private final MazeGenerator paths;
+  private final long seed;
+  private final int wrapDoors;
+  private final int chunkDegree;
+  private final int extraDegree;
+  private final int degree;
+
+  protected ChunkGenerator(int rows, int columns, boolean isWrapped, int degree,
+                           int percentageItems, MazeGenerator paths, long seed) {
+    if (rows <= 0 || columns <= 0 || degree < 0
+            || percentageItems < 0 || percentageItems > 100 || paths == null) {
+      throw new IllegalArgumentException("Invalid size, degree, percentage of items or paths.");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.chunkRows = (rows + CHUNK_SIZE - 1) >>> CHUNK_BITS;
+    this.chunkColumns = (columns + CHUNK_SIZE - 1) >>> CHUNK_BITS;
+    this.percentageItems = percentageItems;
+    this.paths = paths;
+    this.seed = seed;
+    this.wrapDoors = isWrapped ? Math.min(degree, chunkRows + chunkColumns) : 0;
+    int numChunks = countChunks();
+    this.chunkDegree = (degree - wrapDoors) / numChunks;
+    this.extraDegree = (degree - wrapDoors) % numChunks;
+    long addedDegree = wrapDoors;
+    for (int chunk = 0; chunk < numChunks; chunk++) {
+      int height = height(chunk / chunkColumns);
+      int width = width(chunk % chunkColumns);
+      addedDegree += Math.min(share(chunk), (height - 1) * (width - 1));
+    }
+    this.degree = (int) addedDegree;
+  }
+
+  protected int countChunks() {
+    return chunkRows * chunkColumns;
+  }
+
+  /**
+   * Gives the degree of interconnectivity of the whole dungeon, which is less than the asked
+   * degree when the chunks have fewer edges left than their shares.
+   *
+   * @return the degree of interconnectivity.
+   */
+  protected int getDegree() {
+    return degree;
+  }
+
+  protected int chunkOf(int row, int column) {
+    return (row >>> CHUNK_BITS) * chunkColumns + (column >>> CHUNK_BITS);
+  }
+
+  protected static int offsetOf(int row, int column) {
+    return (row & (CHUNK_SIZE - 1)) << CHUNK_BITS | (column & (CHUNK_SIZE - 1));
+  }
+
+  /**
+   * Generates a chunk with its paths, doors, treasures and arrows.
+   *
+   * @param chunk the number of the chunk, row by row.
+   * @return a new array with the sections of the chunk.
+   */
+  protected byte[] generate(int chunk) {
+    if (chunk < 0 || chunk >= countChunks()) {
+      throw new IllegalArgumentException("Invalid chunk.");
+    }
+    int chunkRow = chunk / chunkColumns;
+    int chunkColumn = chunk % chunkColumns;
+    int height = height(chunkRow);
+    int width = width(chunkColumn);
+    RandomSource random = new SplittableRandomSource(mix(seed ^ mix(chunk + SEED_SALT)));
+
+    Grid local = new Grid(height, width);
+    byte[] localMasks = new byte[local.size()];
+    paths.generate(local, false, share(chunk), localMasks, random);
+    byte[] data = new byte[CHUNK_BYTES];
+    for (int row = 0; row < height; row++) {
+      for (int column = 0; column < width; column++) {
+        data[MASKS + offsetOf(row, column)] = localMasks[local.cell(row, column)];
+      }
+    }
+    addDoors(data, chunkRow, chunkColumn, height, width);
+    addTreasures(data, height, width, random);
+    addArrows(data, height, width, random);
+    return data;
+  }
+
+  private void addDoors(byte[] data, int chunkRow, int chunkColumn, int height, int width) {
+    if (opensWest(chunkRow, chunkColumn)) {
+      open(data, doorOffset(chunkRow, chunkColumn, height), 0, Direction.WEST);
+    }
+    if (opensNorth(chunkRow, chunkColumn)) {
+      open(data, 0, doorOffset(chunkRow, chunkColumn, width), Direction.NORTH);
+    }
+    if (chunkColumn + 1 < chunkColumns && opensWest(chunkRow, chunkColumn + 1)) {
+      open(data, doorOffset(chunkRow, chunkColumn + 1, height), width - 1, Direction.EAST);
+    }
+    if (chunkRow + 1 < chunkRows && opensNorth(chunkRow + 1, chunkColumn)) {
+      open(data, height - 1, doorOffset(chunkRow + 1, chunkColumn, width), Direction.SOUTH);
+    }
+    if (chunkRow < wrapDoors) {
+      int row = wrapOffset(chunkRow, height);
+      if (chunkColumn == chunkColumns - 1) {
+        open(data, row, width - 1, Direction.EAST);
+      }
+      if (chunkColumn == 0) {
+        open(data, row, 0, Direction.WEST);
+      }
+    }
+    if (chunkRows + chunkColumn < wrapDoors) {
+      int column = wrapOffset(chunkRows + chunkColumn, width);
+      if (chunkRow == chunkRows - 1) {
+        open(data, height - 1, column, Direction.SOUTH);
+      }
+      if (chunkRow == 0) {
+        open(data, 0, column, Direction.NORTH);
+      }
+    }
+  }
+
+  private static void open(byte[] data, int row, int column, Direction direction) {
+    data[MASKS + offsetOf(row, column)] |= Grid.bit(direction);
+  }
+
+  private boolean opensWest(int chunkRow, int chunkColumn) {
+    return chunkColumn > 0 && (chunkRow == 0 || (doorHash(chunkRow, chunkColumn) & 1) == 0);
+  }
+
+  private boolean opensNorth(int chunkRow, int chunkColumn) {
+    return chunkRow > 0 && (chunkColumn == 0 || (doorHash(chunkRow, chunkColumn) & 1) == 1);
+  }
+
+  private int doorOffset(int chunkRow, int chunkColumn, int length) {
+    return (int) Long.remainderUnsigned(doorHash(chunkRow, chunkColumn) >>> 1, length);
+  }
+
+  private long doorHash(int chunkRow, int chunkColumn) {
+    return mix(seed ^ mix(chunkRow * (long) chunkColumns + chunkColumn + DOOR_SALT));
+  }
+
+  private int wrapOffset(int door, int length) {
+    return (int) Long.remainderUnsigned(mix(seed ^ mix(door + WRAP_SALT)), length);
+  }
+
+  private void addTreasures(byte[] data, int height, int width, RandomSource random) {
+    int[] caves = new int[height * width];
+    int numCaves = 0;
+    for (int row = 0; row < height; row++) {
+      for (int column = 0; column < width; column++) {
+        int offset = offsetOf(row, column);
+        if (Integer.bitCount(data[MASKS + offset]) != 2) {
+          caves[numCaves++] = offset;
+        }
+      }
+    }
+    IndexPool pool = new IndexPool(numCaves);
+    int totalTreasureCaves = (int) Math.ceil((percentageItems * (long) numCaves) / 100.0);
+    for (int i = 0; i < totalTreasureCaves; i++) {
+      int offset = caves[pool.take(random.getIntInRange(0, pool.size() - 1))];
+      Map<Treasure, Integer> treasureMap = new TreeMap<>();
+      Cave.addRandomTreasure(treasureMap, random);
+      for (Map.Entry<Treasure, Integer> entry : treasureMap.entrySet()) {
+        data[TREASURES + entry.getKey().ordinal() * CHUNK_CELLS + offset] =
+                (byte) (int) entry.getValue();
+      }
+    }
+  }
+
+  private void addArrows(byte[] data, int height, int width, RandomSource random) {
+    IndexPool pool = new IndexPool(height * width);
+    int totalArrowLocations = (int) Math.ceil((percentageItems * (long) pool.size()) / 100.0);
+    for (int i = 0; i < totalArrowLocations; i++) {
+      int index = pool.take(random.getIntInRange(0, pool.size() - 1));
+      data[ARROWS + offsetOf(index / width, index % width)] =
+              (byte) random.getIntInRange(1, 3);
+    }
+  }
+
+  /**
+   * Gives the amount of each treasure at an offset of a chunk, by the ordinal of the treasure.
+   *
+   * @param data   the sections of the chunk.
+   * @param offset the offset of the location in the chunk.
+   * @return the amount of each treasure.
+   */
+  protected static int[] getTreasures(byte[] data, int offset) {
+    int[] treasures = new int[TREASURE_TYPES.length];
+    for (int i = 0; i < treasures.length; i++) {
+      treasures[i] = data[TREASURES + i * CHUNK_CELLS + offset];
+    }
+    return treasures;
+  }
+
+  private int share(int chunk) {
+    return chunkDegree + (chunk < extraDegree ? 1 : 0);
+  }
+
+  private int height(int chunkRow) {
+    return Math.min(CHUNK_SIZE, rows - (chunkRow << CHUNK_BITS));
+  }
+
+  private int width(int chunkColumn) {
+    return Math.min(CHUNK_SIZE, columns - (chunkColumn << CHUNK_BITS));
+  }
+
+  /**
+   * Mixes the bits of a number, so that close numbers give unrelated hashes.
+   */
+  private static long mix(long value) {
+    value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+    value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+    return value ^ (value >>> 31);
+  }
+}
@@ -0,0 +1,192 @@
+package dungeonmodel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The chunks of a dungeon which are kept in memory, at most as many as fit in a memory budget.
+ * A chunk is generated by the {@link ChunkGenerator} the first time it is asked for. When
+ * a chunk is needed and the budget is full, the least recently used chunk is dropped. If it
+ * was changed since it was generated or loaded, it is first written to a swap file, from which
+ * it is read back the next time it is needed. An unchanged chunk is generated again instead.
+ * The swap file is a temporary file created with the first written chunk and deleted when the
+ * store is closed. A store which is dropped without being closed has its swap file closed
+ * and deleted once it is garbage collected. Every chunk written to it takes a slot of its own,
+ * so the file grows only with the changed chunks, however large the dungeon is.
+ * The last chunk asked for is remembered, so reading the cells of one chunk one after another
+ * does not look up the chunk every time.
+ * Visibility: Package - private
+ */
+class ChunkStore implements AutoCloseable {
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  private final ChunkGenerator generator;
+  private final int capacity;
+  private final LinkedHashMap<Integer, byte[]> resident;
+  private final BitSet changed;
+  private final Map<Integer, Integer> slots;
+  private final SwapFile swap;
+  private final Cleaner.Cleanable cleanable;
+  private int lastChunk;
+  private byte[] lastData;
+
+  /**
+   * Creates a store of the chunks of a generator.
+   *
+   * @param generator    the generator of the chunks.
+   * @param memoryBudget the number of bytes the chunks in memory may take. At least one chunk
+   *                     is always kept in memory.
+   */
+  protected ChunkStore(ChunkGenerator generator, long memoryBudget) {
+    if (generator == null || memoryBudget < 0) {
+      throw new IllegalArgumentException("Invalid generator or memory budget.");
+    }
+    this.generator = generator;
+    this.capacity = (int) Math.max(1, Math.min(generator.countChunks(),
+            memoryBudget / ChunkGenerator.CHUNK_BYTES));
+    this.resident = new LinkedHashMap<>(16, 0.75f, true);
+    this.changed = new BitSet();
+    this.slots = new HashMap<>();
+    this.swap = new SwapFile();
+    this.cleanable = CLEANER.register(this, swap);
+    this.lastChunk = -1;
+  }
+
+  /**
+   * Gives the array of a chunk, loading it if it is not in memory. The array should not be
+   * used after another chunk is asked for, as the chunk may have been dropped by then.
+   *
+   * @param chunk the number of the chunk.
+   * @return the sections of the chunk.
+   * @throws UncheckedIOException if the chunk cannot be read from or written to the swap file.
+   */
+  protected byte[] get(int chunk) {
+    if (chunk == lastChunk) {
+      return lastData;
+    }
+    byte[] data = resident.get(chunk);
+    if (data == null) {
+      data = load(chunk);
+      if (resident.size() == capacity) {
+        evict(resident.keySet().iterator().next());
+      }
+      resident.put(chunk, data);
+    }
+    lastChunk = chunk;
+    lastData = data;
+    return data;
+  }
+
+  /**
+   * Marks a chunk in memory as changed, so that it is written to the swap file when dropped.
+   *
+   * @param chunk the number of the chunk.
+   */
+  protected void markChanged(int chunk) {
+    changed.set(chunk);
+  }
+
+  /**
+   * Closes and deletes the swap file. The chunks in memory are dropped and the store should
+   * not be used after it is closed.
+   *
+   * @throws UncheckedIOException if the swap file cannot be closed.
+   */
+  @Override
+  public void close() {
+    resident.clear();
+    slots.clear();
+    changed.clear();
+    lastChunk = -1;
+    lastData = null;
+    cleanable.clean();
+    if (swap.failure != null) {
+      throw new UncheckedIOException("Cannot close the swap file.", swap.failure);
+    }
+  }
+
+  protected int countResident() {
+    return resident.size();
+  }
+
+  protected int countSwapped() {
+    return slots.size();
+  }
+
+  private byte[] load(int chunk) {
+    Integer slot = slots.get(chunk);
+    if (slot == null) {
+      return generator.generate(chunk);
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(ChunkGenerator.CHUNK_BYTES);
+    long position = (long) slot * ChunkGenerator.CHUNK_BYTES;
+    try {
+      while (buffer.hasRemaining()) {
+        if (swap.channel.read(buffer, position + buffer.position()) < 0) {
+          throw new IOException("Swap file ended before the chunk.");
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read a chunk from the swap file.", e);
+    }
+    return buffer.array();
+  }
+
+  private void evict(int chunk) {
+    byte[] data = resident.remove(chunk);
+    if (chunk == lastChunk) {
+      lastChunk = -1;
+      lastData = null;
+    }
+    if (!changed.get(chunk)) {
+      return;
+    }
+    changed.clear(chunk);
+    int slot = slots.getOrDefault(chunk, slots.size());
+    ByteBuffer buffer = ByteBuffer.wrap(data);
+    long position = (long) slot * ChunkGenerator.CHUNK_BYTES;
+    try {
+      if (swap.channel == null) {
+        swap.channel = FileChannel.open(Files.createTempFile("dungeon", ".chunks"),
+                StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+      }
+      while (buffer.hasRemaining()) {
+        swap.channel.write(buffer, position + buffer.position());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot write a chunk to the swap file.", e);
+    }
+    slots.put(chunk, slot);
+  }
+
+  /**
+   * The channel of the swap file, kept apart from the store so that the cleaner can close it
+   * without keeping the store reachable.
+   */
+  private static class SwapFile implements Runnable {
+    private FileChannel channel;
+    private IOException failure;
+
+    @Override
+    public void run() {
+      if (channel != null) {
+        try {
+          channel.close();
+        } catch (IOException e) {
+          failure = e;
+        }
+        channel = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,445 @@
+package dungeonmodel;
+
+import random.RandomSource;
+import structureddata.Position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * The representation of LocationGraph which generates the dungeon chunk by chunk, only when
+ * a location of a chunk is first asked for. The chunks are generated from a seed drawn from the
+ * random source and kept in a {@link ChunkStore} within a memory budget, so the time and memory
+ * taken to create the dungeon do not depend on its size. The chunks the player, the Aboleths
+ * and the arrows never come near are never generated.
+ * The start, end, monsters, thieves, pits and key are placed at random locations picked one at
+ * a time, instead of from the lists of all caves and tunnels, which would need every chunk.
+ * The smell of the Otyughs is found by looking for them near a location when asked, and
+ * the distances by searching from one location until the other is reached, giving -1 when
+ * they are too far apart to search.
+ * Every location changed since it was generated, including the locations near an added or
+ * killed Otyugh and near a pit, is remembered. A snapshot copies only those locations and
+ * gives every other location as it is generated.
+ * The dungeon has the same locations for the same seed whatever the memory budget.
+ * Visibility: Package - private
+ */
+class ChunkedLocationGraph extends AbstractCompactLocationGraph {
+  /**
+   * The memory budget of a dungeon which is not given one, 32 MB.
+   */
+  protected static final long DEFAULT_MEMORY_BUDGET = 32L << 20;
+
+  private static final int MAX_ATTEMPTS = 1 << 12;
+  private static final int MAX_PRISTINE_CHUNKS = 8;
+  private static final int MAX_NEARBY = 17;
+  private static final int MAX_NEAR_START = 41;
+  /**
+   * The number of locations searched for the distance between two locations, after which
+   * they are taken to be not connected, so a query spans at most 256 chunks and 20 MB.
+   */
+  private static final int MAX_SEARCHED_CELLS = 1 << 20;
+
+  private final int cells;
+  private final ChunkGenerator generator;
+  private final ChunkStore store;
+  private final SmellField smell;
+  private final CellSet changedCells;
+  private final Map<Integer, byte[]> pristineChunks;
+
+  protected ChunkedLocationGraph(int rows, int columns, boolean isWrapped,
+                                 int degree, int percentageItems, int numAboleth,
+                                 int numThief, int numPits, boolean requireKey,
+                                 MazeAlgorithm algorithm, long memoryBudget,
+                                 RandomSource random) {
+    super(rows, columns, isWrapped, degree, percentageItems, numAboleth,
+            numThief, numPits, requireKey, random);
+    if ((long) rows * columns > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Dungeon is too large.");
+    }
+    if (algorithm == null) {
+      throw new IllegalArgumentException("Algorithm cannot be null.");
+    }
+    if (memoryBudget < 0) {
+      throw new IllegalArgumentException("Memory budget cannot be negative.");
+    }
+    cells = grid.size();
+    long seed = (long) random.getIntInRange(0, Integer.MAX_VALUE - 1) << 31
+            ^ random.getIntInRange(0, Integer.MAX_VALUE - 1);
+    //A chunk is smaller than a tile, so the tiled algorithm is the same as the fast one for it.
+    generator = new ChunkGenerator(rows, columns, isWrapped, degree, percentageItems,
+            generatorOf(algorithm == MazeAlgorithm.TILED_KRUSKAL
+                    ? MazeAlgorithm.FAST_KRUSKAL : algorithm), seed);
+    store = new ChunkStore(generator, memoryBudget);
+    smell = new NearbySmell();
+    changedCells = new CellSet();
+    pristineChunks = new LinkedHashMap<Integer, byte[]>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest) {
+        return size() > MAX_PRISTINE_CHUNKS;
+      }
+    };
+    degreeOfInterconnectivity = generator.getDegree();
+    addThiefToRandomTunnel();
+    if (requireKey) {
+      addKeyToRandomLocation();
+    }
+    addPitsToRandomLocation();
+  }
+
+  private void addThiefToRandomTunnel() {
+    for (int i = 0; i < thief.length; i++) {
+      thief[i] = new TunnelThief(location(randomTunnel(-1)), thiefIndex, i);
+    }
+  }
+
+  private void addKeyToRandomLocation() {
+    setFlag(random.getIntInRange(0, cells - 1), KEY, true);
+  }
+
+  private void addPitsToRandomLocation() {
+    numPits = Math.min(numPits, cells);
+    for (int i = 0; i < numPits; i++) {
+      int cell = random.getIntInRange(0, cells - 1);
+      setFlag(cell, PIT, true);
+      for (Direction direction : DIRECTIONS) {
+        touch(neighbor(cell, direction));
+      }
+    }
+  }
+
+  @Override
+  public List<Location> getStartEndPositions() {
+    int start = randomCave();
+    int[] nearStart = new int[MAX_NEAR_START];
+    int numNearStart = nearby(start, 4, nearStart, new int[MAX_NEAR_START]);
+    Arrays.sort(nearStart, 0, numNearStart);
+    int end = -1;
+    for (int i = 0; i < MAX_ATTEMPTS && end == -1; i++) {
+      int cell = random.getIntInRange(0, cells - 1);
+      if (isCave(cell) && Arrays.binarySearch(nearStart, 0, numNearStart, cell) < 0) {
+        end = cell;
+      }
+    }
+    if (end == -1) {
+      throw new IllegalStateException("Cannot find a distance of 5 between two positions.");
+    }
+    List<Location> startEndPositions = new ArrayList<>();
+    startEndPositions.add(location(start));
+    startEndPositions.add(location(end));
+    return startEndPositions;
+  }
+
+  @Override
+  public void addOtyughToCaves(int numOtyugh, Location startLocation, Location endLocation) {
+    if (startLocation == null || endLocation == null) {
+      throw new IllegalArgumentException("Start or end location cannot be null");
+    }
+    int start = cellOf(startLocation.getPosition());
+    endLocation.addOtyugh(smell);
+    numOtyughs = 1;
+    while (numOtyughs < numOtyugh) {
+      int cave = -1;
+      for (int i = 0; i < MAX_ATTEMPTS && cave == -1; i++) {
+        int cell = random.getIntInRange(0, cells - 1);
+        if (cell != start && isCave(cell) && !hasFlag(cell, OTYUGH)) {
+          cave = cell;
+        }
+      }
+      if (cave == -1) {
+        break;
+      }
+      addOtyugh(cave, smell);
+      numOtyughs++;
+    }
+  }
+
+  @Override
+  public void addAbolethToRandomLocation(Location startLocation) {
+    if (startLocation == null) {
+      throw new IllegalArgumentException("Start or end location cannot be null");
+    }
+    int start = cellOf(startLocation.getPosition());
+    for (int i = 0; i < aboleth.length; i++) {
+      int index = random.getIntInRange(0, cells - 2);
+      aboleth[i] = new Aboleth(location(index < start ? index : index + 1), abolethIndex, i);
+    }
+  }
+
+  @Override
+  public int getDistance(Position first, Position second) {
+    if (first == null || second == null) {
+      throw new IllegalArgumentException("Positions cannot be null");
+    }
+    int target = cellOf(second);
+    //The visited cells in the order they were reached are also the queue of the search.
+    CellSet visited = new CellSet();
+    visited.add(cellOf(first));
+    int head = 0;
+    for (int distance = 0; head < visited.size(); distance++) {
+      int levelEnd = visited.size();
+      for (; head < levelEnd; head++) {
+        int current = visited.get(head);
+        if (current == target) {
+          return distance;
+        }
+        for (Direction direction : DIRECTIONS) {
+          if (hasDirection(current, direction)) {
+            visited.add(neighbor(current, direction));
+          }
+        }
+      }
+      if (visited.size() > MAX_SEARCHED_CELLS) {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public SmellLevel getSmellLevel(Position position) {
+    if (position == null) {
+      throw new IllegalArgumentException("Position cannot be null");
+    }
+    return smell.getSmellLevel(position);
+  }
+
+  @Override
+  public boolean stealTreasure(Player player) {
+    if (player == null) {
+      throw new IllegalArgumentException("Player cannot be null");
+    }
+    if (player.getLocation().hasThief()) {
+      Thief thief = getThief(player.getLocation());
+      thief.steal(player, random);
+      changes.record(thief.getPosition());
+      int excluded = cellOf(player.getLocation().getPosition());
+      thief.relocate(location(randomTunnel(excluded)));
+      changes.record(thief.getPosition());
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Packs the state of the locations into an array for a snapshot. Only the locations changed
+   * since they were generated are packed, the others are given by the array as they are
+   * generated.
+   *
+   * @param encoder the function packing the state of the location at a position.
+   * @return the packed state of the locations.
+   */
+  @Override
+  public CellArray captureCells(ToLongFunction<Position> encoder) {
+    if (encoder == null) {
+      throw new IllegalArgumentException("Encoder cannot be null.");
+    }
+    int[] changed = changedCells.toArray();
+    Arrays.sort(changed);
+    long[] values = new long[changed.length];
+    for (int i = 0; i < changed.length; i++) {
+      values[i] = encoder.applyAsLong(grid.position(changed[i]));
+    }
+    return CellArray.sparse(cells, changed, values, this::encodeGenerated);
+  }
+
+  protected int countResidentChunks() {
+    return store.countResident();
+  }
+
+  protected int countSwappedChunks() {
+    return store.countSwapped();
+  }
+
+  private int randomCave() {
+    for (int i = 0; i < MAX_ATTEMPTS; i++) {
+      int cell = random.getIntInRange(0, cells - 1);
+      if (isCave(cell)) {
+        return cell;
+      }
+    }
+    throw new IllegalStateException("Cannot find a cave.");
+  }
+
+  private int randomTunnel(int excluded) {
+    for (int i = 0; i < MAX_ATTEMPTS; i++) {
+      int cell = random.getIntInRange(0, cells - 1);
+      if (cell != excluded && !isCave(cell)) {
+        return cell;
+      }
+    }
+    throw new IllegalStateException("Cannot find a tunnel.");
+  }
+
+  /**
+   * Finds the cells within a distance of a cell, the cell itself first, each cell once.
+   *
+   * @param cell        the cell.
+   * @param maxDistance the largest distance of a found cell.
+   * @param found       filled with the found cells, in the order of their distance.
+   * @param distance    filled with the distance of each found cell.
+   * @return the number of found cells.
+   */
+  private int nearby(int cell, int maxDistance, int[] found, int[] distance) {
+    int numFound = 0;
+    found[numFound] = cell;
+    distance[numFound++] = 0;
+    for (int index = 0; index < numFound; index++) {
+      int current = found[index];
+      if (distance[index] == maxDistance) {
+        continue;
+      }
+      for (Direction direction : DIRECTIONS) {
+        if (hasDirection(current, direction)) {
+          int next = neighbor(current, direction);
+          boolean seen = false;
+          for (int i = 0; i < numFound && !seen; i++) {
+            seen = found[i] == next;
+          }
+          if (!seen) {
+            found[numFound] = next;
+            distance[numFound++] = distance[index] + 1;
+          }
+        }
+      }
+    }
+    return numFound;
+  }
+
+  private void touchNearby(Position position) {
+    int[] found = new int[MAX_NEARBY];
+    int numFound = nearby(cellOf(position), 2, found, new int[MAX_NEARBY]);
+    for (int i = 0; i < numFound; i++) {
+      touch(found[i]);
+    }
+  }
+
+  private void touch(int cell) {
+    changes.record(cell);
+    changedCells.add(cell);
+  }
+
+  private long encodeGenerated(int cell) {
+    Position position = grid.position(cell);
+    byte[] data = pristineChunk(generator.chunkOf(position.getRow(), position.getColumn()));
+    int offset = ChunkGenerator.offsetOf(position.getRow(), position.getColumn());
+    return DungeonSnapshot.encodeGenerated(data[ChunkGenerator.MASKS + offset],
+            data[ChunkGenerator.ARROWS + offset], ChunkGenerator.getTreasures(data, offset));
+  }
+
+  /**
+   * Gives a chunk as it is generated, for the snapshots. The last few are kept, as the cells
+   * of a chunk are usually packed one after another. Called by the threads reading snapshots.
+   */
+  private byte[] pristineChunk(int chunk) {
+    synchronized (pristineChunks) {
+      return pristineChunks.computeIfAbsent(chunk, generator::generate);
+    }
+  }
+
+  private byte[] chunk(int cell) {
+    int row = cell / columns;
+    return store.get(generator.chunkOf(row, cell - row * columns));
+  }
+
+  private int offset(int cell, int section) {
+    int row = cell / columns;
+    return section + ChunkGenerator.offsetOf(row, cell - row * columns);
+  }
+
+  private int read(int cell, int section) {
+    return chunk(cell)[offset(cell, section)];
+  }
+
+  private void write(int cell, int section, int value) {
+    int row = cell / columns;
+    int chunk = generator.chunkOf(row, cell - row * columns);
+    store.get(chunk)[offset(cell, section)] = (byte) value;
+    store.markChanged(chunk);
+    touch(cell);
+  }
+
+  @Override
+  protected int getDirectionMask(int cell) {
+    return read(cell, ChunkGenerator.MASKS);
+  }
+
+  @Override
+  protected void addPath(int cell, Direction direction) {
+    write(cell, ChunkGenerator.MASKS, getDirectionMask(cell) | Grid.bit(direction));
+  }
+
+  @Override
+  protected int getFlags(int cell) {
+    return read(cell, ChunkGenerator.FLAGS);
+  }
+
+  @Override
+  protected void setFlags(int cell, int flags) {
+    write(cell, ChunkGenerator.FLAGS, flags);
+  }
+
+  @Override
+  protected int countArrows(int cell) {
+    return read(cell, ChunkGenerator.ARROWS);
+  }
+
+  @Override
+  protected void setArrows(int cell, int numArrows) {
+    write(cell, ChunkGenerator.ARROWS, numArrows);
+  }
+
+  @Override
+  protected int countTreasure(int cell, Treasure treasure) {
+    return read(cell, ChunkGenerator.TREASURES + treasure.ordinal() * ChunkGenerator.CHUNK_CELLS);
+  }
+
+  @Override
+  protected void setTreasureAmount(int cell, Treasure treasure, int amount) {
+    write(cell, ChunkGenerator.TREASURES + treasure.ordinal() * ChunkGenerator.CHUNK_CELLS,
+            amount);
+  }
+
+  /**
+   * The smell of the Otyughs found by looking for the living Otyughs within a distance of 2
+   * of a location. Adding or removing an Otyugh only records the locations near it as changed.
+   */
+  private final class NearbySmell implements SmellField {
+    @Override
+    public void addOtyugh(Position position) {
+      touchNearby(position);
+    }
+
+    @Override
+    public void removeOtyugh(Position position) {
+      touchNearby(position);
+    }
+
+    @Override
+    public SmellLevel getSmellLevel(Position position) {
+      int[] found = new int[MAX_NEARBY];
+      int[] distance = new int[MAX_NEARBY];
+      int numFound = nearby(cellOf(position), 2, found, distance);
+      int near = 0;
+      int far = 0;
+      for (int i = 1; i < numFound; i++) {
+        if (containsOtyugh(found[i])) {
+          if (distance[i] == 1) {
+            near++;
+          } else {
+            far++;
+          }
+        }
+      }
+      if (near == 0 && far == 1) {
+        return SmellLevel.LESS_PUNGENT;
+      } else if (near + far > 0) {
+        return SmellLevel.MORE_PUNGENT;
+      }
+      return SmellLevel.NO_SMELL;
+    }
+  }
+}
@@ -0,0 +1,236 @@
+package dungeonmodel;
+
+import random.RandomSource;
+import structureddata.Position;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Location representation of a cell of an {@link AbstractCompactLocationGraph}.
+ * Holds only the graph and the cell number, all the state of the location is read from
+ * and written to the cells of the graph. Thus, any number of CompactLocations can be
+ * created for the same cell and they are all equal.
+ * Visibility: Package - private
+ */
+class CompactLocation implements Location {
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private final AbstractCompactLocationGraph graph;
+  private final int cell;
+
+  protected CompactLocation(AbstractCompactLocationGraph graph, int cell) {
+    if (graph == null || cell < 0) {
+      throw new IllegalArgumentException("Invalid argument.");
+    }
+    this.graph = graph;
+    this.cell = cell;
+  }
+
+  @Override
+  public Position getPosition() {
+    return graph.getPosition(cell);
+  }
+
+  @Override
+  public Map<Direction, Location> getConnections() {
+    return graph.getConnections(cell);
+  }
+
+  @Override
+  public Location neighbor(Direction direction) {
+    return graph.getNeighbor(cell, direction);
+  }
+
+  @Override
+  public int getDirectionMask() {
+    return graph.getDirectionMask(cell);
+  }
+
+  @Override
+  public void forEachNeighbor(Consumer<Location> action) {
+    if (action == null) {
+      throw new IllegalArgumentException("Action cannot be null.");
+    }
+    for (Direction direction : DIRECTIONS) {
+      Location neighbor = graph.getNeighbor(cell, direction);
+      if (neighbor != null) {
+        action.accept(neighbor);
+      }
+    }
+  }
+
+  @Override
+  public Map<Treasure, Integer> getTreasureMap() {
+    return graph.getTreasureMap(cell);
+  }
+
+  @Override
+  public int countArrows() {
+    return graph.countArrows(cell);
+  }
+
+  @Override
+  public boolean isCave() {
+    return graph.isCave(cell);
+  }
+
+  @Override
+  public boolean containsOtyugh() {
+    return graph.containsOtyugh(cell);
+  }
+
+  @Override
+  public boolean isVisited() {
+    return graph.hasFlag(cell, AbstractCompactLocationGraph.VISITED);
+  }
+
+  @Override
+  public void setVisited(boolean visited) {
+    graph.setFlag(cell, AbstractCompactLocationGraph.VISITED, visited);
+  }
+
+  @Override
+  public Monster getOtyugh() {
+    //Intentionally returning mutable Otyugh as it will be called from package-package codes only,
+    // thus otyugh's state is not exposed to user.
+    return graph.getOtyugh(cell);
+  }
+
+  @Override
+  public boolean hasEdge(Location location) {
+    if (location == null) {
+      throw new IllegalArgumentException("Invalid location.");
+    }
+    Position other = location.getPosition();
+    return graph.hasEdge(cell, other.getRow() * graph.getColumns() + other.getColumn());
+  }
+
+  @Override
+  public Location addPath(Location other) {
+    if (other == null) {
+      throw new IllegalArgumentException("Invalid location.");
+    }
+    graph.addPath(cell, getDirection(other.getPosition()));
+    return this;
+  }
+
+  @Override
+  public void updatePath(Location other) {
+    if (other == null) {
+      throw new IllegalArgumentException("Invalid location.");
+    }
+    graph.addPath(cell, getDirection(other.getPosition()));
+  }
+
+  @Override
+  public void setTreasure(RandomSource random) {
+    graph.setTreasure(cell, random);
+  }
+
+  @Override
+  public void setArrow(RandomSource random) {
+    graph.setArrow(cell, random);
+  }
+
+  @Override
+  public void addOtyugh(SmellField smell) {
+    graph.addOtyugh(cell, smell);
+  }
+
+  @Override
+  public void removeTreasure(Treasure treasure, int amount) {
+    graph.removeTreasure(cell, treasure, amount);
+  }
+
+  @Override
+  public void removeArrow(int amount) {
+    graph.removeArrow(cell, amount);
+  }
+
+  @Override
+  public void restoreItems(int numArrows, Map<Treasure, Integer> treasureMap) {
+    graph.restoreItems(cell, numArrows, treasureMap);
+  }
+
+  @Override
+  public HitStatus shootArrow(Direction direction, int distance) {
+    return graph.shootArrow(cell, direction, distance);
+  }
+
+  @Override
+  public HitStatus shootArrowHelper(Direction direction, int distance) {
+    return graph.shootArrowHelper(cell, direction, distance);
+  }
+
+  @Override
+  public Direction getDirection(Position otherPosition) {
+    return graph.getDirection(cell, otherPosition);
+  }
+
+  @Override
+  public void setKey(boolean key) {
+    graph.setFlag(cell, AbstractCompactLocationGraph.KEY, key);
+  }
+
+  @Override
+  public boolean hasKey() {
+    return graph.hasFlag(cell, AbstractCompactLocationGraph.KEY);
+  }
+
+  @Override
+  public void setThief(boolean hasThief) {
+    if (isCave()) {
+      throw new IllegalStateException("Cave should not have any theif.");
+    }
+    graph.setFlag(cell, AbstractCompactLocationGraph.THIEF, hasThief);
+  }
+
+  @Override
+  public boolean hasThief() {
+    return graph.hasFlag(cell, AbstractCompactLocationGraph.THIEF);
+  }
+
+  @Override
+  public void setAboleth(boolean hasAboleth) {
+    graph.setFlag(cell, AbstractCompactLocationGraph.ABOLETH, hasAboleth);
+  }
+
+  @Override
+  public boolean hasAboleth() {
+    return graph.hasFlag(cell, AbstractCompactLocationGraph.ABOLETH);
+  }
+
+  @Override
+  public boolean hasPit() {
+    return graph.hasFlag(cell, AbstractCompactLocationGraph.PIT);
+  }
+
+  @Override
+  public void setPit(boolean pit) {
+    graph.setFlag(cell, AbstractCompactLocationGraph.PIT, pit);
+  }
+
+  @Override
+  public boolean hasPitNearby() {
+    return graph.hasPitNearby(cell);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CompactLocation)) {
+      return false;
+    }
+    CompactLocation that = (CompactLocation) o;
+    return cell == that.cell && graph == that.graph;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(System.identityHashCode(graph), cell);
+  }
+}
@@ -0,0 +1,283 @@
+package dungeonmodel;
+
+import random.RandomSource;
+import structureddata.Position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The representation of LocationGraph which stores the dungeon in primitive arrays.
+ * The masks, flags, arrows and treasures of all the cells are kept in one array each,
+ * so every cell of the dungeon is in memory from the start.
+ * The random numbers are drawn in the same order as {@link LocationGraphImpl},
+ * thus both generate the same dungeon for the same seed.
+ * Visibility: Package - private
+ */
+class CompactLocationGraph extends AbstractCompactLocationGraph {
+  private final int cells;
+  private final byte[] masks;
+  private final byte[] flags;
+  private final byte[] arrows;
+  private final byte[][] treasures;
+  private final DistanceOracle distances;
+  private final SmellField smell;
+
+  private final LocationIndex locationIndex;
+
+  protected CompactLocationGraph(int rows, int columns, boolean isWrapped,
+                                 int degree, int percentageItems, int numAboleth,
+                                 int numThief, int numPits, boolean requireKey,
+                                 MazeAlgorithm algorithm, RandomSource random) {
+    super(rows, columns, isWrapped, degree, percentageItems, numAboleth,
+            numThief, numPits, requireKey, random);
+    if ((long) rows * columns > Integer.MAX_VALUE / 2) {
+      throw new IllegalArgumentException("Dungeon is too large.");
+    }
+    if (algorithm == null) {
+      throw new IllegalArgumentException("Algorithm cannot be null.");
+    }
+    cells = grid.size();
+    masks = new byte[cells];
+    flags = new byte[cells];
+    arrows = new byte[cells];
+    treasures = new byte[TREASURES.length][cells];
+    distances = new DistanceOracle(grid, masks);
+    smell = new ArraySmellField(grid, masks, changes);
+    degreeOfInterconnectivity = generatePaths(algorithm, degree, masks);
+    locationIndex = new LocationIndex(masks);
+    addTreasureToCaves();
+    addArrowsToLocations();
+    addThiefToRandomTunnel();
+    if (requireKey) {
+      addKeyToRandomLocation();
+    }
+    addPitsToRandomLocation();
+  }
+
+  /**
+   * Creates the graph of a saved dungeon. The cells are copied from the file section by
+   * section and only the Otyughs, Aboleths and Thieves are created one by one.
+   *
+   * @param file   the saved dungeon.
+   * @param random the source of the random numbers of the dungeon.
+   */
+  protected CompactLocationGraph(DungeonFile file, RandomSource random) {
+    super(file.getRows(), file.getColumns(), file.isWrapped(), file.getDegree(),
+            file.getPercentageItems(), file.getAbolethCells().length,
+            file.getThiefCells().length, file.countPits(), file.requireKey(), random);
+    cells = grid.size();
+    masks = new byte[cells];
+    flags = new byte[cells];
+    arrows = new byte[cells];
+    treasures = new byte[TREASURES.length][cells];
+    distances = new DistanceOracle(grid, masks);
+    smell = new ArraySmellField(grid, masks, changes);
+    file.readCells(masks, flags, arrows, treasures);
+    locationIndex = new LocationIndex(masks);
+    numOtyughs = file.countOtyughs();
+    int[] otyughCells = file.getOtyughCells();
+    int[] otyughHealth = file.getOtyughHealth();
+    for (int i = 0; i < otyughCells.length; i++) {
+      otyughs.put(otyughCells[i], new Otyugh(location(otyughCells[i]), smell, otyughHealth[i]));
+      setFlag(otyughCells[i], OTYUGH, true);
+    }
+    int[] abolethCells = file.getAbolethCells();
+    int[] abolethHealth = file.getAbolethHealth();
+    for (int i = 0; i < aboleth.length; i++) {
+      aboleth[i] = new Aboleth(location(abolethCells[i]), abolethHealth[i], abolethIndex, i);
+    }
+    int[] thiefCells = file.getThiefCells();
+    for (int i = 0; i < thief.length; i++) {
+      thief[i] = new TunnelThief(location(thiefCells[i]), thiefIndex, i);
+    }
+  }
+
+  private void addTreasureToCaves() {
+    IndexPool pool = new IndexPool(locationIndex.countCaves());
+    int totalTreasureCaves =
+            (int) Math.ceil((percentageItems * (long) locationIndex.countCaves()) / 100.0);
+    for (int i = 0; i < totalTreasureCaves; i++) {
+      int index = pool.take(random.getIntInRange(0, pool.size() - 1));
+      setTreasure(locationIndex.getCave(index), random);
+    }
+  }
+
+  private void addArrowsToLocations() {
+    IndexPool pool = new IndexPool(cells);
+    int totalArrowLocations =
+            (int) Math.ceil((percentageItems * (long) cells) / 100.0);
+    for (int i = 0; i < totalArrowLocations; i++) {
+      setArrow(pool.take(random.getIntInRange(0, pool.size() - 1)), random);
+    }
+  }
+
+  private void addKeyToRandomLocation() {
+    setFlag(random.getIntInRange(0, cells - 1), KEY, true);
+  }
+
+  private void addThiefToRandomTunnel() {
+    for (int i = 0; i < thief.length; i++) {
+      thief[i] = new TunnelThief(location(locationIndex.randomTunnel(random)), thiefIndex, i);
+    }
+  }
+
+  private void addPitsToRandomLocation() {
+    numPits = Math.min(numPits, cells);
+    for (int i = 0; i < numPits; i++) {
+      setFlag(random.getIntInRange(0, cells - 1), PIT, true);
+    }
+  }
+
+  @Override
+  public List<Location> getStartEndPositions() {
+    int start = locationIndex.randomCave(random);
+    int[] possibleEnds = new int[locationIndex.countCaves()];
+    int numPossibleEnds = possibleEndPositions(start, possibleEnds);
+    if (numPossibleEnds == 0) {
+      throw new IllegalStateException("Cannot find a distance of 5 between two positions.");
+    }
+    int end = possibleEnds[random.getIntInRange(0, numPossibleEnds - 1)];
+    List<Location> startEndPositions = new ArrayList<>();
+    startEndPositions.add(location(start));
+    startEndPositions.add(location(end));
+    return startEndPositions;
+  }
+
+  private int possibleEndPositions(int start, int[] possibleEnds) {
+    int[] distance = new int[cells];
+    Arrays.fill(distance, -1);
+    int[] queue = new int[cells];
+    int head = 0;
+    int tail = 0;
+    int numPossibleEnds = 0;
+    queue[tail++] = start;
+    distance[start] = 0;
+    while (head < tail) {
+      int current = queue[head++];
+      if (distance[current] >= 5 && isCave(current)) {
+        possibleEnds[numPossibleEnds++] = current;
+      }
+      for (Direction direction : DIRECTIONS) {
+        if (hasDirection(current, direction)) {
+          int next = neighbor(current, direction);
+          if (distance[next] == -1) {
+            distance[next] = distance[current] + 1;
+            queue[tail++] = next;
+          }
+        }
+      }
+    }
+    return numPossibleEnds;
+  }
+
+  @Override
+  public void addOtyughToCaves(int numOtyugh, Location startLocation, Location endLocation) {
+    if (startLocation == null || endLocation == null) {
+      throw new IllegalArgumentException("Start or end location cannot be null");
+    }
+    IndexPool pool = new IndexPool(locationIndex.countCaves());
+    int endIndex = locationIndex.caveIndex(cellOf(endLocation.getPosition()));
+    if (endIndex >= 0) {
+      pool.remove(endIndex);
+    }
+    int startIndex = locationIndex.caveIndex(cellOf(startLocation.getPosition()));
+    if (startIndex >= 0 && startIndex != endIndex) {
+      pool.remove(startIndex);
+    }
+
+    numOtyughs = Math.min(pool.size(), numOtyugh);
+
+    endLocation.addOtyugh(smell);
+    for (int i = 0; i < numOtyughs - 1; i++) {
+      addOtyugh(locationIndex.getCave(pool.take(random.getIntInRange(0, pool.size() - 1))), smell);
+    }
+  }
+
+  @Override
+  public void addAbolethToRandomLocation(Location startLocation) {
+    if (startLocation == null) {
+      throw new IllegalArgumentException("Start or end location cannot be null");
+    }
+    int start = cellOf(startLocation.getPosition());
+    for (int i = 0; i < aboleth.length; i++) {
+      int index = random.getIntInRange(0, cells - 2);
+      aboleth[i] = new Aboleth(location(index < start ? index : index + 1), abolethIndex, i);
+    }
+  }
+
+  @Override
+  public int getDistance(Position first, Position second) {
+    if (first == null || second == null) {
+      throw new IllegalArgumentException("Positions cannot be null");
+    }
+    return distances.getDistance(cellOf(first), cellOf(second));
+  }
+
+  @Override
+  public SmellLevel getSmellLevel(Position position) {
+    if (position == null) {
+      throw new IllegalArgumentException("Position cannot be null");
+    }
+    return smell.getSmellLevel(position);
+  }
+
+  @Override
+  public boolean stealTreasure(Player player) {
+    if (player == null) {
+      throw new IllegalArgumentException("Player cannot be null");
+    }
+    if (player.getLocation().hasThief()) {
+      Thief thief = getThief(player.getLocation());
+      thief.steal(player, random);
+      changes.record(thief.getPosition());
+      int excluded = cellOf(player.getLocation().getPosition());
+      thief.relocate(location(locationIndex.randomTunnelExcept(excluded, random)));
+      changes.record(thief.getPosition());
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  protected int getDirectionMask(int cell) {
+    return masks[cell];
+  }
+
+  @Override
+  protected void addPath(int cell, Direction direction) {
+    masks[cell] |= Grid.bit(direction);
+    distances.invalidate();
+  }
+
+  @Override
+  protected int getFlags(int cell) {
+    return flags[cell];
+  }
+
+  @Override
+  protected void setFlags(int cell, int flags) {
+    this.flags[cell] = (byte) flags;
+  }
+
+  @Override
+  protected int countArrows(int cell) {
+    return arrows[cell];
+  }
+
+  @Override
+  protected void setArrows(int cell, int numArrows) {
+    arrows[cell] = (byte) numArrows;
+  }
+
+  @Override
+  protected int countTreasure(int cell, Treasure treasure) {
+    return treasures[treasure.ordinal()][cell];
+  }
+
+  @Override
+  protected void setTreasureAmount(int cell, Treasure treasure, int amount) {
+    treasures[treasure.ordinal()][cell] = (byte) amount;
+  }
+}
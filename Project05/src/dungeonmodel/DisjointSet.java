@@ -0,0 +1,66 @@
+package dungeonmodel;
+
+/**
+ * Array backed union-find over the cells of the dungeon.
+ * Uses union by rank and iterative path compression so that it neither allocates
+ * nor recurses while the spanning tree is built.
+ * Visibility: Package - private
+ */
+class DisjointSet {
+  private final int[] parent;
+  private final byte[] rank;
+
+  protected DisjointSet(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Size cannot be negative.");
+    }
+    parent = new int[size];
+    rank = new byte[size];
+    for (int i = 0; i < size; i++) {
+      parent[i] = i;
+    }
+  }
+
+  /**
+   * Finds the representative of the set containing the element.
+   *
+   * @param element the element to be searched.
+   * @return the representative of its set.
+   */
+  protected int find(int element) {
+    int root = element;
+    while (parent[root] != root) {
+      root = parent[root];
+    }
+    while (parent[element] != root) {
+      int next = parent[element];
+      parent[element] = root;
+      element = next;
+    }
+    return root;
+  }
+
+  /**
+   * Merges the sets containing the two elements.
+   *
+   * @param first  the first element
+   * @param second the second element
+   * @return true if the elements were in different sets before the merge.
+   */
+  protected boolean union(int first, int second) {
+    int firstRoot = find(first);
+    int secondRoot = find(second);
+    if (firstRoot == secondRoot) {
+      return false;
+    }
+    if (rank[firstRoot] < rank[secondRoot]) {
+      parent[firstRoot] = secondRoot;
+    } else if (rank[firstRoot] > rank[secondRoot]) {
+      parent[secondRoot] = firstRoot;
+    } else {
+      parent[secondRoot] = firstRoot;
+      rank[firstRoot]++;
+    }
+    return true;
+  }
+}
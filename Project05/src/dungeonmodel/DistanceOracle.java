@@ -0,0 +1,105 @@
+package dungeonmodel;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Answers the distance queries between the locations of a dungeon.
+ * The distances from a source cell to every other cell are found by a single BFS over the
+ * direction masks of the cells and kept in a bounded least recently used cache, so repeated
+ * queries from or to the same cell are a lookup in the cached array.
+ * The cached distances must be invalidated whenever a path is added to the dungeon.
+ * Visibility: Package - private
+ */
+class DistanceOracle {
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private static final int MAX_CACHED_CELLS = 1 << 24;
+  private static final int MAX_FIELDS = 64;
+
+  private final Grid grid;
+  private final byte[] masks;
+  private final Map<Integer, int[]> fields;
+  private int[] queue;
+
+  protected DistanceOracle(Grid grid, byte[] masks) {
+    if (grid == null || masks == null || masks.length != grid.size()) {
+      throw new IllegalArgumentException("Invalid grid or masks.");
+    }
+    this.grid = grid;
+    this.masks = masks;
+    int capacity = Math.max(1, Math.min(MAX_FIELDS, MAX_CACHED_CELLS / grid.size()));
+    this.fields = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  /**
+   * Gives the length of the shortest path between two cells.
+   *
+   * @param first  the first cell
+   * @param second the second cell
+   * @return the distance between the cells, or -1 if they are not connected.
+   */
+  protected synchronized int getDistance(int first, int second) {
+    int[] field = fields.get(second);
+    if (field != null) {
+      return field[first];
+    }
+    return getField(first)[second];
+  }
+
+  /**
+   * Gives the distances from the source cell to every cell, -1 for the cells not connected
+   * to it. The returned array is shared with the cache and should not be modified.
+   *
+   * @param source the source cell
+   * @return the distances from the source cell indexed by cell.
+   */
+  protected synchronized int[] getField(int source) {
+    if (source < 0 || source >= masks.length) {
+      throw new IllegalArgumentException("Invalid cell.");
+    }
+    int[] field = fields.get(source);
+    if (field == null) {
+      field = search(source);
+      fields.put(source, field);
+    }
+    return field;
+  }
+
+  /**
+   * Removes all the cached distances. Called when a path is added to the dungeon.
+   */
+  protected synchronized void invalidate() {
+    fields.clear();
+  }
+
+  private int[] search(int source) {
+    int[] distance = new int[masks.length];
+    Arrays.fill(distance, -1);
+    if (queue == null) {
+      queue = new int[masks.length];
+    }
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = source;
+    distance[source] = 0;
+    while (head < tail) {
+      int current = queue[head++];
+      for (Direction direction : DIRECTIONS) {
+        if (Grid.hasDirection(masks[current], direction)) {
+          int next = grid.neighbor(current, direction);
+          if (distance[next] == -1) {
+            distance[next] = distance[current] + 1;
+            queue[tail++] = next;
+          }
+        }
+      }
+    }
+    return distance;
+  }
+}
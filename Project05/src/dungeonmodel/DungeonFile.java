@@ -0,0 +1,437 @@
+package dungeonmodel;
+
+import structureddata.Position;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The binary file in which a dungeon is saved.
+ * The file starts with a header of fixed size holding the properties of the dungeon and the
+ * state of the player. It is followed by one section for each of the direction masks, the flags,
+ * the arrows and the amount of every treasure, each having one byte for every cell in the order
+ * of the cells. The Otyughs, Aboleths and Thieves are listed at the end with their cells.
+ * A file is read by mapping it into memory, and every section of the cells is copied into
+ * the arrays of a {@link CompactLocationGraph} at once, without reading the cells one by one.
+ * Visibility: Package - private
+ */
+final class DungeonFile {
+  protected static final int MAGIC = 0x44474E46;
+  protected static final int FORMAT_VERSION = 1;
+  protected static final int HEADER_SIZE = 80;
+  protected static final int MASKS = 0;
+  protected static final int FLAGS = 1;
+  protected static final int ARROWS = 2;
+  protected static final int TREASURES_SECTION = 3;
+  protected static final int SECTIONS = 3 + Treasure.values().length;
+  protected static final long MAX_SIZE = Integer.MAX_VALUE;
+
+  private static final Treasure[] TREASURES = Treasure.values();
+  private static final GameStatus[] STATUSES = GameStatus.values();
+
+  private final ByteBuffer buffer;
+  private final int rows;
+  private final int columns;
+  private final boolean wrapped;
+  private final boolean requireKey;
+  private final int degree;
+  private final int percentageItems;
+  private final int numOtyughs;
+  private final int numPits;
+  private final int start;
+  private final int end;
+  private final int playerCell;
+  private final int playerArrows;
+  private final boolean playerHasKey;
+  private final boolean playerInPit;
+  private final GameStatus status;
+  private final Map<Treasure, Integer> playerTreasures;
+  private final int[] otyughCells;
+  private final int[] otyughHealth;
+  private final int[] abolethCells;
+  private final int[] abolethHealth;
+  private final int[] thiefCells;
+
+  private DungeonFile(ByteBuffer buffer) {
+    if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+      throw new IllegalArgumentException("Not a dungeon file.");
+    }
+    int version = buffer.getInt();
+    if (version != FORMAT_VERSION) {
+      throw new IllegalArgumentException(
+              String.format("Unsupported version %d of the dungeon file.", version));
+    }
+    this.buffer = buffer;
+    rows = buffer.getInt();
+    columns = buffer.getInt();
+    if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE / 2) {
+      throw new IllegalArgumentException("Invalid size of the dungeon in the file.");
+    }
+    degree = buffer.getInt();
+    percentageItems = buffer.getInt();
+    numOtyughs = buffer.getInt();
+    numPits = buffer.getInt();
+    start = checkCell(buffer.getInt());
+    end = checkCell(buffer.getInt());
+    playerCell = checkCell(buffer.getInt());
+    playerArrows = buffer.getInt();
+    playerTreasures = new TreeMap<>();
+    for (Treasure treasure : TREASURES) {
+      int amount = buffer.getInt();
+      if (amount > 0) {
+        playerTreasures.put(treasure, amount);
+      }
+    }
+    int numOtyughEntries = buffer.getInt();
+    int numAboleth = buffer.getInt();
+    int numThief = buffer.getInt();
+    wrapped = buffer.get() != 0;
+    requireKey = buffer.get() != 0;
+    playerHasKey = buffer.get() != 0;
+    playerInPit = buffer.get() != 0;
+    int statusIndex = buffer.get();
+    if (statusIndex < 0 || statusIndex >= STATUSES.length) {
+      throw new IllegalArgumentException("Invalid game status in the dungeon file.");
+    }
+    status = STATUSES[statusIndex];
+
+    long cellsEnd = sectionOffset(SECTIONS, rows * columns);
+    if (numOtyughEntries < 0 || numAboleth < 0 || numThief < 0 || buffer.limit()
+            != fileSize(rows * columns, numOtyughEntries, numAboleth, numThief)) {
+      throw new IllegalArgumentException("Dungeon file is truncated or corrupted.");
+    }
+    buffer.position((int) cellsEnd);
+    otyughCells = new int[numOtyughEntries];
+    otyughHealth = new int[numOtyughEntries];
+    for (int i = 0; i < numOtyughEntries; i++) {
+      otyughCells[i] = checkCell(buffer.getInt());
+      otyughHealth[i] = buffer.get();
+    }
+    abolethCells = new int[numAboleth];
+    abolethHealth = new int[numAboleth];
+    for (int i = 0; i < numAboleth; i++) {
+      abolethCells[i] = checkCell(buffer.getInt());
+      abolethHealth[i] = buffer.get();
+    }
+    thiefCells = new int[numThief];
+    for (int i = 0; i < numThief; i++) {
+      thiefCells[i] = checkCell(buffer.getInt());
+    }
+  }
+
+  private int checkCell(int cell) {
+    if (cell < 0 || cell >= rows * columns) {
+      throw new IllegalArgumentException("Invalid cell in the dungeon file.");
+    }
+    return cell;
+  }
+
+  /**
+   * Opens a saved dungeon by mapping its file into memory and reading its header.
+   *
+   * @param path the path of the file.
+   * @return the opened file.
+   * @throws IOException              if the file cannot be read.
+   * @throws IllegalArgumentException if the file is not a dungeon file of this version.
+   */
+  protected static DungeonFile read(Path path) throws IOException {
+    if (path == null) {
+      throw new IllegalArgumentException("Path cannot be null.");
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > MAX_SIZE) {
+        throw new IllegalArgumentException("Dungeon file is too large.");
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new DungeonFile(buffer);
+    }
+  }
+
+  /**
+   * Saves a dungeon to a file, replacing the file if it exists.
+   *
+   * @param path   the path of the file.
+   * @param graph  the locations of the dungeon.
+   * @param start  the start location.
+   * @param end    the end location.
+   * @param player the player of the dungeon.
+   * @param status the status of the game.
+   * @throws IOException if the file cannot be written.
+   */
+  protected static void write(Path path, LocationGraph graph, Location start, Location end,
+                              Player player, GameStatus status) throws IOException {
+    if (path == null || graph == null || start == null || end == null || player == null
+            || status == null) {
+      throw new IllegalArgumentException("Invalid arguments.");
+    }
+    Grid grid = new Grid(graph.getRows(), graph.getColumns());
+    int cells = grid.size();
+    byte[][] sections = new byte[SECTIONS][cells];
+    ByteBuffer otyughs = ByteBuffer.allocate(5 * graph.countOtyughs() + 5);
+    int numOtyughEntries = 0;
+    for (int cell = 0; cell < cells; cell++) {
+      Location location = graph.getLocation(grid.position(cell));
+      sections[MASKS][cell] = (byte) location.getDirectionMask();
+      sections[FLAGS][cell] = (byte) (flag(location.isVisited(), CompactLocationGraph.VISITED)
+              | flag(location.hasKey(), CompactLocationGraph.KEY)
+              | flag(location.hasThief(), CompactLocationGraph.THIEF)
+              | flag(location.hasAboleth(), CompactLocationGraph.ABOLETH)
+              | flag(location.hasPit(), CompactLocationGraph.PIT));
+      sections[ARROWS][cell] = toByte(location.countArrows());
+      if (location.isCave()) {
+        for (Map.Entry<Treasure, Integer> entry : location.getTreasureMap().entrySet()) {
+          sections[TREASURES_SECTION + entry.getKey().ordinal()][cell] = toByte(entry.getValue());
+        }
+        Monster otyugh = location.getOtyugh();
+        if (otyugh != null) {
+          sections[FLAGS][cell] |= CompactLocationGraph.OTYUGH;
+          if (otyughs.remaining() < 5) {
+            otyughs = grow(otyughs);
+          }
+          otyughs.putInt(cell).put((byte) Math.max(0, otyugh.getHealth()));
+          numOtyughEntries++;
+        }
+      }
+    }
+    otyughs.flip();
+
+    List<Monster> aboleths = graph.getAboleths();
+    List<Thief> thieves = graph.getThieves();
+    ByteBuffer monsters = ByteBuffer.allocate(5 * aboleths.size() + 4 * thieves.size());
+    for (Monster aboleth : aboleths) {
+      monsters.putInt(grid.cell(aboleth.getPosition()))
+              .put((byte) Math.max(0, aboleth.getHealth()));
+    }
+    for (Thief thief : thieves) {
+      monsters.putInt(grid.cell(thief.getPosition()));
+    }
+    monsters.flip();
+
+    ByteBuffer header = header(graph.getRows(), graph.getColumns(), graph.isWrapped(),
+            graph.requireKey(), graph.getDegree(), graph.getPercentageItems(),
+            graph.countOtyughs(), graph.countPits(), grid.cell(start.getPosition()),
+            grid.cell(end.getPosition()), grid.cell(player.getLocation().getPosition()),
+            player.countArrows(), player.getCollectedTreasures(), player.hasKey(),
+            player.isFallenInPit(), status, numOtyughEntries, aboleths.size(), thieves.size());
+
+    ByteBuffer[] buffers = new ByteBuffer[SECTIONS + 3];
+    buffers[0] = header;
+    for (int i = 0; i < SECTIONS; i++) {
+      buffers[i + 1] = ByteBuffer.wrap(sections[i]);
+    }
+    buffers[SECTIONS + 1] = otyughs;
+    buffers[SECTIONS + 2] = monsters;
+    long remaining = HEADER_SIZE + (long) SECTIONS * cells + otyughs.limit() + monsters.limit();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (remaining > 0) {
+        remaining -= channel.write(buffers);
+      }
+    }
+  }
+
+  /**
+   * Gives the header of a dungeon file, ready to be written at the start of the file.
+   *
+   * @param rows             the number of rows.
+   * @param columns          the number of columns.
+   * @param wrapped          whether the dungeon is wrapped around its end.
+   * @param requireKey       whether a key is required to open the end door.
+   * @param degree           the degree of interconnectivity.
+   * @param percentageItems  the percentage of locations having items.
+   * @param numOtyughs       the number of Otyughs placed in the dungeon.
+   * @param numPits          the number of pits.
+   * @param start            the cell of the start.
+   * @param end              the cell of the end.
+   * @param playerCell       the cell of the player.
+   * @param playerArrows     the number of arrows of the player.
+   * @param treasures        the treasures collected by the player.
+   * @param playerHasKey     whether the player has the key.
+   * @param playerInPit      whether the player has fallen in a pit.
+   * @param status           the status of the game.
+   * @param numOtyughEntries the number of Otyughs listed after the sections.
+   * @param numAboleth       the number of Aboleths listed after the Otyughs.
+   * @param numThief         the number of thieves listed after the Aboleths.
+   * @return the header, flipped for writing.
+   */
+  protected static ByteBuffer header(int rows, int columns, boolean wrapped, boolean requireKey,
+                                     int degree, int percentageItems, int numOtyughs,
+                                     int numPits, int start, int end, int playerCell,
+                                     int playerArrows, Map<Treasure, Integer> treasures,
+                                     boolean playerHasKey, boolean playerInPit,
+                                     GameStatus status, int numOtyughEntries, int numAboleth,
+                                     int numThief) {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC).putInt(FORMAT_VERSION)
+            .putInt(rows).putInt(columns)
+            .putInt(degree).putInt(percentageItems)
+            .putInt(numOtyughs).putInt(numPits)
+            .putInt(start).putInt(end)
+            .putInt(playerCell).putInt(playerArrows);
+    for (Treasure treasure : TREASURES) {
+      header.putInt(treasures.getOrDefault(treasure, 0));
+    }
+    header.putInt(numOtyughEntries).putInt(numAboleth).putInt(numThief)
+            .put((byte) flag(wrapped, 1)).put((byte) flag(requireKey, 1))
+            .put((byte) flag(playerHasKey, 1)).put((byte) flag(playerInPit, 1))
+            .put((byte) status.ordinal());
+    header.position(HEADER_SIZE);
+    header.flip();
+    return header;
+  }
+
+  /**
+   * Gives the position in the file of the first byte of a section of the cells.
+   *
+   * @param section the section, like {@link #MASKS}.
+   * @param cells   the number of cells of the dungeon.
+   * @return the position of the section.
+   */
+  protected static long sectionOffset(int section, int cells) {
+    return HEADER_SIZE + (long) section * cells;
+  }
+
+  /**
+   * Gives the size of the file of a dungeon. A file can be mapped into memory and read only if
+   * its size is at most {@link #MAX_SIZE}.
+   *
+   * @param cells            the number of cells of the dungeon.
+   * @param numOtyughEntries the number of Otyughs listed in the file.
+   * @param numAboleth       the number of Aboleths.
+   * @param numThief         the number of thieves.
+   * @return the size of the file in bytes.
+   */
+  protected static long fileSize(int cells, long numOtyughEntries, long numAboleth,
+                                 long numThief) {
+    return sectionOffset(SECTIONS, cells) + 5 * (numOtyughEntries + numAboleth) + 4 * numThief;
+  }
+
+  private static int flag(boolean value, int flag) {
+    return value ? flag : 0;
+  }
+
+  private static byte toByte(int count) {
+    if (count < 0 || count > Byte.MAX_VALUE) {
+      throw new IllegalStateException("Too many items in a location to save the dungeon.");
+    }
+    return (byte) count;
+  }
+
+  private static ByteBuffer grow(ByteBuffer buffer) {
+    ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2);
+    buffer.flip();
+    return grown.put(buffer);
+  }
+
+  /**
+   * Copies the sections of the cells into the given arrays, each of one byte for every cell.
+   *
+   * @param masks     the array for the direction masks.
+   * @param flags     the array for the flags.
+   * @param arrows    the array for the arrows.
+   * @param treasures the array for the amount of every treasure.
+   */
+  protected void readCells(byte[] masks, byte[] flags, byte[] arrows, byte[][] treasures) {
+    ByteBuffer cells = buffer.duplicate();
+    cells.position(HEADER_SIZE);
+    cells.get(masks).get(flags).get(arrows);
+    for (byte[] treasure : treasures) {
+      cells.get(treasure);
+    }
+  }
+
+  protected int getRows() {
+    return rows;
+  }
+
+  protected int getColumns() {
+    return columns;
+  }
+
+  protected boolean isWrapped() {
+    return wrapped;
+  }
+
+  protected boolean requireKey() {
+    return requireKey;
+  }
+
+  protected int getDegree() {
+    return degree;
+  }
+
+  protected int getPercentageItems() {
+    return percentageItems;
+  }
+
+  protected int countOtyughs() {
+    return numOtyughs;
+  }
+
+  protected int countPits() {
+    return numPits;
+  }
+
+  protected Position getStart() {
+    return position(start);
+  }
+
+  protected Position getEnd() {
+    return position(end);
+  }
+
+  protected Position getPlayerPosition() {
+    return position(playerCell);
+  }
+
+  protected int countPlayerArrows() {
+    return playerArrows;
+  }
+
+  protected Map<Treasure, Integer> getPlayerTreasures() {
+    return new TreeMap<>(playerTreasures);
+  }
+
+  protected boolean playerHasKey() {
+    return playerHasKey;
+  }
+
+  protected boolean isPlayerInPit() {
+    return playerInPit;
+  }
+
+  protected GameStatus getGameStatus() {
+    return status;
+  }
+
+  protected int[] getOtyughCells() {
+    return otyughCells.clone();
+  }
+
+  protected int[] getOtyughHealth() {
+    return otyughHealth.clone();
+  }
+
+  protected int[] getAbolethCells() {
+    return abolethCells.clone();
+  }
+
+  protected int[] getAbolethHealth() {
+    return abolethHealth.clone();
+  }
+
+  protected int[] getThiefCells() {
+    return thiefCells.clone();
+  }
+
+  private Position position(int cell) {
+    return new Position(cell / columns, cell % columns);
+  }
+}
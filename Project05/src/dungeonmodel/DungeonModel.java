@@ -83,6 +83,20 @@ public interface DungeonModel extends ReadOnlyDungeonModel {
    */
   void exitDungeon();
 
+  /**
+   * Resets the dungeon and the player to the state in which the dungeon was created or loaded.
+   * Only the locations changed since then are restored, so a reset takes time in proportion
+   * to how much the game was played rather than to the size of the dungeon.
+   */
+  void reset();
+
+  /**
+   * Publishes a snapshot of the current state of the dungeon, to be given by
+   * {@link #getSnapshot()}. Should be called by the thread changing the dungeon
+   * after every batch of changes.
+   */
+  void publishSnapshot();
+
   /**
    * Prints the current state of the dungeon.
    *
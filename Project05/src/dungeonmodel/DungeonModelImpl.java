@@ -1,11 +1,17 @@
 package dungeonmodel;
 
+import random.RandomSource;
+import random.SharedRandom;
 import structureddata.LocationDescription;
 import structureddata.PlayerDescription;
 import structureddata.Position;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Representation of the Dungeon specific to the adventure game.
@@ -36,9 +42,12 @@ public class DungeonModelImpl implements DungeonModel {
   private final LocationGraph locationGraph;
   private final Location startLocation;
   private final Location endLocation;
-  private final Player player;
+  private final RandomSource random;
+  private final DungeonSnapshot pristine;
 
+  private Player player;
   private GameStatus status;
+  private volatile DungeonSnapshot snapshot;
 
   /**
    * Creates a new dungeon with properties mentioned by the user.
@@ -60,11 +69,120 @@ public class DungeonModelImpl implements DungeonModel {
                           int degreeOfInterconnectivity, int percentageItems,
                           int numOtyugh, int numAboleth, int numThief,
                           int numPits, boolean requireKey) {
+    this(rows, columns, isWrapped, degreeOfInterconnectivity, percentageItems, numOtyugh,
+            numAboleth, numThief, numPits, requireKey, GraphType.STANDARD, MazeAlgorithm.KRUSKAL,
+            new SharedRandom());
+  }
+
+  /**
+   * Creates a new dungeon with properties mentioned by the user,
+   * storing its locations and selecting its paths in the mentioned way.
+   * The dungeon draws its random numbers only from the given source, so that dungeons with
+   * different sources can be generated and played in parallel. The locations are given a
+   * stream split from the source and the remaining numbers are drawn from the source itself.
+   * A {@link GraphType#CHUNKED} dungeon keeps up to 32 MB of its chunks in memory, as created
+   * by {@link #chunked}.
+   *
+   * @param rows                      Number of rows in the dungeon. Should be at least 6.
+   * @param columns                   Number of Columns in the dungeon. Should be at least 6.
+   * @param isWrapped                 Whether the dungeon is wrapped around its end
+   * @param degreeOfInterconnectivity The degree of interconnectivity for the dungeon.
+   * @param percentageItems           The percentage of locations having items
+   * @param numOtyugh                 Number of otyughs in the dungeon
+   * @param numAboleth                Number of aboleths in the dungeon
+   * @param numThief                  Number of thieves in the dungeon
+   * @param numPits                   Number of pits in the dungeon
+   * @param requireKey                Whether player requires a key to open door at end cave
+   * @param graphType                 How the locations of the dungeon are stored
+   * @param algorithm                 The algorithm used to select the paths of the dungeon
+   * @param random                    The source of the random numbers of the dungeon
+   * @throws IllegalArgumentException if rows, columns, degree of Interconnectivity
+   *                                  or percentage of caves with treasure is invalid
+   *                                  or graphType, algorithm or random is null.
+   */
+  public DungeonModelImpl(int rows, int columns, boolean isWrapped,
+                          int degreeOfInterconnectivity, int percentageItems,
+                          int numOtyugh, int numAboleth, int numThief,
+                          int numPits, boolean requireKey, GraphType graphType,
+                          MazeAlgorithm algorithm, RandomSource random) {
+    this(createGraph(rows, columns, isWrapped, degreeOfInterconnectivity, percentageItems,
+            numOtyugh, numAboleth, numThief, numPits, requireKey, graphType, algorithm,
+            ChunkedLocationGraph.DEFAULT_MEMORY_BUDGET, random), numOtyugh, random);
+  }
+
+  /**
+   * Creates a new dungeon with properties mentioned by the user, whose locations are generated
+   * in chunks only when they are first needed, as {@link GraphType#CHUNKED}. At most the given
+   * number of bytes of chunks are kept in memory and the changed chunks dropped from memory are
+   * written to a temporary file. Thus the time and memory taken to create the dungeon do not
+   * depend on its number of rows and columns, whose product may be up to Integer.MAX_VALUE.
+   * The paths of every chunk are selected with the given algorithm, with
+   * {@link MazeAlgorithm#FAST_KRUSKAL} in place of {@link MazeAlgorithm#TILED_KRUSKAL}.
+   *
+   * @param rows                      Number of rows in the dungeon. Should be at least 6.
+   * @param columns                   Number of Columns in the dungeon. Should be at least 6.
+   * @param isWrapped                 Whether the dungeon is wrapped around its end
+   * @param degreeOfInterconnectivity The degree of interconnectivity for the dungeon.
+   * @param percentageItems           The percentage of locations having items
+   * @param numOtyugh                 Number of otyughs in the dungeon
+   * @param numAboleth                Number of aboleths in the dungeon
+   * @param numThief                  Number of thieves in the dungeon
+   * @param numPits                   Number of pits in the dungeon
+   * @param requireKey                Whether player requires a key to open door at end cave
+   * @param algorithm                 The algorithm used to select the paths of every chunk
+   * @param memoryBudget              The number of bytes of chunks kept in memory
+   * @param random                    The source of the random numbers of the dungeon
+   * @return the created dungeon.
+   * @throws IllegalArgumentException if rows, columns, degree of Interconnectivity
+   *                                  or percentage of caves with treasure is invalid,
+   *                                  the memory budget is negative
+   *                                  or algorithm or random is null.
+   */
+  public static DungeonModelImpl chunked(int rows, int columns, boolean isWrapped,
+                                         int degreeOfInterconnectivity, int percentageItems,
+                                         int numOtyugh, int numAboleth, int numThief,
+                                         int numPits, boolean requireKey,
+                                         MazeAlgorithm algorithm, long memoryBudget,
+                                         RandomSource random) {
+    return new DungeonModelImpl(createGraph(rows, columns, isWrapped, degreeOfInterconnectivity,
+            percentageItems, numOtyugh, numAboleth, numThief, numPits, requireKey,
+            GraphType.CHUNKED, algorithm, memoryBudget, random), numOtyugh, random);
+  }
+
+  private static LocationGraph createGraph(int rows, int columns, boolean isWrapped,
+                                           int degreeOfInterconnectivity, int percentageItems,
+                                           int numOtyugh, int numAboleth, int numThief,
+                                           int numPits, boolean requireKey,
+                                           GraphType graphType, MazeAlgorithm algorithm,
+                                           long memoryBudget, RandomSource random) {
     if (numOtyugh <= 0) {
       throw new IllegalArgumentException("Number of Otyugh should be atleast 1.");
     }
-    locationGraph = new LocationGraphImpl(rows, columns, isWrapped,
-            degreeOfInterconnectivity, percentageItems, numAboleth, numThief, numPits, requireKey);
+    if (graphType == null) {
+      throw new IllegalArgumentException("Graph type cannot be null.");
+    }
+    if (random == null) {
+      throw new IllegalArgumentException("Random source cannot be null.");
+    }
+    switch (graphType) {
+      case COMPACT:
+        return new CompactLocationGraph(rows, columns, isWrapped, degreeOfInterconnectivity,
+                percentageItems, numAboleth, numThief, numPits, requireKey, algorithm,
+                random.split());
+      case CHUNKED:
+        return new ChunkedLocationGraph(rows, columns, isWrapped, degreeOfInterconnectivity,
+                percentageItems, numAboleth, numThief, numPits, requireKey, algorithm,
+                memoryBudget, random.split());
+      default:
+        return new LocationGraphImpl(rows, columns, isWrapped, degreeOfInterconnectivity,
+                percentageItems, numAboleth, numThief, numPits, requireKey, algorithm,
+                random.split());
+    }
+  }
+
+  private DungeonModelImpl(LocationGraph locationGraph, int numOtyugh, RandomSource random) {
+    this.random = random;
+    this.locationGraph = locationGraph;
 
     List<Location> startEndPositions = locationGraph.getStartEndPositions();
 
@@ -77,6 +195,78 @@ public class DungeonModelImpl implements DungeonModel {
     player = new PlayerImpl(startLocation);
     startLocation.setVisited(true);
     status = GameStatus.GAME_CONTINUE;
+    locationGraph.markPristine();
+    snapshot = DungeonSnapshot.capture(this, locationGraph);
+    pristine = snapshot;
+  }
+
+  private DungeonModelImpl(DungeonFile file, RandomSource random) {
+    this.random = random;
+    locationGraph = new CompactLocationGraph(file, random.split());
+    startLocation = locationGraph.getLocation(file.getStart());
+    endLocation = locationGraph.getLocation(file.getEnd());
+    player = new PlayerImpl(locationGraph.getLocation(file.getPlayerPosition()),
+            file.getPlayerTreasures(), file.countPlayerArrows(), file.playerHasKey(),
+            file.isPlayerInPit());
+    status = file.getGameStatus();
+    locationGraph.markPristine();
+    snapshot = DungeonSnapshot.capture(this, locationGraph);
+    pristine = snapshot;
+  }
+
+  /**
+   * Loads a dungeon saved by {@link #save(Path)}. The dungeon is loaded in the same state
+   * in which it was saved, with its locations stored in the {@link GraphType#COMPACT} way.
+   * The file is mapped into memory and copied without reading the locations one by one,
+   * so even a very large dungeon is loaded much faster than it is generated.
+   *
+   * @param path   The path of the saved dungeon.
+   * @param random The source of the random numbers of the loaded dungeon
+   * @return the loaded dungeon.
+   * @throws IOException              if the file cannot be read.
+   * @throws IllegalArgumentException if path or random is null
+   *                                  or the file is not a dungeon saved in a supported version.
+   */
+  public static DungeonModelImpl load(Path path, RandomSource random) throws IOException {
+    if (random == null) {
+      throw new IllegalArgumentException("Random source cannot be null.");
+    }
+    return new DungeonModelImpl(DungeonFile.read(path), random);
+  }
+
+  /**
+   * Generates a new dungeon with properties mentioned by the user straight into a file,
+   * replacing the file if it exists, in the format read by {@link #load(Path, RandomSource)}.
+   * The paths are selected one row at a time with Eller's algorithm and every row is written
+   * as soon as it is done, so the memory taken depends only on the number of columns and a
+   * dungeon much larger than the memory can be generated. The items are added to the given
+   * percentage of the caves and locations of every row.
+   *
+   * @param path                      The path of the file.
+   * @param rows                      Number of rows in the dungeon. Should be at least 6.
+   * @param columns                   Number of Columns in the dungeon. Should be at least 6.
+   * @param isWrapped                 Whether the dungeon is wrapped around its end
+   * @param degreeOfInterconnectivity The degree of interconnectivity for the dungeon.
+   * @param percentageItems           The percentage of locations having items
+   * @param numOtyugh                 Number of otyughs in the dungeon
+   * @param numAboleth                Number of aboleths in the dungeon
+   * @param numThief                  Number of thieves in the dungeon
+   * @param numPits                   Number of pits in the dungeon
+   * @param requireKey                Whether player requires a key to open door at end cave
+   * @param random                    The source of the random numbers of the dungeon
+   * @throws IOException              if the file cannot be written.
+   * @throws IllegalArgumentException if rows, columns, degree of Interconnectivity
+   *                                  or percentage of caves with treasure is invalid,
+   *                                  the file of the dungeon would be larger than
+   *                                  Integer.MAX_VALUE bytes, which is about 358 million
+   *                                  locations, or path or random is null.
+   */
+  public static void generateFile(Path path, int rows, int columns, boolean isWrapped,
+                                  int degreeOfInterconnectivity, int percentageItems,
+                                  int numOtyugh, int numAboleth, int numThief, int numPits,
+                                  boolean requireKey, RandomSource random) throws IOException {
+    new EllerGenerator(rows, columns, isWrapped, degreeOfInterconnectivity, percentageItems,
+            numOtyugh, numAboleth, numThief, numPits, requireKey, random).generate(path);
   }
 
   /**
@@ -159,13 +349,23 @@ public class DungeonModelImpl implements DungeonModel {
       throw new IllegalArgumentException("Position cannot be null.");
     }
     Location location = locationGraph.getLocation(position);
-    return new LocationDescription(location.getConnections().keySet(),
+    return new LocationDescription(getDirections(location.getDirectionMask()),
             location.getTreasureMap(), location.getPosition(),
             location.countArrows(), location.isCave(), location.containsOtyugh(),
             location.isVisited(), location.hasAboleth(), location.hasKey(), location.hasThief(),
             location.hasPit(), location.hasPitNearby());
   }
 
+  private Set<Direction> getDirections(int mask) {
+    Set<Direction> directions = EnumSet.noneOf(Direction.class);
+    for (Direction direction : Direction.values()) {
+      if (Grid.hasDirection(mask, direction)) {
+        directions.add(direction);
+      }
+    }
+    return directions;
+  }
+
   @Override
   public PlayerDescription getPlayerDescription() {
     return new PlayerDescription(player.getCollectedTreasures(), player.countArrows(),
@@ -181,13 +381,16 @@ public class DungeonModelImpl implements DungeonModel {
     if (player.isFallenInPit()) {
       throw new IllegalStateException("You are in a pit. It will take 5 seconds to come out.");
     }
+    Position oldPosition = player.getLocation().getPosition();
     Location newLocation = player.movePlayer(direction);
+    locationGraph.getChangeLog().record(oldPosition);
+    locationGraph.getChangeLog().record(newLocation.getPosition());
     if (!newLocation.isVisited()) {
       newLocation.setVisited(true);
     }
     if (newLocation.containsOtyugh()) {
-      status = newLocation.getOtyugh().killPlayer();
-    } else if (!locationGraph.requireKey() && newLocation == endLocation) {
+      status = newLocation.getOtyugh().killPlayer(random);
+    } else if (!locationGraph.requireKey() && newLocation.equals(endLocation)) {
       status = GameStatus.GAME_OVER_WIN;
     }
   }
@@ -207,6 +410,7 @@ public class DungeonModelImpl implements DungeonModel {
     } else {
       throw new IllegalArgumentException(String.format("%s item is not valid.", item));
     }
+    locationGraph.getChangeLog().record(player.getLocation().getPosition());
   }
 
   @Override
@@ -288,7 +492,7 @@ public class DungeonModelImpl implements DungeonModel {
   public void moveAboleth() {
     Monster currentAboleth = locationGraph.getAboleth(player.getLocation());
     if (currentAboleth != null) {
-      status = currentAboleth.killPlayer();
+      status = currentAboleth.killPlayer(random);
     } else {
       locationGraph.moveAboleth();
     }
@@ -301,6 +505,7 @@ public class DungeonModelImpl implements DungeonModel {
       throw new IllegalStateException("You are in a pit. It will take 5 seconds to come out.");
     }
     player.killMonster(locationGraph.getAboleth(player.getLocation()));
+    locationGraph.getChangeLog().record(player.getLocation().getPosition());
   }
 
   @Override
@@ -324,7 +529,30 @@ public class DungeonModelImpl implements DungeonModel {
 
   @Override
   public SmellLevel detectSmell() {
-    return player.detectSmell();
+    return locationGraph.getSmellLevel(player.getLocation().getPosition());
+  }
+
+  @Override
+  public SmellLevel getSmellLevel(Position position) {
+    if (position == null) {
+      throw new IllegalArgumentException("Position cannot be null.");
+    }
+    return locationGraph.getSmellLevel(position);
+  }
+
+  @Override
+  public long getVersion() {
+    return locationGraph.getChangeLog().getVersion();
+  }
+
+  @Override
+  public long getOldestTrackedVersion() {
+    return locationGraph.getChangeLog().getOldestVersion();
+  }
+
+  @Override
+  public Set<Position> getChangedPositions(long version) {
+    return locationGraph.getChangeLog().getChangedPositions(version);
   }
 
   @Override
@@ -332,6 +560,38 @@ public class DungeonModelImpl implements DungeonModel {
     return locationGraph.countPits();
   }
 
+  @Override
+  public void reset() {
+    locationGraph.reset(pristine);
+    PlayerDescription description = pristine.getPlayerDescription();
+    player = new PlayerImpl(locationGraph.getLocation(description.getPosition()),
+            description.getCollectedTreasures(), description.countArrows(),
+            description.hasKey(), description.fallenInPit());
+    status = pristine.getGameStatus();
+  }
+
+  @Override
+  public void publishSnapshot() {
+    snapshot = snapshot.next(this, locationGraph);
+  }
+
+  @Override
+  public DungeonSnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Saves the current state of the dungeon and of the player to a file,
+   * replacing the file if it exists. Should not be called while the dungeon is being changed.
+   *
+   * @param path The path of the file.
+   * @throws IOException              if the file cannot be written.
+   * @throws IllegalArgumentException if path is null.
+   */
+  public void save(Path path) throws IOException {
+    DungeonFile.write(path, locationGraph, startLocation, endLocation, player, status);
+  }
+
   private char checkSpecial(int row, int column) {
     Location playerLocation = player.getLocation();
     if (playerLocation.getPosition().equals(new Position(row, column))) {
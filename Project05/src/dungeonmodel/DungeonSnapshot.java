@@ -0,0 +1,359 @@
+package dungeonmodel;
+
+import structureddata.LocationDescription;
+import structureddata.PlayerDescription;
+import structureddata.Position;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An immutable copy of the state of a dungeon at one version.
+ * The state of every location is packed into a long in a {@link CellArray}, so the snapshot of
+ * the next version copies only the locations which have changed and shares the rest with this
+ * snapshot. A snapshot can be read by any number of threads without locks while the dungeon
+ * keeps changing. The positions changed in the last few snapshots are kept, so that a reader
+ * holding one of these versions can find what has changed since then.
+ */
+public final class DungeonSnapshot implements ReadOnlyDungeonModel {
+  private static final int MAX_KEPT_SNAPSHOTS = 16;
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private static final Treasure[] TREASURES = Treasure.values();
+  private static final SmellLevel[] SMELL_LEVELS = SmellLevel.values();
+
+  private static final int CAVE = 1 << 4;
+  private static final int OTYUGH = 1 << 5;
+  private static final int VISITED = 1 << 6;
+  private static final int ABOLETH = 1 << 7;
+  private static final int KEY = 1 << 8;
+  private static final int THIEF = 1 << 9;
+  private static final int PIT = 1 << 10;
+  private static final int PIT_NEARBY = 1 << 11;
+  private static final int SMELL_SHIFT = 12;
+  private static final int COUNT_SHIFT = 16;
+  private static final int COUNT_BITS = 12;
+  private static final int COUNT_MASK = (1 << COUNT_BITS) - 1;
+
+  private final int rows;
+  private final int columns;
+  private final boolean wrapped;
+  private final int degree;
+  private final int percentageItems;
+  private final int numOtyugh;
+  private final int numAboleth;
+  private final int numThief;
+  private final int numPits;
+  private final Position start;
+  private final Position end;
+  private final PlayerDescription player;
+  private final GameStatus status;
+  private final long version;
+  private final CellArray cells;
+  private final long[] keptVersions;
+  private final int[][] keptChanges;
+
+  private DungeonSnapshot(ReadOnlyDungeonModel model, long version, CellArray cells,
+                          long[] keptVersions, int[][] keptChanges) {
+    this.rows = model.getRows();
+    this.columns = model.getColumns();
+    this.wrapped = model.getWrapped();
+    this.degree = model.getDegree();
+    this.percentageItems = model.getPercentageItems();
+    this.numOtyugh = model.countOtyughs();
+    this.numAboleth = model.countAboleth();
+    this.numThief = model.countThief();
+    this.numPits = model.countPits();
+    this.start = model.getStartCave().getPosition();
+    this.end = model.getEndCave().getPosition();
+    this.player = model.getPlayerDescription();
+    this.status = model.getGameStatus();
+    this.version = version;
+    this.cells = cells;
+    this.keptVersions = keptVersions;
+    this.keptChanges = keptChanges;
+  }
+
+  /**
+   * Copies the whole state of a dungeon. Should be called only by the thread changing
+   * the dungeon, when no change is in progress.
+   *
+   * @param model the dungeon to copy.
+   * @param graph the locations of the dungeon.
+   * @return the snapshot of the dungeon at its current version.
+   */
+  static DungeonSnapshot capture(ReadOnlyDungeonModel model, LocationGraph graph) {
+    if (model == null || graph == null) {
+      throw new IllegalArgumentException("Model or graph cannot be null.");
+    }
+    long version = model.getVersion();
+    CellArray cells = graph.captureCells(position -> encode(graph, position));
+    return new DungeonSnapshot(model, version, cells, new long[]{version}, new int[0][]);
+  }
+
+  /**
+   * Gives the snapshot of the current version of the dungeon, copying only the locations
+   * changed since this snapshot. The whole dungeon is copied if the changes since this
+   * snapshot are no longer tracked. Should be called only by the thread changing the dungeon,
+   * when no change is in progress.
+   *
+   * @param model the dungeon of this snapshot.
+   * @param graph the locations of the dungeon.
+   * @return the snapshot of the dungeon at its current version.
+   */
+  DungeonSnapshot next(ReadOnlyDungeonModel model, LocationGraph graph) {
+    if (model == null || graph == null) {
+      throw new IllegalArgumentException("Model or graph cannot be null.");
+    }
+    long current = model.getVersion();
+    if (current < version || version < model.getOldestTrackedVersion()) {
+      return capture(model, graph);
+    }
+    if (current == version) {
+      return new DungeonSnapshot(model, version, cells, keptVersions, keptChanges);
+    }
+    Set<Position> changedPositions = model.getChangedPositions(version);
+    int[] changed = new int[changedPositions.size()];
+    int index = 0;
+    for (Position position : changedPositions) {
+      changed[index++] = position.getRow() * columns + position.getColumn();
+    }
+    Arrays.sort(changed);
+    long[] values = new long[changed.length];
+    for (int i = 0; i < changed.length; i++) {
+      values[i] = encode(graph, new Position(changed[i] / columns, changed[i] % columns));
+    }
+
+    int kept = Math.min(keptChanges.length + 1, MAX_KEPT_SNAPSHOTS);
+    long[] versions = new long[kept + 1];
+    int[][] changes = new int[kept][];
+    System.arraycopy(keptVersions, keptVersions.length - kept, versions, 0, kept);
+    System.arraycopy(keptChanges, keptChanges.length - kept + 1, changes, 0, kept - 1);
+    versions[kept] = current;
+    changes[kept - 1] = changed;
+    return new DungeonSnapshot(model, current, cells.with(changed, values), versions, changes);
+  }
+
+  @Override
+  public int getRows() {
+    return rows;
+  }
+
+  @Override
+  public int getColumns() {
+    return columns;
+  }
+
+  @Override
+  public boolean getWrapped() {
+    return wrapped;
+  }
+
+  @Override
+  public int countOtyughs() {
+    return numOtyugh;
+  }
+
+  @Override
+  public int getDegree() {
+    return degree;
+  }
+
+  @Override
+  public int getPercentageItems() {
+    return percentageItems;
+  }
+
+  @Override
+  public int countAboleth() {
+    return numAboleth;
+  }
+
+  @Override
+  public int countThief() {
+    return numThief;
+  }
+
+  @Override
+  public int countPits() {
+    return numPits;
+  }
+
+  @Override
+  public LocationDescription getStartCave() {
+    return getLocation(start);
+  }
+
+  @Override
+  public LocationDescription getEndCave() {
+    return getLocation(end);
+  }
+
+  @Override
+  public LocationDescription getCurrentLocation() {
+    return getLocation(player.getPosition());
+  }
+
+  @Override
+  public LocationDescription getLocation(Position position) {
+    long value = cells.get(cell(position));
+    Set<Direction> directions = EnumSet.noneOf(Direction.class);
+    for (Direction direction : DIRECTIONS) {
+      if (Grid.hasDirection((int) value, direction)) {
+        directions.add(direction);
+      }
+    }
+    Map<Treasure, Integer> treasureMap = new TreeMap<>();
+    for (Treasure treasure : TREASURES) {
+      int amount = count(value, treasure.ordinal() + 1);
+      if (amount > 0) {
+        treasureMap.put(treasure, amount);
+      }
+    }
+    return new LocationDescription(directions, treasureMap, position, count(value, 0),
+            has(value, CAVE), has(value, OTYUGH), has(value, VISITED), has(value, ABOLETH),
+            has(value, KEY), has(value, THIEF), has(value, PIT), has(value, PIT_NEARBY));
+  }
+
+  @Override
+  public PlayerDescription getPlayerDescription() {
+    return player;
+  }
+
+  @Override
+  public GameStatus getGameStatus() {
+    return status;
+  }
+
+  @Override
+  public SmellLevel detectSmell() {
+    return getSmellLevel(player.getPosition());
+  }
+
+  @Override
+  public SmellLevel getSmellLevel(Position position) {
+    return SMELL_LEVELS[(int) (cells.get(cell(position)) >>> SMELL_SHIFT) & 3];
+  }
+
+  @Override
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Gives the version of the oldest of the last few snapshots before this one.
+   * The changed positions can be found only from the versions of those snapshots.
+   *
+   * @return the oldest version from which the changes are kept.
+   */
+  @Override
+  public long getOldestTrackedVersion() {
+    return keptVersions[0];
+  }
+
+  /**
+   * Gives the positions of the locations changed since the given version.
+   * The changes are kept only for whole snapshots, so for a version between two snapshots
+   * the positions changed since the older snapshot are given.
+   *
+   * @param version the version after which the changes are needed.
+   * @return the positions of the changed locations.
+   * @throws IllegalArgumentException if the version is older than the oldest tracked version
+   *                                  or newer than the version of this snapshot.
+   */
+  @Override
+  public Set<Position> getChangedPositions(long version) {
+    if (version < getOldestTrackedVersion() || version > this.version) {
+      throw new IllegalArgumentException(
+              String.format("Changes are kept only from version %d to %d.",
+                      getOldestTrackedVersion(), this.version));
+    }
+    Set<Position> positions = new LinkedHashSet<>();
+    for (int i = 0; i < keptChanges.length; i++) {
+      if (keptVersions[i + 1] > version) {
+        for (int cell : keptChanges[i]) {
+          positions.add(new Position(cell / columns, cell % columns));
+        }
+      }
+    }
+    return positions;
+  }
+
+  @Override
+  public DungeonSnapshot getSnapshot() {
+    return this;
+  }
+
+  private int cell(Position position) {
+    if (position == null) {
+      throw new IllegalArgumentException("Position cannot be null.");
+    }
+    if (position.getRow() < 0 || position.getRow() >= rows
+            || position.getColumn() < 0 || position.getColumn() >= columns) {
+      throw new IllegalArgumentException("Invalid Position.");
+    }
+    return position.getRow() * columns + position.getColumn();
+  }
+
+  private static long encode(LocationGraph graph, Position position) {
+    Location location = graph.getLocation(position);
+    long value = location.getDirectionMask();
+    value |= flag(location.isCave(), CAVE) | flag(location.containsOtyugh(), OTYUGH)
+            | flag(location.isVisited(), VISITED) | flag(location.hasAboleth(), ABOLETH)
+            | flag(location.hasKey(), KEY) | flag(location.hasThief(), THIEF)
+            | flag(location.hasPit(), PIT) | flag(location.hasPitNearby(), PIT_NEARBY);
+    value |= (long) graph.getSmellLevel(position).ordinal() << SMELL_SHIFT;
+    value |= packCount(location.countArrows(), 0);
+    if (location.isCave()) {
+      for (Map.Entry<Treasure, Integer> entry : location.getTreasureMap().entrySet()) {
+        value |= packCount(entry.getValue(), entry.getKey().ordinal() + 1);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Packs the state of a location as it was generated, before anything was placed in it or
+   * near it, so that a graph can give the state of the locations it has not changed without
+   * creating them.
+   *
+   * @param mask      the direction mask of the location.
+   * @param numArrows the arrows in the location.
+   * @param treasures the amount of each treasure in the location, by its ordinal.
+   * @return the packed state of the location.
+   */
+  static long encodeGenerated(int mask, int numArrows, int[] treasures) {
+    boolean isCave = Integer.bitCount(mask) != 2;
+    long value = mask | flag(isCave, CAVE);
+    value |= (long) SmellLevel.NO_SMELL.ordinal() << SMELL_SHIFT;
+    value |= packCount(numArrows, 0);
+    if (isCave) {
+      for (int i = 0; i < treasures.length; i++) {
+        value |= packCount(treasures[i], i + 1);
+      }
+    }
+    return value;
+  }
+
+  private static long flag(boolean value, int flag) {
+    return value ? flag : 0;
+  }
+
+  private static long packCount(int count, int index) {
+    if (count < 0 || count > COUNT_MASK) {
+      throw new IllegalStateException("Too many items in a location to take a snapshot.");
+    }
+    return (long) count << (COUNT_SHIFT + COUNT_BITS * index);
+  }
+
+  private static int count(long value, int index) {
+    return (int) (value >>> (COUNT_SHIFT + COUNT_BITS * index)) & COUNT_MASK;
+  }
+
+  private static boolean has(long value, int flag) {
+    return (value & flag) != 0;
+  }
+}
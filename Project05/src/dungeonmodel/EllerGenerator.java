@@ -0,0 +1,486 @@
+package dungeonmodel;
+
+import random.RandomSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Generates a dungeon one row at a time with Eller's algorithm and writes it straight to a
+ * {@link DungeonFile}, without ever keeping the whole dungeon in memory.
+ * The cells of a row belong to sets of cells connected through the rows above. Adjacent cells
+ * of different sets are randomly joined, and every set then opens at least one path to the south,
+ * so that it goes on in the next row. The last row joins all the sets that are left, which makes
+ * the paths a spanning tree of the dungeon. Only the sets of the current row are kept, so the
+ * memory taken depends on the number of columns and not on the number of rows.
+ * The number of edges which are not paths of the tree is known before the first row, so the
+ * degree of interconnectivity number of them are selected one by one as they are passed,
+ * each with the chance of the number still to be selected out of the edges left.
+ * The paths across the wrapped edge between the last and the first row are never paths of the
+ * tree, so they are selected before the first row.
+ * A row is final once its paths to the south are selected. Its treasures and arrows are then
+ * added to its share of the given percentage of the caves and locations of the dungeon, with
+ * the remainders carried from row to row, and it is written to every section
+ * of the file at the position of its cells. The start, the end and the caves of the Otyughs are
+ * sampled from the caves and the thieves from the tunnels as the rows are written, and are
+ * written with the header once the last row is done. The end is a cave at least 5 rows and
+ * columns away from the start, so that the path between them is at least of length 5. If no
+ * sampled cave is that far, as in small dungeons, the paths written to the file are searched
+ * from the start for a cave at a distance of at least 5.
+ * Visibility: Package - private
+ */
+class EllerGenerator {
+  private static final int END_CANDIDATES = 16;
+  private static final int BATCH_BYTES = 1 << 16;
+  private static final int NORTH = Grid.bit(Direction.NORTH);
+  private static final int EAST = Grid.bit(Direction.EAST);
+  private static final int SOUTH = Grid.bit(Direction.SOUTH);
+  private static final int WEST = Grid.bit(Direction.WEST);
+
+  private final int rows;
+  private final int columns;
+  private final int cells;
+  private final boolean isWrapped;
+  private final int percentageItems;
+  private final int numOtyugh;
+  private final int numAboleth;
+  private final int numThief;
+  private final int numPits;
+  private final boolean requireKey;
+  private final RandomSource random;
+  private final int degree;
+
+  private boolean generated;
+  private int edgesLeft;
+  private int degreeLeft;
+  private final int[] caves;
+  private int cavesSeen;
+  private final int[] tunnels;
+  private int tunnelsSeen;
+  private int treasureCaves;
+  private int arrowLocations;
+
+  /**
+   * Creates a generator of a dungeon with the given properties.
+   *
+   * @param rows            the number of rows. Should be at least 6.
+   * @param columns         the number of columns. Should be at least 6.
+   * @param isWrapped       whether the dungeon is wrapped around its end.
+   * @param degree          the degree of interconnectivity.
+   * @param percentageItems the percentage of locations having items.
+   * @param numOtyugh       the number of Otyughs.
+   * @param numAboleth      the number of Aboleths.
+   * @param numThief        the number of thieves.
+   * @param numPits         the number of pits.
+   * @param requireKey      whether a key is required to open the end door.
+   * @param random          the source of the random numbers of the dungeon.
+   * @throws IllegalArgumentException if any of the properties is invalid, or the file of the
+   *                                  dungeon would be too large to be read.
+   */
+  protected EllerGenerator(int rows, int columns, boolean isWrapped, int degree,
+                           int percentageItems, int numOtyugh, int numAboleth, int numThief,
+                           int numPits, boolean requireKey, RandomSource random) {
+    if (rows < 6 || columns < 6) {
+      throw new IllegalArgumentException("Rows and columns should be minimum 6.");
+    } else if ((long) rows * columns > Integer.MAX_VALUE / 2) {
+      throw new IllegalArgumentException("Dungeon is too large for a dungeon file.");
+    } else if (degree < 0) {
+      throw new IllegalArgumentException("Degree of interconnectivity should be >= 0.");
+    } else if (percentageItems < 0 || percentageItems > 100) {
+      throw new IllegalArgumentException(
+              "Percentage of caves with treasure should be between 0 and 100.");
+    } else if (numOtyugh <= 0) {
+      throw new IllegalArgumentException("Number of Otyugh should be atleast 1.");
+    } else if (numAboleth < 0) {
+      throw new IllegalArgumentException("Number of Aboleths should be > 0");
+    } else if (numThief < 0) {
+      throw new IllegalArgumentException("Number of Thieves should be > 0");
+    } else if (numPits < 0) {
+      throw new IllegalArgumentException("Number of Pits should be >= 0");
+    } else if (random == null) {
+      throw new IllegalArgumentException("Random source cannot be null.");
+    } else if (DungeonFile.fileSize(rows * columns, numOtyugh, numAboleth, numThief)
+            > DungeonFile.MAX_SIZE) {
+      //The Otyughs are at most numOtyugh, so the file is never larger than this.
+      throw new IllegalArgumentException("Dungeon is too large for a dungeon file.");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.cells = rows * columns;
+    this.isWrapped = isWrapped;
+    this.percentageItems = percentageItems;
+    this.numOtyugh = numOtyugh;
+    this.numAboleth = numAboleth;
+    this.numThief = numThief;
+    this.numPits = Math.min(numPits, cells);
+    this.requireKey = requireKey;
+    this.random = random;
+    int edges = isWrapped ? 2 * cells : 2 * cells - rows - columns;
+    this.edgesLeft = edges - (cells - 1);
+    this.degree = Math.min(degree, edgesLeft);
+    this.degreeLeft = this.degree;
+    this.caves = new int[(int) Math.min(cells, numOtyugh + 1L + END_CANDIDATES)];
+    this.tunnels = new int[Math.min(cells, numThief)];
+  }
+
+  /**
+   * Generates the dungeon and writes it to a file, replacing the file if it exists.
+   * A generator generates only one dungeon.
+   *
+   * @param path the path of the file.
+   * @throws IOException           if the file cannot be written.
+   * @throws IllegalStateException if the dungeon was already generated, or it has no caves
+   *                               far enough from each other or no tunnels for the thieves.
+   */
+  protected void generate(Path path) throws IOException {
+    if (path == null) {
+      throw new IllegalArgumentException("Path cannot be null.");
+    }
+    if (generated) {
+      throw new IllegalStateException("Dungeon is already generated.");
+    }
+    generated = true;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      writeRows(channel);
+      writeMonsters(channel);
+    }
+  }
+
+  private void writeRows(FileChannel channel) throws IOException {
+    int batchRows = Math.max(1, BATCH_BYTES / columns);
+    byte[][] batch = new byte[DungeonFile.SECTIONS][batchRows * columns];
+    int[] sets = new int[columns];
+    int[] nextSets = new int[columns];
+    byte[] masks = new byte[columns];
+    byte[] nextMasks = new byte[columns];
+    boolean[] wrapSouth = new boolean[columns];
+    int[] setSize = new int[columns];
+    int[] setPick = new int[columns];
+    boolean[] goesSouth = new boolean[columns];
+    boolean[] setGoesSouth = new boolean[columns];
+    boolean[] usedSets = new boolean[columns];
+
+    for (int column = 0; column < columns; column++) {
+      sets[column] = column;
+      if (isWrapped) {
+        wrapSouth[column] = selectExtra();
+        masks[column] = (byte) (wrapSouth[column] ? NORTH : 0);
+      }
+    }
+    int batchStart = 0;
+    for (int row = 0; row < rows; row++) {
+      boolean lastRow = row == rows - 1;
+      DisjointSet joined = new DisjointSet(columns);
+      int lastEdge = isWrapped ? columns : columns - 1;
+      for (int column = 0; column < lastEdge; column++) {
+        int next = (column + 1) % columns;
+        if ((lastRow || random.getIntInRange(0, 1) == 1)
+                && joined.union(sets[column], sets[next])
+                || selectExtra()) {
+          masks[column] |= EAST;
+          masks[next] |= WEST;
+        }
+      }
+
+      if (lastRow) {
+        for (int column = 0; column < columns; column++) {
+          if (wrapSouth[column]) {
+            masks[column] |= SOUTH;
+          }
+        }
+      } else {
+        Arrays.fill(setSize, 0);
+        Arrays.fill(setGoesSouth, false);
+        Arrays.fill(usedSets, false);
+        for (int column = 0; column < columns; column++) {
+          int set = joined.find(sets[column]);
+          setSize[set]++;
+          if (setSize[set] == 1 || random.getIntInRange(0, setSize[set] - 1) == 0) {
+            setPick[set] = column;
+          }
+          goesSouth[column] = random.getIntInRange(0, 1) == 1;
+          setGoesSouth[set] |= goesSouth[column];
+        }
+        for (int column = 0; column < columns; column++) {
+          int set = joined.find(sets[column]);
+          if (!setGoesSouth[set] && setPick[set] == column) {
+            goesSouth[column] = true;
+          }
+          if (goesSouth[column]) {
+            usedSets[set] = true;
+          }
+        }
+        int freeSet = 0;
+        for (int column = 0; column < columns; column++) {
+          nextMasks[column] = 0;
+          if (goesSouth[column]) {
+            nextSets[column] = joined.find(sets[column]);
+          } else {
+            while (usedSets[freeSet]) {
+              freeSet++;
+            }
+            nextSets[column] = freeSet++;
+          }
+          if (goesSouth[column] || selectExtra()) {
+            masks[column] |= SOUTH;
+            nextMasks[column] = (byte) NORTH;
+          }
+        }
+      }
+
+      int offset = (row - batchStart) * columns;
+      System.arraycopy(masks, 0, batch[DungeonFile.MASKS], offset, columns);
+      addItems(row, masks, batch, offset);
+      if (lastRow || row - batchStart + 1 == batchRows) {
+        writeBatch(channel, batch, batchStart, row - batchStart + 1);
+        batchStart = row + 1;
+      }
+
+      int[] swappedSets = sets;
+      sets = nextSets;
+      nextSets = swappedSets;
+      byte[] swappedMasks = masks;
+      masks = nextMasks;
+      nextMasks = swappedMasks;
+    }
+  }
+
+  /**
+   * Selects whether the next edge which is not a path of the tree becomes a path, so that
+   * exactly the degree of interconnectivity number of them are selected over the dungeon.
+   */
+  private boolean selectExtra() {
+    boolean selected = degreeLeft > 0
+            && random.getIntInRange(0, edgesLeft - 1) < degreeLeft;
+    edgesLeft--;
+    if (selected) {
+      degreeLeft--;
+    }
+    return selected;
+  }
+
+  private void addItems(int row, byte[] masks, byte[][] batch, int offset) {
+    int[] rowCaves = new int[columns];
+    int numCaves = 0;
+    for (int column = 0; column < columns; column++) {
+      int cell = row * columns + column;
+      if (Integer.bitCount(masks[column]) != 2) {
+        rowCaves[numCaves++] = column;
+        cavesSeen = sample(caves, cavesSeen, cell);
+      } else {
+        tunnelsSeen = sample(tunnels, tunnelsSeen, cell);
+      }
+    }
+    IndexPool pool = new IndexPool(numCaves);
+    int rowTreasureCaves = share(cavesSeen) - treasureCaves;
+    treasureCaves += rowTreasureCaves;
+    for (int i = 0; i < rowTreasureCaves; i++) {
+      int column = rowCaves[pool.take(random.getIntInRange(0, pool.size() - 1))];
+      Map<Treasure, Integer> treasureMap = new TreeMap<>();
+      Cave.addRandomTreasure(treasureMap, random);
+      for (Map.Entry<Treasure, Integer> entry : treasureMap.entrySet()) {
+        batch[DungeonFile.TREASURES_SECTION + entry.getKey().ordinal()][offset + column] =
+                (byte) (int) entry.getValue();
+      }
+    }
+    pool = new IndexPool(columns);
+    int rowArrowLocations = share((row + 1) * columns) - arrowLocations;
+    arrowLocations += rowArrowLocations;
+    for (int i = 0; i < rowArrowLocations; i++) {
+      int column = pool.take(random.getIntInRange(0, pool.size() - 1));
+      batch[DungeonFile.ARROWS][offset + column] = (byte) random.getIntInRange(1, 3);
+    }
+  }
+
+  /**
+   * Gives the number of the given locations which have items, rounded up like the other
+   * generators of the dungeon.
+   */
+  private int share(int locations) {
+    return (int) ((percentageItems * (long) locations + 99) / 100);
+  }
+
+  /**
+   * Offers a cell to a sample of the cells seen so far, which keeps every seen cell with the
+   * same chance.
+   *
+   * @return the number of cells seen, with this one.
+   */
+  private int sample(int[] sampled, int seen, int cell) {
+    if (seen < sampled.length) {
+      sampled[seen] = cell;
+    } else if (sampled.length > 0) {
+      int index = random.getIntInRange(0, seen);
+      if (index < sampled.length) {
+        sampled[index] = cell;
+      }
+    }
+    return seen + 1;
+  }
+
+  private void writeBatch(FileChannel channel, byte[][] batch, int firstRow, int numRows)
+          throws IOException {
+    int length = numRows * columns;
+    for (int section = 0; section < DungeonFile.SECTIONS; section++) {
+      long position = DungeonFile.sectionOffset(section, cells) + (long) firstRow * columns;
+      write(channel, ByteBuffer.wrap(batch[section], 0, length), position);
+      Arrays.fill(batch[section], 0, length, (byte) 0);
+    }
+  }
+
+  private void writeMonsters(FileChannel channel) throws IOException {
+    int numCaves = Math.min(cavesSeen, caves.length);
+    shuffle(caves, numCaves);
+    int start = caves[0];
+    int endIndex = 1;
+    while (endIndex < numCaves && distance(start, caves[endIndex]) < 5) {
+      endIndex++;
+    }
+    if (endIndex == numCaves) {
+      int farCave = searchEnd(channel, start);
+      if (farCave == -1) {
+        throw new IllegalStateException("Cannot find a distance of 5 between two positions.");
+      }
+      endIndex = 1;
+      while (endIndex < numCaves && caves[endIndex] != farCave) {
+        endIndex++;
+      }
+      if (endIndex == numCaves) {
+        //The found cave takes a free place in the sample, or the place of a sampled cave.
+        if (numCaves < caves.length) {
+          numCaves++;
+        } else {
+          endIndex = 1;
+        }
+        caves[endIndex] = farCave;
+      }
+    }
+    int end = caves[endIndex];
+    caves[endIndex] = caves[1];
+    caves[1] = end;
+    int numOtyughs = Math.min(numOtyugh, numCaves - 1);
+
+    int numTunnels = Math.min(tunnelsSeen, tunnels.length);
+    if (numThief > 0 && numTunnels == 0) {
+      throw new IllegalStateException("Cannot find a tunnel.");
+    }
+    shuffle(tunnels, numTunnels);
+
+    Map<Integer, Integer> flags = new TreeMap<>();
+    flags.merge(start, CompactLocationGraph.VISITED, (a, b) -> a | b);
+    ByteBuffer monsters = ByteBuffer.allocate(5 * (numOtyughs + numAboleth) + 4 * numThief);
+    for (int i = 1; i <= numOtyughs; i++) {
+      flags.merge(caves[i], CompactLocationGraph.OTYUGH, (a, b) -> a | b);
+      monsters.putInt(caves[i]).put((byte) 2);
+    }
+    for (int i = 0; i < numAboleth; i++) {
+      int index = random.getIntInRange(0, cells - 2);
+      monsters.putInt(index < start ? index : index + 1).put((byte) 1);
+    }
+    for (int i = 0; i < numThief; i++) {
+      int cell = tunnels[i < numTunnels ? i : random.getIntInRange(0, numTunnels - 1)];
+      monsters.putInt(cell);
+    }
+    monsters.flip();
+    if (requireKey) {
+      flags.merge(random.getIntInRange(0, cells - 1), CompactLocationGraph.KEY, (a, b) -> a | b);
+    }
+    for (int i = 0; i < numPits; i++) {
+      flags.merge(random.getIntInRange(0, cells - 1), CompactLocationGraph.PIT, (a, b) -> a | b);
+    }
+
+    long flagsOffset = DungeonFile.sectionOffset(DungeonFile.FLAGS, cells);
+    for (Map.Entry<Integer, Integer> entry : flags.entrySet()) {
+      write(channel, ByteBuffer.wrap(new byte[] {(byte) (int) entry.getValue()}),
+              flagsOffset + entry.getKey());
+    }
+    write(channel, monsters, DungeonFile.sectionOffset(DungeonFile.SECTIONS, cells));
+    write(channel, DungeonFile.header(rows, columns, isWrapped, requireKey, degree,
+            percentageItems, numOtyughs, numPits, start, end, start, 3, new TreeMap<>(),
+            false, false, GameStatus.GAME_CONTINUE, numOtyughs, numAboleth, numThief), 0);
+  }
+
+  /**
+   * Searches the paths written to the file from the start for the caves at a distance of at
+   * least 5, when none of the sampled caves is far enough by its rows and columns, which
+   * happens in small dungeons. The search stops after finding a few of them, so it only visits
+   * the cells near the start, however large the dungeon is.
+   *
+   * @return one of the found caves, or -1 if there is none.
+   */
+  private int searchEnd(FileChannel channel, int start) throws IOException {
+    MappedByteBuffer masks = channel.map(FileChannel.MapMode.READ_ONLY,
+            DungeonFile.sectionOffset(DungeonFile.MASKS, cells), cells);
+    Grid grid = new Grid(rows, columns);
+    CellSet visited = new CellSet();
+    int[] queue = new int[16];
+    int[] distance = new int[16];
+    int[] found = new int[END_CANDIDATES];
+    int numFound = 0;
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = start;
+    visited.add(start);
+    while (head < tail && numFound < END_CANDIDATES) {
+      int current = queue[head];
+      int currentDistance = distance[head++];
+      int mask = masks.get(current);
+      if (currentDistance >= 5 && Integer.bitCount(mask) != 2) {
+        found[numFound++] = current;
+      }
+      for (Direction direction : Direction.values()) {
+        if (Grid.hasDirection(mask, direction)) {
+          int next = grid.neighbor(current, direction);
+          if (visited.add(next)) {
+            if (tail == queue.length) {
+              queue = Arrays.copyOf(queue, 2 * tail);
+              distance = Arrays.copyOf(distance, 2 * tail);
+            }
+            queue[tail] = next;
+            distance[tail++] = currentDistance + 1;
+          }
+        }
+      }
+    }
+    return numFound == 0 ? -1 : found[random.getIntInRange(0, numFound - 1)];
+  }
+
+  /**
+   * Gives the number of rows and columns between two cells, which no path between them can
+   * be shorter than.
+   */
+  private int distance(int cell, int other) {
+    int rowDistance = Math.abs(cell / columns - other / columns);
+    int columnDistance = Math.abs(cell % columns - other % columns);
+    if (isWrapped) {
+      rowDistance = Math.min(rowDistance, rows - rowDistance);
+      columnDistance = Math.min(columnDistance, columns - columnDistance);
+    }
+    return rowDistance + columnDistance;
+  }
+
+  private void shuffle(int[] array, int length) {
+    for (int i = length - 1; i > 0; i--) {
+      int j = random.getIntInRange(0, i);
+      int temp = array[i];
+      array[i] = array[j];
+      array[j] = temp;
+    }
+  }
+
+  private static void write(FileChannel channel, ByteBuffer buffer, long position)
+          throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer, position + buffer.position());
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package dungeonmodel;
+
+/**
+ * Enum representation of the ways the locations of a dungeon can be stored: STANDARD, COMPACT,
+ * CHUNKED.
+ * STANDARD keeps an object for every location with its own connections.
+ * COMPACT keeps the connections of every location as a direction mask in primitive arrays
+ * and creates the locations only when they are asked for, which is suited for very large
+ * dungeons. Both generate the same dungeon for the same random numbers.
+ * CHUNKED generates the locations in chunks of 64 by 64 only when they are first asked for
+ * and keeps only the recently used chunks in memory, writing the changed chunks it drops to
+ * a temporary file. It takes the same time and memory to create a dungeon of any size, but
+ * generates a different dungeon than the other two for the same random numbers.
+ */
+public enum GraphType {
+  STANDARD,
+  COMPACT,
+  CHUNKED
+}
@@ -0,0 +1,74 @@
+package dungeonmodel;
+
+import structureddata.Position;
+
+/**
+ * The cells of a dungeon grid numbered row by row, starting from 0 at the top left.
+ * Gives the cell next to another cell in each direction, wrapping around the edges.
+ * Connections of a cell are stored as a mask with one bit for each {@link Direction}.
+ * Visibility: Package - private
+ */
+class Grid {
+  private final int rows;
+  private final int columns;
+
+  protected Grid(int rows, int columns) {
+    if (rows <= 0 || columns <= 0) {
+      throw new IllegalArgumentException("Rows and columns should be positive.");
+    }
+    this.rows = rows;
+    this.columns = columns;
+  }
+
+  protected int getRows() {
+    return rows;
+  }
+
+  protected int getColumns() {
+    return columns;
+  }
+
+  protected int size() {
+    return rows * columns;
+  }
+
+  protected int cell(int row, int column) {
+    return row * columns + column;
+  }
+
+  protected int cell(Position position) {
+    if (position == null || position.getRow() >= rows || position.getColumn() >= columns) {
+      throw new IllegalArgumentException("Invalid Position.");
+    }
+    return position.getRow() * columns + position.getColumn();
+  }
+
+  protected Position position(int cell) {
+    return new Position(cell / columns, cell % columns);
+  }
+
+  protected int neighbor(int cell, Direction direction) {
+    int row = cell / columns;
+    int column = cell % columns;
+    switch (direction) {
+      case NORTH:
+        return ((row - 1 + rows) % rows) * columns + column;
+      case SOUTH:
+        return ((row + 1) % rows) * columns + column;
+      case EAST:
+        return row * columns + (column + 1) % columns;
+      case WEST:
+        return row * columns + (column - 1 + columns) % columns;
+      default:
+        throw new IllegalArgumentException("Invalid direction.");
+    }
+  }
+
+  protected static int bit(Direction direction) {
+    return 1 << direction.ordinal();
+  }
+
+  protected static boolean hasDirection(int mask, Direction direction) {
+    return (mask & bit(direction)) != 0;
+  }
+}
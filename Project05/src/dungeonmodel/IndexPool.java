@@ -0,0 +1,97 @@
+package dungeonmodel;
+
+/**
+ * A pool of the indexes 0 to size - 1 from which indexes can be taken by their rank.
+ * The rank of an index is its position among the indexes still in the pool, in increasing
+ * order, so taking an index behaves exactly like removing it from an ordered list.
+ * The indexes are kept as bits of 64 bit words with a Fenwick tree over the number of
+ * indexes in each word, so taking or removing an index costs O(log n) instead of the
+ * O(n) shift of a list removal.
+ * Visibility: Package - private
+ */
+class IndexPool {
+  private final long[] words;
+  private final int[] tree;
+  private final int capacity;
+  private final int highestBit;
+  private int size;
+
+  protected IndexPool(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Size cannot be negative.");
+    }
+    this.capacity = size;
+    this.size = size;
+    int numWords = (size + 63) >>> 6;
+    words = new long[numWords];
+    tree = new int[numWords + 1];
+    for (int i = 0; i < numWords; i++) {
+      int bitsInWord = Math.min(64, size - (i << 6));
+      words[i] = bitsInWord == 64 ? -1L : (1L << bitsInWord) - 1;
+      tree[i + 1] += bitsInWord;
+      int parent = i + 1 + ((i + 1) & -(i + 1));
+      if (parent <= numWords) {
+        tree[parent] += tree[i + 1];
+      }
+    }
+    this.highestBit = numWords == 0 ? 0 : Integer.highestOneBit(numWords);
+  }
+
+  /**
+   * Gives the number of indexes remaining in the pool.
+   *
+   * @return the number of indexes remaining in the pool.
+   */
+  protected int size() {
+    return size;
+  }
+
+  /**
+   * Removes and returns the index at the given rank among the remaining indexes.
+   *
+   * @param rank the rank of the index, between 0 and size() - 1.
+   * @return the index that was removed.
+   */
+  protected int take(int rank) {
+    if (rank < 0 || rank >= size) {
+      throw new IllegalArgumentException("Rank should be between 0 and size - 1.");
+    }
+    int word = 0;
+    int remaining = rank;
+    for (int bit = highestBit; bit > 0; bit >>= 1) {
+      int next = word + bit;
+      if (next < tree.length && tree[next] <= remaining) {
+        word = next;
+        remaining -= tree[next];
+      }
+    }
+    long bits = words[word];
+    for (int i = 0; i < remaining; i++) {
+      bits &= bits - 1;
+    }
+    int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+    clear(index);
+    return index;
+  }
+
+  /**
+   * Removes the given index from the pool.
+   * The index should still be present in the pool.
+   *
+   * @param index the index to be removed.
+   */
+  protected void remove(int index) {
+    if (index < 0 || index >= capacity || (words[index >>> 6] & (1L << index)) == 0) {
+      throw new IllegalArgumentException("Index is not part of the pool.");
+    }
+    clear(index);
+  }
+
+  private void clear(int index) {
+    words[index >>> 6] &= ~(1L << index);
+    for (int i = (index >>> 6) + 1; i < tree.length; i += i & -i) {
+      tree[i]--;
+    }
+    size--;
+  }
+}
@@ -0,0 +1,100 @@
+package dungeonmodel;
+
+import random.RandomSource;
+
+/**
+ * Randomized Kruskal's algorithm to select the paths between the locations of a dungeon.
+ * Every pair of adjacent cells is a possible edge, packed into an int as the cell times 2,
+ * plus 0 for the edge to the east or 1 for the edge to the south.
+ * The edges are visited in a random order and an edge becomes a path when it connects two
+ * parts of the dungeon which were not connected yet. Then the degree of interconnectivity
+ * number of the remaining edges are also made paths.
+ * The edges can be put in random order either by drawing them one by one from the ordered
+ * list of edges, which gives the same dungeon as the earlier versions for the same seed,
+ * or by an in-place Fisher-Yates shuffle, which is faster.
+ * Visibility: Package - private
+ */
+class KruskalGenerator implements MazeGenerator {
+  private final boolean fisherYates;
+
+  protected KruskalGenerator(boolean fisherYates) {
+    this.fisherYates = fisherYates;
+  }
+
+  /**
+   * Selects the paths of the grid and sets them in the direction masks of the cells.
+   *
+   * @param grid      the grid of cells
+   * @param isWrapped whether the dungeon is wrapped around its end
+   * @param degree    the degree of interconnectivity
+   * @param masks     the direction masks of the cells, to which the paths are added
+   * @param random    the source of random numbers used to order the edges
+   * @return the degree of interconnectivity that could be added to the dungeon.
+   */
+  @Override
+  public int generate(Grid grid, boolean isWrapped, int degree, byte[] masks,
+                      RandomSource random) {
+    if (grid == null || masks == null || masks.length != grid.size() || random == null) {
+      throw new IllegalArgumentException("Invalid grid, masks or random source.");
+    }
+    int[] edges = addEdges(grid, isWrapped);
+    DisjointSet sets = new DisjointSet(grid.size());
+    int[] remainingEdges = new int[edges.length - grid.size() + 1];
+    int numRemaining = 0;
+    if (fisherYates) {
+      shuffle(edges, random);
+    }
+    IndexPool pool = fisherYates ? null : new IndexPool(edges.length);
+    for (int i = 0; i < edges.length; i++) {
+      int edge = fisherYates
+              ? edges[i] : edges[pool.take(random.getIntInRange(0, pool.size() - 1))];
+      int first = edge >>> 1;
+      Direction direction = direction(edge);
+      if (sets.union(first, grid.neighbor(first, direction))) {
+        connect(grid, masks, first, direction);
+      } else {
+        remainingEdges[numRemaining++] = edge;
+      }
+    }
+    int addedDegree = Math.min(degree, numRemaining);
+    for (int i = 0; i < addedDegree; i++) {
+      connect(grid, masks, remainingEdges[i] >>> 1, direction(remainingEdges[i]));
+    }
+    return addedDegree;
+  }
+
+  private int[] addEdges(Grid grid, boolean isWrapped) {
+    int rows = grid.getRows();
+    int columns = grid.getColumns();
+    int totalEdges = isWrapped ? 2 * grid.size() : rows * (columns - 1) + (rows - 1) * columns;
+    int[] edges = new int[totalEdges];
+    int index = 0;
+    for (int cell = 0; cell < grid.size(); cell++) {
+      if (isWrapped || cell % columns + 1 < columns) {
+        edges[index++] = cell << 1;
+      }
+      if (isWrapped || cell / columns + 1 < rows) {
+        edges[index++] = cell << 1 | 1;
+      }
+    }
+    return edges;
+  }
+
+  private void shuffle(int[] edges, RandomSource random) {
+    for (int i = edges.length - 1; i > 0; i--) {
+      int j = random.getIntInRange(0, i);
+      int edge = edges[i];
+      edges[i] = edges[j];
+      edges[j] = edge;
+    }
+  }
+
+  protected static Direction direction(int edge) {
+    return (edge & 1) == 0 ? Direction.EAST : Direction.SOUTH;
+  }
+
+  protected static void connect(Grid grid, byte[] masks, int cell, Direction direction) {
+    masks[cell] |= Grid.bit(direction);
+    masks[grid.neighbor(cell, direction)] |= Grid.bit(direction.opposite());
+  }
+}
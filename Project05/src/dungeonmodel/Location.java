@@ -1,13 +1,17 @@
 package dungeonmodel;
 
+import random.RandomSource;
 import structureddata.Position;
 
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Represents a location in the dungeon.
  * Each location can be connected to 4 other locations.
  * One in each direction.
+ * The connected locations can be read without copying them through neighbor, the direction
+ * mask and forEachNeighbor, while getConnections gives a copy of them as a map.
  * Visibility: Package - private
  */
 interface Location {
@@ -15,6 +19,12 @@ interface Location {
 
   Map<Direction, Location> getConnections();
 
+  Location neighbor(Direction direction);
+
+  int getDirectionMask();
+
+  void forEachNeighbor(Consumer<Location> action);
+
   Map<Treasure, Integer> getTreasureMap();
 
   int countArrows();
@@ -35,17 +45,18 @@ interface Location {
 
   void updatePath(Location other);
 
-  void setTreasure();
+  void setTreasure(RandomSource random);
 
-  void setArrow();
+  void setArrow(RandomSource random);
 
-  void addOtyugh();
+  void addOtyugh(SmellField smell);
 
   void removeTreasure(Treasure treasure, int amount);
 
   void removeArrow(int amount);
 
-  SmellLevel getSmellLevel();
+  void restoreItems(int numArrows, Map<Treasure, Integer> treasureMap);
+
 
   HitStatus shootArrow(Direction direction, int distance);
 
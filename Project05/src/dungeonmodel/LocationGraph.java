@@ -3,6 +3,7 @@ package dungeonmodel;
 import structureddata.Position;
 
 import java.util.List;
+import java.util.function.ToLongFunction;
 
 /**
  * Representation of a Graph of locations in the dungeon.
@@ -38,15 +39,29 @@ interface LocationGraph {
 
   int getDistance(Position first, Position second);
 
+  ChangeLog getChangeLog();
+
+  SmellLevel getSmellLevel(Position position);
+
   void moveAboleth();
 
   Monster getAboleth(Location location);
 
   Thief getThief(Location newLocation);
 
+  List<Monster> getAboleths();
+
+  List<Thief> getThieves();
+
   boolean stealTreasure(Player player);
 
   boolean requireKey();
 
   int countPits();
+
+  void markPristine();
+
+  void reset(ReadOnlyDungeonModel pristine);
+
+  CellArray captureCells(ToLongFunction<Position> encoder);
 }
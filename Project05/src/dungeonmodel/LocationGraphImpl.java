@@ -1,15 +1,13 @@
 package dungeonmodel;
 
-import random.RandomImpl;
-import structureddata.DistanceData;
-import structureddata.Edge;
+import random.RandomSource;
 import structureddata.Position;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Queue;
+import java.util.TreeMap;
 
 /**
  * The representation of LocationGraph specific to the requirements of the dungeon.
@@ -22,38 +20,32 @@ import java.util.Queue;
  * Location Graphs can contain a number of Aboleths and Thieves in it.
  * Visibility: Package - private
  */
-class LocationGraphImpl implements LocationGraph {
+class LocationGraphImpl extends AbstractLocationGraph {
+  private static final Direction[] DIRECTIONS = Direction.values();
 
   private final Location[][] location;
-  private final int rows;
-  private final int columns;
-  private final boolean isWrapped;
-  private int degreeOfInterconnectivity;
-  private final int percentageItems;
-  private int numOtyughs;
-  private final boolean requireKey;
-  private int numPits;
-
-  private final Monster[] aboleth;
-  private final Thief[] thief;
+  private final byte[] masks;
+  private final LocationIndex locationIndex;
+  private final DistanceOracle distances;
+  private final SmellField smell;
+  private final List<Monster> otyughs;
 
   protected LocationGraphImpl(int rows, int columns, boolean isWrapped,
                               int degree, int percentageItems, int numAboleth,
-                              int numThief, int numPits, boolean requireKey) {
-    checkArguments(rows, columns, degree, percentageItems, numAboleth, numThief, numPits);
-    this.rows = rows;
-    this.columns = columns;
-    this.isWrapped = isWrapped;
-    this.degreeOfInterconnectivity = degree;
-    this.percentageItems = percentageItems;
-    this.requireKey = requireKey;
-    this.numPits = numPits;
-    aboleth = new Aboleth[numAboleth];
-    thief = new Thief[numThief];
-    location = addLocations();
-    List<Edge> allEdges = addEdges();
-    allEdges = shuffle(allEdges);
-    selectEdges(allEdges);
+                              int numThief, int numPits, boolean requireKey,
+                              MazeAlgorithm algorithm, RandomSource random) {
+    super(rows, columns, isWrapped, degree, percentageItems, numAboleth,
+            numThief, numPits, requireKey, random);
+    if (algorithm == null) {
+      throw new IllegalArgumentException("Algorithm cannot be null.");
+    }
+    masks = new byte[grid.size()];
+    degreeOfInterconnectivity = generatePaths(algorithm, degree, masks);
+    location = addLocations(grid, masks);
+    locationIndex = new LocationIndex(masks);
+    distances = new DistanceOracle(grid, masks);
+    smell = new ArraySmellField(grid, masks, changes);
+    otyughs = new ArrayList<>();
     addTreasureToCaves();
     addArrowsToLocations();
     addThiefToRandomTunnel();
@@ -63,170 +55,28 @@ class LocationGraphImpl implements LocationGraph {
     addPitsToRandomLocation();
   }
 
-  private void checkArguments(int rows, int columns,
-                              int degreeOfInterconnectivity, int percentageCavesWithTreasure,
-                              int numAboleth, int numThief, int numPits) {
-    if (rows < 6 || columns < 6) {
-      throw new IllegalArgumentException("Rows and columns should be minimum 6.");
-    } else if (degreeOfInterconnectivity < 0) {
-      throw new IllegalArgumentException("Degree of interconnectivity should be >= 0.");
-    } else if (percentageCavesWithTreasure < 0 || percentageCavesWithTreasure > 100) {
-      throw new IllegalArgumentException(
-              "Percentage of caves with treasure should be between 0 and 100.");
-    } else if (numAboleth < 0) {
-      throw new IllegalArgumentException("Number of Aboleths should be > 0");
-    } else if (numThief < 0) {
-      throw new IllegalArgumentException("Number of Thieves should be > 0");
-    } else if (numPits < 0) {
-      throw new IllegalArgumentException("Number of Pits should be >= 0");
-    }
-  }
-
-  private Location[][] addLocations() {
+  private Location[][] addLocations(Grid grid, byte[] masks) {
     Location[][] location = new Location[rows][columns];
     for (int i = 0; i < rows; i++) {
       for (int j = 0; j < columns; j++) {
-        location[i][j] = new Cave(i, j);
-      }
-    }
-    return location;
-  }
-
-  private List<Edge> addEdges() {
-    List<Edge> edges = new ArrayList<>();
-    for (int i = 0; i < rows; i++) {
-      for (int j = 0; j < columns; j++) {
-        addEdge(edges, i, j, i, j + 1);
-        addEdge(edges, i, j, i + 1, j);
-      }
-    }
-    return edges;
-  }
-
-  private void addEdge(List<Edge> edges, int row1, int column1, int row2, int column2) {
-    if (edges == null) {
-      throw new IllegalArgumentException("Edges cannot be null");
-    }
-    if (isWrapped) {
-      edges.add(new Edge(row1, column1, (row2 + rows) % rows, (column2 + columns) % columns));
-    } else if (row2 >= 0 && row2 < rows && column2 >= 0 && column2 < columns) {
-      edges.add(new Edge(row1, column1, row2, column2));
-    }
-  }
-
-  private List<Edge> shuffle(List<Edge> allEdges) {
-    if (allEdges == null) {
-      throw new IllegalArgumentException("Edges cannot be null");
-    }
-    int totalEdges = allEdges.size();
-    List<Edge> shuffledEdges = new ArrayList<>();
-    while (!allEdges.isEmpty()) {
-      int index = RandomImpl.getIntInRange(0, totalEdges - 1);
-      totalEdges--;
-      shuffledEdges.add(allEdges.remove(index));
-    }
-    return shuffledEdges;
-  }
-
-  private void selectEdges(List<Edge> allEdges) {
-    if (allEdges == null) {
-      throw new IllegalArgumentException("Edges cannot be null");
-    }
-    List<List<Position>> parent = new ArrayList<>();
-    for (int i = 0; i < rows; i++) {
-      parent.add(new ArrayList<>());
-      for (int j = 0; j < columns; j++) {
-        parent.get(i).add(new Position(i, j));
+        if (Integer.bitCount(masks[grid.cell(i, j)]) == 2) {
+          location[i][j] = new Tunnel(i, j, new TreeMap<>());
+        } else {
+          location[i][j] = new Cave(i, j);
+        }
       }
     }
-    List<Edge> remainingEdges = new ArrayList<>();
-    for (Edge edge : allEdges) {
-      Position x = find(parent, edge.getFirst());
-      Position y = find(parent, edge.getSecond());
-      if (x.equals(y)) {
-        remainingEdges.add(edge);
-      } else {
-        connectLocations(edge.getFirst(), edge.getSecond());
-        union(parent, x, y);
+    for (int cell = 0; cell < grid.size(); cell++) {
+      Position position = grid.position(cell);
+      for (Direction direction : Direction.values()) {
+        if (Grid.hasDirection(masks[cell], direction)) {
+          Position other = grid.position(grid.neighbor(cell, direction));
+          location[position.getRow()][position.getColumn()].updatePath(
+                  location[other.getRow()][other.getColumn()]);
+        }
       }
     }
-    degreeOfInterconnectivity = Math.min(degreeOfInterconnectivity, remainingEdges.size());
-    for (int i = 0; i < degreeOfInterconnectivity; i++) {
-      Edge edge = remainingEdges.get(i);
-      connectLocations(edge.getFirst(), edge.getSecond());
-    }
-  }
-
-  private void union(List<List<Position>> parent, Position x, Position y) {
-    if (parent == null) {
-      throw new IllegalArgumentException("Parent cannot be null");
-    }
-    Position parent_a = find(parent, x);
-    Position parent_b = find(parent, y);
-    if (!parent_a.equals(parent_b)) {
-      parent.get(parent_a.getRow()).set(parent_a.getColumn(), parent_b);
-    }
-  }
-
-  private Position find(List<List<Position>> parent, Position a) {
-    if (parent == null) {
-      throw new IllegalArgumentException("Parent cannot be null");
-    }
-    if (!parent.get(a.getRow()).get(a.getColumn()).equals(a)) {
-      parent.get(a.getRow()).set(a.getColumn(),
-              find(parent, parent.get(a.getRow()).get(a.getColumn())));
-    }
-    return parent.get(a.getRow()).get(a.getColumn());
-  }
-
-  private void connectLocations(Position a, Position b) {
-    if (a == null || b == null) {
-      throw new IllegalArgumentException("Positions canno be null");
-    }
-    location[a.getRow()][a.getColumn()] =
-            location[a.getRow()][a.getColumn()].addPath(location[b.getRow()][b.getColumn()]);
-    location[b.getRow()][b.getColumn()] =
-            location[b.getRow()][b.getColumn()].addPath(location[a.getRow()][a.getColumn()]);
-  }
-
-  @Override
-  public int getRows() {
-    return rows;
-  }
-
-  @Override
-  public int getColumns() {
-    return columns;
-  }
-
-  @Override
-  public boolean isWrapped() {
-    return isWrapped;
-  }
-
-  @Override
-  public int countOtyughs() {
-    return numOtyughs;
-  }
-
-  @Override
-  public int getDegree() {
-    return degreeOfInterconnectivity;
-  }
-
-  @Override
-  public int getPercentageItems() {
-    return percentageItems;
-  }
-
-  @Override
-  public int countAboleth() {
-    return aboleth.length;
-  }
-
-  @Override
-  public int countThief() {
-    return thief.length;
+    return location;
   }
 
   @Override
@@ -248,91 +98,68 @@ class LocationGraphImpl implements LocationGraph {
 
   @Override
   public List<Location> getStartEndPositions() {
-    List<Location> caves = getListOfCaves();
-    Position startPosition = caves.get(RandomImpl.getIntInRange(0, caves.size() - 1)).getPosition();
-    List<Location> possibleEndPositions = possibleEndPositions(startPosition);
-    if (possibleEndPositions.isEmpty()) {
+    int start = locationIndex.randomCave(random);
+    int[] possibleEnds = new int[locationIndex.countCaves()];
+    int numPossibleEnds = possibleEndPositions(start, possibleEnds);
+    if (numPossibleEnds == 0) {
       throw new IllegalStateException("Cannot find a distance of 5 between two positions.");
     }
-    Location endPosition = possibleEndPositions.get(
-            RandomImpl.getIntInRange(0, possibleEndPositions.size() - 1));
+    int end = possibleEnds[random.getIntInRange(0, numPossibleEnds - 1)];
     List<Location> startEndPositions = new ArrayList<>();
-    startEndPositions.add(location[startPosition.getRow()][startPosition.getColumn()]);
-    startEndPositions.add(
-            location[endPosition.getPosition().getRow()][endPosition.getPosition().getColumn()]);
+    startEndPositions.add(location(start));
+    startEndPositions.add(location(end));
     return startEndPositions;
   }
 
-  private List<Location> possibleEndPositions(Position startPosition) {
-    if (startPosition == null) {
-      throw new IllegalArgumentException("Invalid Position");
-    }
-    List<Location> locationsWithDistanceGreaterThanEqualTo5 = new ArrayList<>();
-    boolean[][] visited = new boolean[rows][columns];
-    Queue<DistanceData<Position>> q = new LinkedList<>();
-    q.add(new DistanceData<>(startPosition, startPosition, 0));
-    visited[startPosition.getRow()][startPosition.getColumn()] = true;
-    while (!q.isEmpty()) {
-      DistanceData<Position> distanceData = q.poll();
-      Position endPosition = distanceData.getEnd();
-      if (distanceData.getDistance() >= 5
-              && location[endPosition.getRow()][endPosition.getColumn()].isCave()) {
-        locationsWithDistanceGreaterThanEqualTo5.add(
-                location[endPosition.getRow()][endPosition.getColumn()]);
+  private int possibleEndPositions(int start, int[] possibleEnds) {
+    int[] distance = new int[grid.size()];
+    Arrays.fill(distance, -1);
+    int[] queue = new int[grid.size()];
+    int head = 0;
+    int tail = 0;
+    int numPossibleEnds = 0;
+    queue[tail++] = start;
+    distance[start] = 0;
+    while (head < tail) {
+      int current = queue[head++];
+      if (distance[current] >= 5 && Integer.bitCount(masks[current]) != 2) {
+        possibleEnds[numPossibleEnds++] = current;
       }
-      visitConnections(startPosition, visited, q, distanceData, endPosition);
-    }
-    return locationsWithDistanceGreaterThanEqualTo5;
-  }
-
-
-  private void visitConnections(Position startPosition, boolean[][] visited,
-                                Queue<DistanceData<Position>> q,
-                                DistanceData<Position> distanceData, Position endPosition) {
-    if (startPosition == null || q == null || distanceData == null || endPosition == null) {
-      throw new IllegalArgumentException("Any of the prameters cannot be null");
-    }
-    for (Location location :
-            location[endPosition.getRow()][endPosition.getColumn()].getConnections().values()) {
-      if (!visited[location.getPosition().getRow()][location.getPosition().getColumn()]) {
-        visited[location.getPosition().getRow()][location.getPosition().getColumn()] = true;
-        q.add(new DistanceData<>(startPosition,
-                location.getPosition(), distanceData.getDistance() + 1));
+      for (Direction direction : DIRECTIONS) {
+        if (Grid.hasDirection(masks[current], direction)) {
+          int next = grid.neighbor(current, direction);
+          if (distance[next] == -1) {
+            distance[next] = distance[current] + 1;
+            queue[tail++] = next;
+          }
+        }
       }
     }
+    return numPossibleEnds;
   }
 
   private void addTreasureToCaves() {
-    List<Location> caves = getListOfCaves();
-    int totalCaves = caves.size();
+    IndexPool pool = new IndexPool(locationIndex.countCaves());
     int totalTreasureCaves =
-            (int) Math.ceil((percentageItems * totalCaves) / 100.0);
+            (int) Math.ceil((percentageItems * (long) locationIndex.countCaves()) / 100.0);
     for (int i = 0; i < totalTreasureCaves; i++) {
-      int index = RandomImpl.getIntInRange(0, totalCaves - 1);
-      totalCaves--;
-      caves.get(index).setTreasure();
-      caves.remove(index);
+      int index = pool.take(random.getIntInRange(0, pool.size() - 1));
+      location(locationIndex.getCave(index)).setTreasure(random);
     }
   }
 
   private void addArrowsToLocations() {
-    List<Location> locations = getListOfLocations();
-    int totalLocations = locations.size();
+    IndexPool pool = new IndexPool(grid.size());
     int totalArrowLocations =
-            (int) Math.ceil((percentageItems * totalLocations) / 100.0);
+            (int) Math.ceil((percentageItems * (long) grid.size()) / 100.0);
     for (int i = 0; i < totalArrowLocations; i++) {
-      int index = RandomImpl.getIntInRange(0, totalLocations - 1);
-      totalLocations--;
-      locations.get(index).setArrow();
-      locations.remove(index);
+      location(pool.take(random.getIntInRange(0, pool.size() - 1))).setArrow(random);
     }
   }
 
 
   private void addKeyToRandomLocation() {
-    List<Location> locations = getListOfLocations();
-    int index = RandomImpl.getIntInRange(0, locations.size() - 1);
-    locations.get(index).setKey(true);
+    location(random.getIntInRange(0, grid.size() - 1)).setKey(true);
   }
 
   @Override
@@ -340,74 +167,62 @@ class LocationGraphImpl implements LocationGraph {
     if (startLocation == null || endLocation == null) {
       throw new IllegalArgumentException("Start or end location cannot be null");
     }
-    List<Location> caves = getListOfCaves();
-    caves.remove(endLocation);
-    caves.remove(startLocation);
+    IndexPool pool = new IndexPool(locationIndex.countCaves());
+    int endIndex = locationIndex.caveIndex(grid.cell(endLocation.getPosition()));
+    if (endIndex >= 0) {
+      pool.remove(endIndex);
+    }
+    int startIndex = locationIndex.caveIndex(grid.cell(startLocation.getPosition()));
+    if (startIndex >= 0 && startIndex != endIndex) {
+      pool.remove(startIndex);
+    }
 
-    int totalCaves = caves.size();
-    numOtyughs = Math.min(totalCaves, numOtyugh);
+    numOtyughs = Math.min(pool.size(), numOtyugh);
 
-    endLocation.addOtyugh();
+    endLocation.addOtyugh(smell);
+    otyughs.add(endLocation.getOtyugh());
     for (int i = 0; i < numOtyughs - 1; i++) {
-      int index = RandomImpl.getIntInRange(0, totalCaves - 1);
-      totalCaves--;
-      caves.get(index).addOtyugh();
-      caves.remove(index);
+      int index = pool.take(random.getIntInRange(0, pool.size() - 1));
+      Location cave = location(locationIndex.getCave(index));
+      cave.addOtyugh(smell);
+      otyughs.add(cave.getOtyugh());
     }
   }
 
+  @Override
+  protected Collection<Monster> getOtyughs() {
+    return otyughs;
+  }
+
   @Override
   public void addAbolethToRandomLocation(Location startLocation) {
     if (startLocation == null) {
       throw new IllegalArgumentException("Start or end location cannot be null");
     }
-    List<Location> locations = getListOfLocations();
-    locations.remove(startLocation);
+    int start = grid.cell(startLocation.getPosition());
     for (int i = 0; i < aboleth.length; i++) {
-      int index = RandomImpl.getIntInRange(0, locations.size() - 1);
-      aboleth[i] = new Aboleth(locations.get(index));
+      int index = random.getIntInRange(0, grid.size() - 2);
+      aboleth[i] = new Aboleth(location(index < start ? index : index + 1), abolethIndex, i);
     }
   }
 
 
   private void addThiefToRandomTunnel() {
-    List<Location> locations = getListOfLocations();
-    locations.removeAll(getListOfCaves());
     for (int i = 0; i < thief.length; i++) {
-      int index = RandomImpl.getIntInRange(0, locations.size() - 1);
-      thief[i] = new TunnelThief(locations.get(index));
+      thief[i] = new TunnelThief(location(locationIndex.randomTunnel(random)), thiefIndex, i);
     }
   }
 
 
   private void addPitsToRandomLocation() {
-    List<Location> locations = getListOfLocations();
-    numPits = Math.min(numPits, locations.size());
+    numPits = Math.min(numPits, grid.size());
     for (int i = 0; i < numPits; i++) {
-      int index = RandomImpl.getIntInRange(0, locations.size() - 1);
-      locations.get(index).setPit(true);
-    }
-  }
-
-
-  private List<Location> getListOfCaves() {
-    List<Location> caves = new ArrayList<>();
-    for (int i = 0; i < rows; i++) {
-      for (int j = 0; j < columns; j++) {
-        if (location[i][j].isCave()) {
-          caves.add(location[i][j]);
-        }
-      }
+      location(random.getIntInRange(0, grid.size() - 1)).setPit(true);
     }
-    return caves;
   }
 
-  private List<Location> getListOfLocations() {
-    List<Location> locations = new ArrayList<>();
-    for (int i = 0; i < rows; i++) {
-      locations.addAll(Arrays.asList(location[i]).subList(0, columns));
-    }
-    return locations;
+  private Location location(int cell) {
+    return location[cell / columns][cell % columns];
   }
 
   @Override
@@ -415,54 +230,15 @@ class LocationGraphImpl implements LocationGraph {
     if (first == null || second == null) {
       throw new IllegalArgumentException("Positions cannot be null");
     }
-    boolean[][] visited = new boolean[rows][columns];
-    Queue<DistanceData<Position>> q = new LinkedList<>();
-    q.add(new DistanceData<>(first, first, 0));
-    visited[first.getRow()][first.getColumn()] = true;
-    while (!q.isEmpty()) {
-      DistanceData<Position> distanceData = q.poll();
-      Position endPosition = distanceData.getEnd();
-      if (second.equals(endPosition)) {
-        return distanceData.getDistance();
-      }
-      visitConnections(first, visited, q, distanceData, endPosition);
-    }
-    return -1;
-  }
-
-  @Override
-  public void moveAboleth() {
-    for (int i = 0; i < aboleth.length; i++) {
-      if (aboleth[i].isAlive()) {
-        aboleth[i].move();
-      }
-    }
-  }
-
-  @Override
-  public Monster getAboleth(Location location) {
-    if (location == null) {
-      throw new IllegalArgumentException("Location cannot be null");
-    }
-    for (int i = 0; i < aboleth.length; i++) {
-      if (aboleth[i].getPosition().equals(location.getPosition()) && aboleth[i].isAlive()) {
-        return aboleth[i];
-      }
-    }
-    return null;
+    return distances.getDistance(grid.cell(first), grid.cell(second));
   }
 
   @Override
-  public Thief getThief(Location location) {
-    if (location == null) {
-      throw new IllegalArgumentException("Location cannot be null");
-    }
-    for (int i = 0; i < thief.length; i++) {
-      if (thief[i].getPosition().equals(location.getPosition())) {
-        return thief[i];
-      }
+  public SmellLevel getSmellLevel(Position position) {
+    if (position == null) {
+      throw new IllegalArgumentException("Position cannot be null");
     }
-    return null;
+    return smell.getSmellLevel(position);
   }
 
   @Override
@@ -472,24 +248,13 @@ class LocationGraphImpl implements LocationGraph {
     }
     if (player.getLocation().hasThief()) {
       Thief thief = getThief(player.getLocation());
-      thief.steal(player);
-      List<Location> newLocations = getListOfLocations();
-      newLocations.removeAll(getListOfCaves());
-      newLocations.remove(player.getLocation());
-      int index = RandomImpl.getIntInRange(0, newLocations.size() - 1);
-      thief.relocate(newLocations.get(index));
+      thief.steal(player, random);
+      changes.record(thief.getPosition());
+      int excluded = grid.cell(player.getLocation().getPosition());
+      thief.relocate(location(locationIndex.randomTunnelExcept(excluded, random)));
+      changes.record(thief.getPosition());
       return true;
     }
     return false;
   }
-
-  @Override
-  public boolean requireKey() {
-    return requireKey;
-  }
-
-  @Override
-  public int countPits() {
-    return numPits;
-  }
 }
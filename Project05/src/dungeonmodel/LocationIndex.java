@@ -0,0 +1,129 @@
+package dungeonmodel;
+
+import random.RandomSource;
+
+/**
+ * The caves and the tunnels of a dungeon, each listed in the increasing order of their cells.
+ * The caves are also kept as one bit for every cell, with the number of caves before every
+ * 64 cells, so the position of a cave or tunnel in its list is found in constant time.
+ * Thus a random cave or tunnel, leaving out a given location, is picked in constant time while
+ * drawing the same random numbers as picking it from a list of the locations.
+ * Visibility: Package - private
+ */
+class LocationIndex {
+  private final int[] caves;
+  private final int[] tunnels;
+  private final long[] caveBits;
+  private final int[] cavesBefore;
+
+  protected LocationIndex(byte[] masks) {
+    if (masks == null) {
+      throw new IllegalArgumentException("Masks cannot be null.");
+    }
+    int cells = masks.length;
+    caveBits = new long[(cells + 63) >>> 6];
+    cavesBefore = new int[caveBits.length];
+    int numCaves = 0;
+    for (int cell = 0; cell < cells; cell++) {
+      if ((cell & 63) == 0) {
+        cavesBefore[cell >>> 6] = numCaves;
+      }
+      if (Integer.bitCount(masks[cell]) != 2) {
+        caveBits[cell >>> 6] |= 1L << cell;
+        numCaves++;
+      }
+    }
+    caves = new int[numCaves];
+    tunnels = new int[cells - numCaves];
+    int caveIndex = 0;
+    int tunnelIndex = 0;
+    for (int cell = 0; cell < cells; cell++) {
+      if (isCave(cell)) {
+        caves[caveIndex++] = cell;
+      } else {
+        tunnels[tunnelIndex++] = cell;
+      }
+    }
+  }
+
+  protected int countCaves() {
+    return caves.length;
+  }
+
+  protected int countTunnels() {
+    return tunnels.length;
+  }
+
+  protected int getCave(int index) {
+    return caves[index];
+  }
+
+  protected int getTunnel(int index) {
+    return tunnels[index];
+  }
+
+  protected boolean isCave(int cell) {
+    return (caveBits[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  /**
+   * Gives the position of a cave in the list of caves.
+   *
+   * @param cell the cell of the cave.
+   * @return the position of the cave, or -1 if the cell is a tunnel.
+   */
+  protected int caveIndex(int cell) {
+    return isCave(cell) ? countCavesBefore(cell) : -1;
+  }
+
+  /**
+   * Gives the position of a tunnel in the list of tunnels.
+   *
+   * @param cell the cell of the tunnel.
+   * @return the position of the tunnel, or -1 if the cell is a cave.
+   */
+  protected int tunnelIndex(int cell) {
+    return isCave(cell) ? -1 : cell - countCavesBefore(cell);
+  }
+
+  /**
+   * Picks a random cave.
+   *
+   * @param random the random source.
+   * @return the cell of the cave.
+   */
+  protected int randomCave(RandomSource random) {
+    return caves[random.getIntInRange(0, caves.length - 1)];
+  }
+
+  /**
+   * Picks a random tunnel.
+   *
+   * @param random the random source.
+   * @return the cell of the tunnel.
+   */
+  protected int randomTunnel(RandomSource random) {
+    return tunnels[random.getIntInRange(0, tunnels.length - 1)];
+  }
+
+  /**
+   * Picks a random tunnel other than the given cell.
+   *
+   * @param excluded the cell which cannot be picked.
+   * @param random   the random source.
+   * @return the cell of the tunnel.
+   */
+  protected int randomTunnelExcept(int excluded, RandomSource random) {
+    int excludedIndex = tunnelIndex(excluded);
+    if (excludedIndex == -1) {
+      return randomTunnel(random);
+    }
+    int index = random.getIntInRange(0, tunnels.length - 2);
+    return tunnels[index < excludedIndex ? index : index + 1];
+  }
+
+  private int countCavesBefore(int cell) {
+    int word = cell >>> 6;
+    return cavesBefore[word] + Long.bitCount(caveBits[word] & ((1L << cell) - 1));
+  }
+}
@@ -0,0 +1,29 @@
+package dungeonmodel;
+
+/**
+ * Enum representation of the algorithms that select the paths of a dungeon:
+ * KRUSKAL, FAST_KRUSKAL, TILED_KRUSKAL, RECURSIVE_BACKTRACKER, PRIM, WILSON, ALDOUS_BRODER.
+ * KRUSKAL draws the edges one at a time from the ordered list of all edges and gives
+ * the same dungeon as the earlier versions of the game for the same seed.
+ * FAST_KRUSKAL shuffles the edges in place, which is faster for large dungeons
+ * but gives a different dungeon for the same seed.
+ * TILED_KRUSKAL builds tiles of the dungeon in parallel and then joins them, which is the
+ * fastest on many cores. It gives the same dungeon for the same seed whatever the number of
+ * cores, but a different dungeon than the other algorithms.
+ * RECURSIVE_BACKTRACKER walks deep into the dungeon before it branches, which gives long
+ * winding tunnels and few dead ends.
+ * PRIM grows the dungeon from a random location on all sides at once, which gives many short
+ * dead ends.
+ * WILSON and ALDOUS_BRODER give every possible dungeon the same chance, by loop-erased random
+ * walks and by a single random walk over the whole dungeon. Both are much slower than the
+ * others on large dungeons, ALDOUS_BRODER the most.
+ */
+public enum MazeAlgorithm {
+  KRUSKAL,
+  FAST_KRUSKAL,
+  TILED_KRUSKAL,
+  RECURSIVE_BACKTRACKER,
+  PRIM,
+  WILSON,
+  ALDOUS_BRODER
+}
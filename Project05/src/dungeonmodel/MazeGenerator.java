@@ -0,0 +1,26 @@
+package dungeonmodel;
+
+import random.RandomSource;
+
+/**
+ * An algorithm which selects the paths between the locations of a dungeon.
+ * The paths make a spanning tree of the grid, so that every location can be reached from every
+ * other one by exactly one path. Then the degree of interconnectivity number of the other edges
+ * are also made paths. The same seed always gives the same paths.
+ * Visibility: Package - private
+ */
+interface MazeGenerator {
+  /**
+   * Selects the paths of the grid and sets them in the direction masks of the cells.
+   *
+   * @param grid      the grid of cells
+   * @param isWrapped whether the dungeon is wrapped around its end
+   * @param degree    the degree of interconnectivity
+   * @param masks     the direction masks of the cells, to which the paths are added
+   * @param random    the source of random numbers of the paths
+   * @return the degree of interconnectivity that could be added to the dungeon.
+   * @throws IllegalArgumentException if grid, masks or random is null
+   *                                  or the masks are not one for every cell.
+   */
+  int generate(Grid grid, boolean isWrapped, int degree, byte[] masks, RandomSource random);
+}
@@ -1,5 +1,6 @@
 package dungeonmodel;
 
+import random.RandomSource;
 import structureddata.Position;
 
 /**
@@ -14,7 +15,11 @@ interface Monster {
 
   boolean isAlive();
 
-  GameStatus killPlayer();
+  int getHealth();
 
-  void move();
+  void restoreHealth(int health);
+
+  GameStatus killPlayer(RandomSource random);
+
+  void move(RandomSource random);
 }
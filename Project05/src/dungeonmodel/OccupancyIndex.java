@@ -0,0 +1,154 @@
+package dungeonmodel;
+
+import structureddata.Position;
+
+import java.util.Arrays;
+
+/**
+ * An index of the cells of a dungeon occupied by a fixed number of monsters or thieves,
+ * each known by an id from 0 to size - 1.
+ * The occupied cells are kept in an open addressing hash table with linear probing, which
+ * maps a cell to the smallest id in it. The other ids in the same cell are linked from it in
+ * increasing order. Thus finding who is in a cell takes constant time however many there are
+ * in the dungeon, and the table only takes space for the occupied cells.
+ * Visibility: Package - private
+ */
+class OccupancyIndex {
+  private static final int EMPTY = -1;
+
+  private final Grid grid;
+  private final int[] keys;
+  private final int[] heads;
+  private final int[] next;
+  private final int mask;
+  private final int shift;
+
+  protected OccupancyIndex(Grid grid, int size) {
+    if (grid == null || size < 0) {
+      throw new IllegalArgumentException("Invalid grid or size.");
+    }
+    this.grid = grid;
+    int capacity = Integer.highestOneBit(Math.max(1, size) * 2 - 1) << 1;
+    this.keys = new int[capacity];
+    this.heads = new int[capacity];
+    this.next = new int[size];
+    this.mask = capacity - 1;
+    this.shift = Integer.numberOfLeadingZeros(capacity) + 1;
+    Arrays.fill(keys, EMPTY);
+    Arrays.fill(next, EMPTY);
+  }
+
+  /**
+   * Adds an id to the cell at the given position.
+   *
+   * @param id       the id.
+   * @param position the position of the cell.
+   */
+  protected void add(int id, Position position) {
+    checkId(id);
+    int cell = grid.cell(position);
+    int slot = slot(cell);
+    if (keys[slot] == EMPTY) {
+      keys[slot] = cell;
+      heads[slot] = id;
+      next[id] = EMPTY;
+    } else if (id < heads[slot]) {
+      next[id] = heads[slot];
+      heads[slot] = id;
+    } else {
+      int previous = heads[slot];
+      while (next[previous] != EMPTY && next[previous] < id) {
+        previous = next[previous];
+      }
+      next[id] = next[previous];
+      next[previous] = id;
+    }
+  }
+
+  /**
+   * Removes an id from the cell at the given position. Nothing is removed if the id is not
+   * in that cell.
+   *
+   * @param id       the id.
+   * @param position the position of the cell.
+   */
+  protected void remove(int id, Position position) {
+    checkId(id);
+    int slot = slot(grid.cell(position));
+    if (keys[slot] == EMPTY) {
+      return;
+    }
+    if (heads[slot] == id) {
+      heads[slot] = next[id];
+      next[id] = EMPTY;
+      if (heads[slot] == EMPTY) {
+        delete(slot);
+      }
+      return;
+    }
+    int previous = heads[slot];
+    while (next[previous] != EMPTY && next[previous] != id) {
+      previous = next[previous];
+    }
+    if (next[previous] == id) {
+      next[previous] = next[id];
+      next[id] = EMPTY;
+    }
+  }
+
+  /**
+   * Gives the smallest id in the cell at the given position.
+   *
+   * @param position the position of the cell.
+   * @return the smallest id in the cell, or -1 if the cell is not occupied.
+   */
+  protected int first(Position position) {
+    int slot = slot(grid.cell(position));
+    return keys[slot] == EMPTY ? EMPTY : heads[slot];
+  }
+
+  /**
+   * Gives the next larger id in the same cell as the given id.
+   *
+   * @param id the id.
+   * @return the next id in the cell, or -1 if there is none.
+   */
+  protected int next(int id) {
+    checkId(id);
+    return next[id];
+  }
+
+  private void checkId(int id) {
+    if (id < 0 || id >= next.length) {
+      throw new IllegalArgumentException("Invalid id.");
+    }
+  }
+
+  private int slot(int cell) {
+    int slot = hash(cell);
+    while (keys[slot] != EMPTY && keys[slot] != cell) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private int hash(int cell) {
+    return (cell * 0x9E3779B9) >>> shift;
+  }
+
+  private void delete(int slot) {
+    keys[slot] = EMPTY;
+    int current = (slot + 1) & mask;
+    while (keys[current] != EMPTY) {
+      int home = hash(keys[current]);
+      //Moves back every entry whose probe sequence passes through the emptied slot.
+      if (((current - home) & mask) >= ((current - slot) & mask)) {
+        keys[slot] = keys[current];
+        heads[slot] = heads[current];
+        keys[current] = EMPTY;
+        slot = current;
+      }
+      current = (current + 1) & mask;
+    }
+  }
+}
@@ -1,25 +1,44 @@
 package dungeonmodel;
 
-import random.RandomImpl;
+import random.RandomSource;
 import structureddata.Position;
 
 /**
  * Otyugh Monster that resides in caves of dungeon.
- * It throws a smell to nearby caves.
+ * It throws a smell to nearby caves, which is removed from the smell field when it is killed.
  * It requires 2 arrows to kill an Otyugh.
  * Player entering a cave having injured Otyugh can be saved 50% of times.
  * Visibility: Package - private
  */
 class Otyugh implements Monster {
   private final Location location;
+  private final SmellField smell;
   private int health;
 
-  protected Otyugh(Location location) {
+  protected Otyugh(Location location, SmellField smell) {
+    this(location, smell, 2);
+  }
+
+  /**
+   * Creates an Otyugh with the given health, like an injured or killed Otyugh of a saved
+   * dungeon. Only a living Otyugh gives away smell.
+   */
+  protected Otyugh(Location location, SmellField smell, int health) {
     if (location == null || !location.isCave()) {
       throw new IllegalArgumentException("Otyugh cannot reside outside of Cave.");
     }
+    if (smell == null) {
+      throw new IllegalArgumentException("Smell field cannot be null.");
+    }
+    if (health < 0 || health > 2) {
+      throw new IllegalArgumentException("Health of an Otyugh should be between 0 and 2.");
+    }
     this.location = location;
-    this.health = 2;
+    this.smell = smell;
+    this.health = health;
+    if (isAlive()) {
+      smell.addOtyugh(location.getPosition());
+    }
   }
 
   @Override
@@ -31,6 +50,9 @@ class Otyugh implements Monster {
   public void damage() {
     if (isAlive()) {
       health--;
+      if (!isAlive()) {
+        smell.removeOtyugh(location.getPosition());
+      }
     }
   }
 
@@ -40,8 +62,26 @@ class Otyugh implements Monster {
   }
 
   @Override
-  public GameStatus killPlayer() {
-    int probability = RandomImpl.getIntInRange(1, 2);
+  public int getHealth() {
+    return health;
+  }
+
+  @Override
+  public void restoreHealth(int health) {
+    if (health < 0 || health > 2) {
+      throw new IllegalArgumentException("Health of an Otyugh should be between 0 and 2.");
+    }
+    if (!isAlive() && health > 0) {
+      smell.addOtyugh(location.getPosition());
+    } else if (isAlive() && health == 0) {
+      smell.removeOtyugh(location.getPosition());
+    }
+    this.health = health;
+  }
+
+  @Override
+  public GameStatus killPlayer(RandomSource random) {
+    int probability = random.getIntInRange(1, 2);
     if (probability <= health) {
       return GameStatus.GAME_OVER_KILLED;
     }
@@ -49,7 +89,7 @@ class Otyugh implements Monster {
   }
 
   @Override
-  public void move() {
+  public void move(RandomSource random) {
     throw new IllegalStateException("Otyughs cannot move");
   }
 }
@@ -24,8 +24,6 @@ interface Player {
 
   HitStatus shootArrow(Direction direction, int distance);
 
-  SmellLevel detectSmell();
-
   void killMonster(Monster aboleth);
 
   void pickKey();
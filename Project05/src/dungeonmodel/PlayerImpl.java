@@ -30,6 +30,24 @@ class PlayerImpl implements Player {
     this.hasKey = false;
   }
 
+  /**
+   * Creates a player in the given state, like the player of a saved dungeon.
+   * The player can be in any location.
+   */
+  protected PlayerImpl(Location currentLocation, Map<Treasure, Integer> collectedTreasures,
+                       int numCrookedArrows, boolean hasKey, boolean isFallenInPit) {
+    if (currentLocation == null || collectedTreasures == null) {
+      throw new IllegalArgumentException("Location or treasures cannot be null.");
+    } else if (numCrookedArrows < 0) {
+      throw new IllegalArgumentException("Number of arrows cannot be negative.");
+    }
+    this.collectedTreasures = new TreeMap<>(collectedTreasures);
+    this.currentLocation = currentLocation;
+    this.numCrookedArrows = numCrookedArrows;
+    this.hasKey = hasKey;
+    this.isFallenInPit = isFallenInPit;
+  }
+
   @Override
   public Map<Treasure, Integer> getCollectedTreasures() {
     return new TreeMap<>(collectedTreasures);
@@ -50,11 +68,12 @@ class PlayerImpl implements Player {
     if (direction == null) {
       throw new IllegalArgumentException("Direction cannot be null");
     }
-    if (!currentLocation.getConnections().containsKey(direction)) {
+    Location next = currentLocation.neighbor(direction);
+    if (next == null) {
       throw new IllegalArgumentException(
               String.format("Direction %s is not possible from here.", direction));
     }
-    currentLocation = currentLocation.getConnections().get(direction);
+    currentLocation = next;
     return currentLocation;
   }
 
@@ -89,11 +108,6 @@ class PlayerImpl implements Player {
     return status;
   }
 
-  @Override
-  public SmellLevel detectSmell() {
-    return currentLocation.getSmellLevel();
-  }
-
   @Override
   public void killMonster(Monster aboleth) {
     if (aboleth == null) {
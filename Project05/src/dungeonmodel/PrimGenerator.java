@@ -0,0 +1,55 @@
+package dungeonmodel;
+
+import random.RandomSource;
+
+/**
+ * Randomized Prim's algorithm to select the paths of a dungeon.
+ * The tree grows from a random cell. Every cell next to the tree is kept in a frontier, from
+ * which a random cell is taken and joined to a random neighbour already in the tree.
+ * The dungeons have many short dead ends branching from every part of the tree.
+ * Visibility: Package - private
+ */
+class PrimGenerator extends AbstractMazeGenerator {
+
+  @Override
+  protected void buildTree(Grid grid, boolean isWrapped, byte[] masks, RandomSource random) {
+    boolean[] inTree = new boolean[grid.size()];
+    boolean[] inFrontier = new boolean[grid.size()];
+    int[] frontier = new int[grid.size()];
+    Direction[] directions = new Direction[DIRECTIONS.length];
+    int start = random.getIntInRange(0, grid.size() - 1);
+    inTree[start] = true;
+    int frontierSize = addToFrontier(grid, isWrapped, start, inTree, inFrontier, frontier, 0,
+            directions);
+    while (frontierSize > 0) {
+      int index = random.getIntInRange(0, frontierSize - 1);
+      int cell = frontier[index];
+      frontier[index] = frontier[--frontierSize];
+      int count = 0;
+      int numDirections = neighborDirections(grid, isWrapped, cell, directions);
+      for (int i = 0; i < numDirections; i++) {
+        if (inTree[grid.neighbor(cell, directions[i])]) {
+          directions[count++] = directions[i];
+        }
+      }
+      KruskalGenerator.connect(grid, masks, cell, directions[random.getIntInRange(0, count - 1)]);
+      inTree[cell] = true;
+      frontierSize = addToFrontier(grid, isWrapped, cell, inTree, inFrontier, frontier,
+              frontierSize, directions);
+    }
+  }
+
+  private static int addToFrontier(Grid grid, boolean isWrapped, int cell, boolean[] inTree,
+                                   boolean[] inFrontier, int[] frontier, int frontierSize,
+                                   Direction[] directions) {
+    int numDirections = neighborDirections(grid, isWrapped, cell, directions);
+    for (int i = 0; i < numDirections; i++) {
+      int neighbor = grid.neighbor(cell, directions[i]);
+      if (!inTree[neighbor] && !inFrontier[neighbor]) {
+        inFrontier[neighbor] = true;
+        frontier[frontierSize++] = neighbor;
+      }
+    }
+    return frontierSize;
+  }
+}
@@ -4,6 +4,8 @@ import structureddata.LocationDescription;
 import structureddata.PlayerDescription;
 import structureddata.Position;
 
+import java.util.Set;
+
 /**
  * Read Only version of DungeonModel.
  * Contains all the methods that could be read from a DungeonModel.
@@ -122,6 +124,51 @@ public interface ReadOnlyDungeonModel {
    */
   SmellLevel detectSmell();
 
+  /**
+   * Gives the smell level of the Otyughs at the given position.
+   *
+   * @param position the position at which the smell is detected.
+   * @return the smell level at the position.
+   * @throws IllegalArgumentException if position is null or outside the dungeon.
+   */
+  SmellLevel getSmellLevel(Position position);
+
+  /**
+   * Gives the current version of the dungeon.
+   * The version increases every time the state of a location changes, like when the player,
+   * an aboleth or a thief moves, an item is picked, a location is visited or a monster dies.
+   *
+   * @return the current version of the dungeon.
+   */
+  long getVersion();
+
+  /**
+   * Gives the oldest version from which the changed positions can still be found.
+   * Views holding an older version should fetch every location again.
+   *
+   * @return the oldest version from which the changes are kept.
+   */
+  long getOldestTrackedVersion();
+
+  /**
+   * Gives the positions of the locations which have changed since the given version.
+   *
+   * @param version the version after which the changes are needed.
+   * @return the positions of the changed locations.
+   * @throws IllegalArgumentException if the version is older than the oldest tracked version
+   *                                  or newer than the current version.
+   */
+  Set<Position> getChangedPositions(long version);
+
+  /**
+   * Gives the last published immutable snapshot of the dungeon.
+   * The snapshot gives a consistent state of the dungeon and can be read without locks
+   * while the dungeon is being changed.
+   *
+   * @return the last published snapshot of the dungeon.
+   */
+  ReadOnlyDungeonModel getSnapshot();
+
   /**
    * Gives the number of pits in the dungeon.
    *
@@ -0,0 +1,44 @@
+package dungeonmodel;
+
+import random.RandomSource;
+
+/**
+ * The recursive backtracker, a randomized depth-first search, to select the paths of a dungeon.
+ * Starting from a random cell, it keeps opening a path to a random unvisited neighbour of the
+ * last cell, and goes back to the previous cell when the last one has none left. The cells are
+ * kept on an array instead of the call stack, so that it does not overflow on large dungeons.
+ * The dungeons have long winding tunnels with few branches.
+ * Visibility: Package - private
+ */
+class RecursiveBacktrackerGenerator extends AbstractMazeGenerator {
+
+  @Override
+  protected void buildTree(Grid grid, boolean isWrapped, byte[] masks, RandomSource random) {
+    boolean[] visited = new boolean[grid.size()];
+    int[] stack = new int[grid.size()];
+    Direction[] directions = new Direction[DIRECTIONS.length];
+    int start = random.getIntInRange(0, grid.size() - 1);
+    visited[start] = true;
+    stack[0] = start;
+    int top = 1;
+    while (top > 0) {
+      int cell = stack[top - 1];
+      int count = 0;
+      int numDirections = neighborDirections(grid, isWrapped, cell, directions);
+      for (int i = 0; i < numDirections; i++) {
+        if (!visited[grid.neighbor(cell, directions[i])]) {
+          directions[count++] = directions[i];
+        }
+      }
+      if (count == 0) {
+        top--;
+      } else {
+        Direction direction = directions[random.getIntInRange(0, count - 1)];
+        int next = grid.neighbor(cell, direction);
+        KruskalGenerator.connect(grid, masks, cell, direction);
+        visited[next] = true;
+        stack[top++] = next;
+      }
+    }
+  }
+}
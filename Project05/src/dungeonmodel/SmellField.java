@@ -0,0 +1,36 @@
+package dungeonmodel;
+
+import structureddata.Position;
+
+/**
+ * The smell of the Otyughs at the locations of a dungeon.
+ * A living Otyugh adds its smell at its cave when it is created or healed and removes it
+ * when it is killed. The smell at a location depends on the living Otyughs within a
+ * distance of 2 from it.
+ * Visibility: Package - private
+ */
+interface SmellField {
+  /**
+   * Adds the smell of a living Otyugh at the given position.
+   *
+   * @param position the position of the Otyugh.
+   */
+  void addOtyugh(Position position);
+
+  /**
+   * Removes the smell of a killed Otyugh at the given position.
+   *
+   * @param position the position of the Otyugh.
+   */
+  void removeOtyugh(Position position);
+
+  /**
+   * Gives the smell at the given position.
+   * It is less pungent when only one Otyugh is at a distance of 2 and none is nearer,
+   * more pungent when there are more Otyughs within a distance of 2.
+   *
+   * @param position the position at which the smell is detected.
+   * @return the smell level at the position.
+   */
+  SmellLevel getSmellLevel(Position position);
+}
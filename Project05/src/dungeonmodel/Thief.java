@@ -1,5 +1,6 @@
 package dungeonmodel;
 
+import random.RandomSource;
 import structureddata.Position;
 
 /**
@@ -9,7 +10,7 @@ import structureddata.Position;
  * Visibility: package private
  */
 interface Thief {
-  void steal(Player player);
+  void steal(Player player, RandomSource random);
 
   void relocate(Location location);
 
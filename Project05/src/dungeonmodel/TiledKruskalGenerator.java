@@ -0,0 +1,246 @@
+package dungeonmodel;
+
+import random.RandomSource;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Randomized Kruskal's algorithm run on tiles of the dungeon in parallel.
+ * The grid is split into square tiles and the spanning tree of every tile is built with
+ * its own edges, shuffled by its own source split from the source of the dungeon.
+ * The tiles only change the masks and sets of their own cells, so they are built on the
+ * threads of a {@link ForkJoinPool} at the same time. The trees are then stitched with
+ * the edges between the tiles, visited in random order like the other edges.
+ * Finally the degree of interconnectivity number of the edges left out, drawn from all the
+ * tiles and boundaries, are made paths as well.
+ * The sources are split in the order of the tiles before any tile is built, so the dungeon
+ * only depends on the seed and not on the number of threads. A source which cannot be split
+ * builds the tiles one after another.
+ * Visibility: Package - private
+ */
+class TiledKruskalGenerator implements MazeGenerator {
+  private static final int TILE_SIZE = 256;
+
+  private final int tileSize;
+  private final ForkJoinPool pool;
+
+  protected TiledKruskalGenerator() {
+    this(TILE_SIZE, ForkJoinPool.commonPool());
+  }
+
+  protected TiledKruskalGenerator(int tileSize, ForkJoinPool pool) {
+    if (tileSize < 2 || pool == null) {
+      throw new IllegalArgumentException("Tile size should be at least 2 and pool not null.");
+    }
+    this.tileSize = tileSize;
+    this.pool = pool;
+  }
+
+  /**
+   * Selects the paths of the grid and sets them in the direction masks of the cells.
+   *
+   * @param grid      the grid of cells
+   * @param isWrapped whether the dungeon is wrapped around its end
+   * @param degree    the degree of interconnectivity
+   * @param masks     the direction masks of the cells, to which the paths are added
+   * @param random    the source of random numbers from which the tiles are split
+   * @return the degree of interconnectivity that could be added to the dungeon.
+   */
+  @Override
+  public int generate(Grid grid, boolean isWrapped, int degree, byte[] masks,
+                      RandomSource random) {
+    if (grid == null || masks == null || masks.length != grid.size() || random == null) {
+      throw new IllegalArgumentException("Invalid grid, masks or random source.");
+    }
+    Tiles tiles = new Tiles(grid, masks, random);
+    if (tiles.count() > 1 && tiles.sources[0] != random) {
+      pool.invoke(new TileTask(tiles, 0, tiles.count()));
+    } else {
+      for (int tile = 0; tile < tiles.count(); tile++) {
+        tiles.build(tile);
+      }
+    }
+    int[] boundaryRejected = stitch(grid, isWrapped, masks, tiles.sets, random);
+
+    int[] offsets = new int[tiles.count() + 1];
+    for (int tile = 0; tile < tiles.count(); tile++) {
+      offsets[tile + 1] = offsets[tile] + tiles.rejected[tile].length;
+    }
+    int tileRejected = offsets[tiles.count()];
+    IndexPool remaining = new IndexPool(tileRejected + boundaryRejected.length);
+    int addedDegree = Math.min(degree, remaining.size());
+    for (int i = 0; i < addedDegree; i++) {
+      int index = remaining.take(random.getIntInRange(0, remaining.size() - 1));
+      int edge;
+      if (index < tileRejected) {
+        int tile = tileOf(offsets, index);
+        edge = tiles.rejected[tile][index - offsets[tile]];
+      } else {
+        edge = boundaryRejected[index - tileRejected];
+      }
+      KruskalGenerator.connect(grid, masks, edge >>> 1, KruskalGenerator.direction(edge));
+    }
+    return addedDegree;
+  }
+
+  /**
+   * Finds the tile of a rejected edge, which is the last tile starting at or before it.
+   */
+  private static int tileOf(int[] offsets, int index) {
+    int low = 0;
+    int high = offsets.length - 2;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (offsets[middle] <= index) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  private int[] stitch(Grid grid, boolean isWrapped, byte[] masks, DisjointSet sets,
+                       RandomSource random) {
+    int rows = grid.getRows();
+    int columns = grid.getColumns();
+    int numEdges = 0;
+    int[] edges = new int[rows * ((columns + tileSize - 1) / tileSize)
+            + columns * ((rows + tileSize - 1) / tileSize)];
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < columns; column++) {
+        int cell = grid.cell(row, column);
+        if (isBoundary(column, columns, isWrapped)) {
+          edges[numEdges++] = cell << 1;
+        }
+        if (isBoundary(row, rows, isWrapped)) {
+          edges[numEdges++] = cell << 1 | 1;
+        }
+      }
+    }
+    for (int i = numEdges - 1; i > 0; i--) {
+      int j = random.getIntInRange(0, i);
+      int edge = edges[i];
+      edges[i] = edges[j];
+      edges[j] = edge;
+    }
+    int numRejected = 0;
+    for (int i = 0; i < numEdges; i++) {
+      int edge = edges[i];
+      int first = edge >>> 1;
+      Direction direction = KruskalGenerator.direction(edge);
+      if (sets.union(first, grid.neighbor(first, direction))) {
+        KruskalGenerator.connect(grid, masks, first, direction);
+      } else {
+        edges[numRejected++] = edge;
+      }
+    }
+    return Arrays.copyOf(edges, numRejected);
+  }
+
+  private boolean isBoundary(int index, int size, boolean isWrapped) {
+    if (index + 1 == size) {
+      return isWrapped;
+    }
+    return (index + 1) % tileSize == 0;
+  }
+
+  /**
+   * The tiles of a dungeon with their sources and the edges left out of their trees.
+   */
+  private final class Tiles {
+    private final Grid grid;
+    private final byte[] masks;
+    private final DisjointSet sets;
+    private final RandomSource[] sources;
+    private final int[][] rejected;
+    private final int tileColumns;
+
+    private Tiles(Grid grid, byte[] masks, RandomSource random) {
+      this.grid = grid;
+      this.masks = masks;
+      this.sets = new DisjointSet(grid.size());
+      int tileRows = (grid.getRows() + tileSize - 1) / tileSize;
+      this.tileColumns = (grid.getColumns() + tileSize - 1) / tileSize;
+      this.sources = new RandomSource[tileRows * tileColumns];
+      for (int tile = 0; tile < sources.length; tile++) {
+        sources[tile] = random.split();
+      }
+      this.rejected = new int[sources.length][];
+    }
+
+    private int count() {
+      return sources.length;
+    }
+
+    private void build(int tile) {
+      int firstRow = tile / tileColumns * tileSize;
+      int firstColumn = tile % tileColumns * tileSize;
+      int lastRow = Math.min(grid.getRows(), firstRow + tileSize);
+      int lastColumn = Math.min(grid.getColumns(), firstColumn + tileSize);
+      int height = lastRow - firstRow;
+      int width = lastColumn - firstColumn;
+      int[] edges = new int[height * (width - 1) + (height - 1) * width];
+      int index = 0;
+      for (int row = firstRow; row < lastRow; row++) {
+        for (int column = firstColumn; column < lastColumn; column++) {
+          int cell = grid.cell(row, column);
+          if (column + 1 < lastColumn) {
+            edges[index++] = cell << 1;
+          }
+          if (row + 1 < lastRow) {
+            edges[index++] = cell << 1 | 1;
+          }
+        }
+      }
+      RandomSource random = sources[tile];
+      for (int i = edges.length - 1; i > 0; i--) {
+        int j = random.getIntInRange(0, i);
+        int edge = edges[i];
+        edges[i] = edges[j];
+        edges[j] = edge;
+      }
+      int[] tileRejected = new int[edges.length - height * width + 1];
+      int numRejected = 0;
+      for (int edge : edges) {
+        int first = edge >>> 1;
+        Direction direction = KruskalGenerator.direction(edge);
+        if (sets.union(first, grid.neighbor(first, direction))) {
+          KruskalGenerator.connect(grid, masks, first, direction);
+        } else {
+          tileRejected[numRejected++] = edge;
+        }
+      }
+      rejected[tile] = tileRejected;
+    }
+  }
+
+  /**
+   * Builds a range of the tiles, splitting the range until it is a single tile.
+   */
+  private static final class TileTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final Tiles tiles;
+    private final int from;
+    private final int to;
+
+    private TileTask(Tiles tiles, int from, int to) {
+      this.tiles = tiles;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        tiles.build(from);
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new TileTask(tiles, from, middle), new TileTask(tiles, middle, to));
+    }
+  }
+}
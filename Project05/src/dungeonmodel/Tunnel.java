@@ -1,7 +1,7 @@
 package dungeonmodel;
 
-import java.util.ArrayList;
-import java.util.List;
+import random.RandomSource;
+
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -36,22 +36,19 @@ class Tunnel extends AbstractLocation {
     if (other == null) {
       throw new IllegalArgumentException("Invalid argument.");
     }
-    Direction direction = getDirection(other.getPosition());
-    connectedMap.put(direction, other);
-    Cave newLocation = new Cave(position.getRow(), position.getColumn(), connectedMap);
-    for (Location location : connectedMap.values()) {
-      location.updatePath(newLocation);
-    }
+    connect(getDirection(other.getPosition()), other);
+    Cave newLocation = new Cave(position.getRow(), position.getColumn(), getConnections());
+    newLocation.forEachNeighbor(location -> location.updatePath(newLocation));
     return newLocation;
   }
 
   @Override
-  public void setTreasure() {
+  public void setTreasure(RandomSource random) {
     throw new IllegalStateException("Cannot set/remove treasure in a tunnel");
   }
 
   @Override
-  public void addOtyugh() {
+  public void addOtyugh(SmellField smell) {
     throw new IllegalStateException("Cannot put Otyugh in a tunnel.");
   }
 
@@ -65,11 +62,12 @@ class Tunnel extends AbstractLocation {
     if (direction == null) {
       throw new IllegalArgumentException("Direction cannot be null");
     }
-    if (distance > 0 && connectedMap.containsKey(direction.opposite())) {
-      List<Direction> directions = new ArrayList<>(connectedMap.keySet());
-      directions.remove(direction.opposite());
-      Direction newDirection = directions.get(0);
-      return connectedMap.get(newDirection).shootArrowHelper(newDirection, distance - 1);
+    if (distance > 0 && neighbors[direction.opposite().ordinal()] != null) {
+      for (Direction newDirection : DIRECTIONS) {
+        if (newDirection != direction.opposite() && neighbors[newDirection.ordinal()] != null) {
+          return neighbors[newDirection.ordinal()].shootArrowHelper(newDirection, distance - 1);
+        }
+      }
     }
     return HitStatus.MISS;
   }
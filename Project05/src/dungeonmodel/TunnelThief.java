@@ -1,6 +1,6 @@
 package dungeonmodel;
 
-import random.RandomImpl;
+import random.RandomSource;
 import structureddata.Position;
 
 import java.util.ArrayList;
@@ -11,30 +11,39 @@ import java.util.TreeMap;
 /**
  * Tunnel thief representation in which thief resides in tunnels of the dungeon.
  * After stealing from the player, thief can relocate to a different tunnel.
+ * The thief keeps its cell up to date in the index of the thieves of its dungeon.
  * visibility: package-private
  */
 class TunnelThief implements Thief {
   private Location location;
 
   private final Map<Treasure, Integer> stolenTreasure;
+  private final OccupancyIndex index;
+  private final int id;
 
-  protected TunnelThief(Location location) {
+  protected TunnelThief(Location location, OccupancyIndex index, int id) {
     if (location == null || location.isCave()) {
       throw new IllegalArgumentException("Location cannot be null or cave.");
     }
+    if (index == null) {
+      throw new IllegalArgumentException("Index cannot be null.");
+    }
     this.location = location;
     location.setThief(true);
     this.stolenTreasure = new TreeMap<>();
+    this.index = index;
+    this.id = id;
+    index.add(id, location.getPosition());
   }
 
   @Override
-  public void steal(Player player) {
+  public void steal(Player player, RandomSource random) {
     if (player == null) {
       throw new IllegalArgumentException("Player cannot be null.");
     }
     List<Treasure> treasures = new ArrayList<>(player.getCollectedTreasures().keySet());
     if (treasures.size() > 0) {
-      int index = RandomImpl.getIntInRange(0, treasures.size() - 1);
+      int index = random.getIntInRange(0, treasures.size() - 1);
       Treasure treasure = treasures.get(index);
       int removedTreasure = player.removeTreasure(treasure, 5);
       stolenTreasure.put(treasures.get(index),
@@ -47,9 +56,13 @@ class TunnelThief implements Thief {
     if (location == null || location.isCave()) {
       throw new IllegalArgumentException("Location cannot be null or cave.");
     }
-    this.location.setThief(false);
+    Position position = this.location.getPosition();
+    index.remove(id, position);
+    //Another thief can still be in the same tunnel.
+    this.location.setThief(index.first(position) != -1);
     this.location = location;
     location.setThief(true);
+    index.add(id, location.getPosition());
   }
 
   @Override
@@ -0,0 +1,40 @@
+package dungeonmodel;
+
+import random.RandomSource;
+
+/**
+ * Wilson's algorithm to select the paths of a dungeon, which gives every spanning tree of the
+ * grid the same chance.
+ * The tree starts with a random cell. From every cell not yet in the tree, a random walk is
+ * taken until it reaches the tree, remembering only the last direction taken out of every
+ * cell, which erases the loops of the walk. The walk is then followed again from its first
+ * cell and added to the tree. The first walks are long, so it is slower than the other
+ * algorithms on large dungeons.
+ * Visibility: Package - private
+ */
+class WilsonGenerator extends AbstractMazeGenerator {
+
+  @Override
+  protected void buildTree(Grid grid, boolean isWrapped, byte[] masks, RandomSource random) {
+    boolean[] inTree = new boolean[grid.size()];
+    byte[] exits = new byte[grid.size()];
+    Direction[] directions = new Direction[DIRECTIONS.length];
+    inTree[random.getIntInRange(0, grid.size() - 1)] = true;
+    for (int first = 0; first < grid.size(); first++) {
+      int cell = first;
+      while (!inTree[cell]) {
+        int numDirections = neighborDirections(grid, isWrapped, cell, directions);
+        Direction direction = directions[random.getIntInRange(0, numDirections - 1)];
+        exits[cell] = (byte) direction.ordinal();
+        cell = grid.neighbor(cell, direction);
+      }
+      cell = first;
+      while (!inTree[cell]) {
+        Direction direction = DIRECTIONS[exits[cell]];
+        KruskalGenerator.connect(grid, masks, cell, direction);
+        inTree[cell] = true;
+        cell = grid.neighbor(cell, direction);
+      }
+    }
+  }
+}
@@ -11,24 +11,40 @@ import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.Set;
 
-import javax.swing.ImageIcon;
 import javax.swing.JPanel;
 
 /**
  * A panel to represent the full dungeon.
  * Locations not visited by the player is hidden.
+ * In visible mode, the smell of the Otyughs is shown at every location.
+ * The board is painted into an offscreen image, in which only the locations changed in the
+ * dungeon are painted again and then copied to the screen. Boards too large for the
+ * offscreen image are painted directly.
+ * Only the locations inside the clip bounds are painted or copied, so scrolling a large
+ * dungeon costs as much as showing a small one.
  * Player can click on nearby possible locations to move to that location.
  * Visibility: package-private
  */
 class DungeonPanel extends JPanel {
+  private static final int TILE_SIZE = 64;
+  private static final long MAX_BUFFER_PIXELS = 4096L * 4096L;
+  private static final int BORDER = 50;
 
   //Intentionally kept DungeonSwingView to tightly couple DungeonPopup with DungeonSwingView
   // and access protected methods of DungeonSwingView.
   private final DungeonSwingView view;
 
+  private BufferedImage buffer;
+  private ReadOnlyDungeonModel bufferedModel;
+  private boolean bufferedVisibleMode;
+  private long bufferedVersion;
+
   //Intentionally kept DungeonSwingView to tightly couple DungeonPopup with DungeonSwingView
   // and access protected methods of DungeonSwingView.
   protected DungeonPanel(DungeonSwingView view) {
@@ -36,6 +52,7 @@ class DungeonPanel extends JPanel {
       throw new IllegalArgumentException("View cannot be null");
     }
     this.view = view;
+    this.buffer = null;
   }
 
   @Override
@@ -49,74 +66,150 @@ class DungeonPanel extends JPanel {
     super.paintComponent(g);
     Graphics2D g2d = (Graphics2D) g;
 
-    ReadOnlyDungeonModel model = view.getModel();
+    ReadOnlyDungeonModel liveModel = view.getModel();
+    ReadOnlyDungeonModel model = liveModel.getSnapshot();
+    long width = (long) TILE_SIZE * model.getColumns() + 100;
+    long height = (long) TILE_SIZE * model.getRows() + 100;
+    Rectangle clip = g2d.getClipBounds();
+    if (clip == null) {
+      clip = new Rectangle(0, 0, (int) Math.min(width, Integer.MAX_VALUE),
+              (int) Math.min(height, Integer.MAX_VALUE));
+    }
+    if (width * height > MAX_BUFFER_PIXELS) {
+      buffer = null;
+      paintTiles(g2d, model, clip);
+      return;
+    }
+    if (isBufferStale(liveModel, model)) {
+      buffer = new BufferedImage((int) width, (int) height, BufferedImage.TYPE_INT_ARGB);
+      bufferedModel = liveModel;
+      bufferedVisibleMode = view.isVisibleMode();
+      bufferedVersion = model.getVersion();
+      Graphics2D bufferGraphics = buffer.createGraphics();
+      paintTiles(bufferGraphics, model, new Rectangle(0, 0, (int) width, (int) height));
+      bufferGraphics.dispose();
+    } else {
+      long version = model.getVersion();
+      Set<Position> changedPositions = model.getChangedPositions(bufferedVersion);
+      bufferedVersion = version;
+      if (!changedPositions.isEmpty()) {
+        Graphics2D bufferGraphics = buffer.createGraphics();
+        LocationDescription currentLocation = model.getCurrentLocation();
+        for (Position position : changedPositions) {
+          paintTile(bufferGraphics, model, currentLocation, position);
+        }
+        bufferGraphics.dispose();
+      }
+    }
+    int right = Math.min(clip.x + clip.width, buffer.getWidth());
+    int bottom = Math.min(clip.y + clip.height, buffer.getHeight());
+    g2d.drawImage(buffer, clip.x, clip.y, right, bottom, clip.x, clip.y, right, bottom, this);
+  }
 
+  /**
+   * Repaints only the locations which have changed since the board was last painted.
+   * The whole board is repainted if the dungeon, the visible mode or too many locations
+   * have changed.
+   */
+  protected void refresh() {
+    ReadOnlyDungeonModel liveModel = view.getModel();
+    if (liveModel == null || buffer == null
+            || isBufferStale(liveModel, liveModel.getSnapshot())) {
+      repaint();
+      return;
+    }
+    ReadOnlyDungeonModel model = liveModel.getSnapshot();
+    for (Position position : model.getChangedPositions(bufferedVersion)) {
+      Position tilePosition = Utilities.getLocationPosition(position.getRow(),
+              position.getColumn());
+      repaint(tilePosition.getColumn(), tilePosition.getRow(), TILE_SIZE, TILE_SIZE);
+    }
+  }
+
+  private boolean isBufferStale(ReadOnlyDungeonModel liveModel, ReadOnlyDungeonModel model) {
+    return buffer == null || liveModel != bufferedModel
+            || view.isVisibleMode() != bufferedVisibleMode
+            || bufferedVersion < model.getOldestTrackedVersion();
+  }
+
+  private void paintTiles(Graphics2D g2d, ReadOnlyDungeonModel model, Rectangle area) {
+    int firstRow = Math.max(0, Math.floorDiv(area.y - BORDER, TILE_SIZE));
+    int lastRow = Math.min(model.getRows() - 1,
+            Math.floorDiv(area.y + area.height - 1 - BORDER, TILE_SIZE));
+    int firstColumn = Math.max(0, Math.floorDiv(area.x - BORDER, TILE_SIZE));
+    int lastColumn = Math.min(model.getColumns() - 1,
+            Math.floorDiv(area.x + area.width - 1 - BORDER, TILE_SIZE));
     LocationDescription currentLocation = model.getCurrentLocation();
-    int currentRow = currentLocation.getPosition().getRow();
-    int currentColumn = currentLocation.getPosition().getColumn();
-
-    for (int i = 0; i < model.getRows(); i++) {
-      for (int j = 0; j < model.getColumns(); j++) {
-        LocationDescription location = model.getLocation(new Position(i, j));
-        Position getLocationPosition = Utilities.getLocationPosition(i, j);
-        Image image;
-        if (location.isVisited() || view.isVisibleMode()) {
-          image = new ImageIcon(
-                  Utilities.getImageName(location.getPossibleDirections())).getImage();
-        } else {
-          image = new ImageIcon("Project05\\res\\dungeonImages\\blank.png").getImage();
-        }
-        g2d.drawImage(image, getLocationPosition.getColumn(), getLocationPosition.getRow(), this);
-        if ((i == currentRow && j == currentColumn)) {
-          SmellLevel level = model.detectSmell();
-          if (level == SmellLevel.MORE_PUNGENT || currentLocation.containsOtyugh()) {
-            image = new ImageIcon("Project05\\res\\dungeonImages\\stench02.png").getImage();
-            g2d.drawImage(image, getLocationPosition.getColumn(),
-                    getLocationPosition.getRow(), this);
-          } else if (level == SmellLevel.LESS_PUNGENT) {
-            image = new ImageIcon("Project05\\res\\dungeonImages\\stench01.png").getImage();
-            g2d.drawImage(image, getLocationPosition.getColumn(),
-                    getLocationPosition.getRow(), this);
-          }
-        }
-        if (view.isVisibleMode()) {
-          Position getCurrentPosition = Utilities.getPointPosition(location);
-          if (location.containsOtyugh()) {
-            g2d.setColor(Color.DARK_GRAY);
-            g2d.fillOval(getCurrentPosition.getColumn(), getCurrentPosition.getRow(), 16, 16);
-          }
-
-          if (location.containsThief()) {
-            g2d.setColor(Color.ORANGE);
-            g2d.fillOval(getCurrentPosition.getColumn(), getCurrentPosition.getRow(), 16, 16);
-          }
-
-          if (location.getPosition().equals(model.getEndCave().getPosition())) {
-            g2d.setColor(Color.BLUE);
-            g2d.fillOval(getCurrentPosition.getColumn(), getCurrentPosition.getRow(), 16, 16);
-          }
-
-          if (location.hasKey()) {
-            g2d.setColor(Color.YELLOW);
-            g2d.fillOval(getCurrentPosition.getColumn(), getCurrentPosition.getRow(), 16, 16);
-          }
-
-          if (location.containsAboleth()) {
-            g2d.setColor(Color.RED);
-            g2d.fillOval(getCurrentPosition.getColumn(), getCurrentPosition.getRow(), 16, 16);
-          }
-
-          if (location.hasPit()) {
-            g2d.setColor(Color.MAGENTA);
-            g2d.fillOval(getCurrentPosition.getColumn(), getCurrentPosition.getRow(), 16, 16);
-          }
-        }
+    for (int i = firstRow; i <= lastRow; i++) {
+      for (int j = firstColumn; j <= lastColumn; j++) {
+        paintTile(g2d, model, currentLocation, new Position(i, j));
       }
     }
+  }
 
-    g2d.setColor(Color.GREEN);
-    Position getCurrentPosition = Utilities.getPointPosition(currentLocation);
-    g2d.fillOval(getCurrentPosition.getColumn(), getCurrentPosition.getRow(), 16, 16);
+  private void paintTile(Graphics2D g2d, ReadOnlyDungeonModel model,
+                         LocationDescription currentLocation, Position position) {
+    LocationDescription location = model.getLocation(position);
+    Position getLocationPosition = Utilities.getLocationPosition(position.getRow(),
+            position.getColumn());
+    g2d.setColor(getBackground());
+    g2d.fillRect(getLocationPosition.getColumn(), getLocationPosition.getRow(),
+            TILE_SIZE, TILE_SIZE);
+    Image image;
+    if (location.isVisited() || view.isVisibleMode()) {
+      image = view.getImages().getLocationImage(location.getPossibleDirections());
+    } else {
+      image = view.getImages().getImage(ImageCache.Sprite.BLANK);
+    }
+    g2d.drawImage(image, getLocationPosition.getColumn(), getLocationPosition.getRow(), this);
+    if (position.equals(currentLocation.getPosition()) || view.isVisibleMode()) {
+      SmellLevel level = model.getSmellLevel(position);
+      if (level == SmellLevel.MORE_PUNGENT || location.containsOtyugh()) {
+        image = view.getImages().getImage(ImageCache.Sprite.MORE_PUNGENT);
+        g2d.drawImage(image, getLocationPosition.getColumn(),
+                getLocationPosition.getRow(), this);
+      } else if (level == SmellLevel.LESS_PUNGENT) {
+        image = view.getImages().getImage(ImageCache.Sprite.LESS_PUNGENT);
+        g2d.drawImage(image, getLocationPosition.getColumn(),
+                getLocationPosition.getRow(), this);
+      }
+    }
+    Position getCurrentPosition = Utilities.getPointPosition(location);
+    if (view.isVisibleMode()) {
+      if (location.containsOtyugh()) {
+        g2d.setColor(Color.DARK_GRAY);
+        g2d.fillOval(getCurrentPosition.getColumn(), getCurrentPosition.getRow(), 16, 16);
+      }
+
+      if (location.containsThief()) {
+        g2d.setColor(Color.ORANGE);
+        g2d.fillOval(getCurrentPosition.getColumn(), getCurrentPosition.getRow(), 16, 16);
+      }
+
+      if (position.equals(model.getEndCave().getPosition())) {
+        g2d.setColor(Color.BLUE);
+        g2d.fillOval(getCurrentPosition.getColumn(), getCurrentPosition.getRow(), 16, 16);
+      }
+
+      if (location.hasKey()) {
+        g2d.setColor(Color.YELLOW);
+        g2d.fillOval(getCurrentPosition.getColumn(), getCurrentPosition.getRow(), 16, 16);
+      }
+
+      if (location.containsAboleth()) {
+        g2d.setColor(Color.RED);
+        g2d.fillOval(getCurrentPosition.getColumn(), getCurrentPosition.getRow(), 16, 16);
+      }
+
+      if (location.hasPit()) {
+        g2d.setColor(Color.MAGENTA);
+        g2d.fillOval(getCurrentPosition.getColumn(), getCurrentPosition.getRow(), 16, 16);
+      }
+    }
+    if (position.equals(currentLocation.getPosition())) {
+      g2d.setColor(Color.GREEN);
+      g2d.fillOval(getCurrentPosition.getColumn(), getCurrentPosition.getRow(), 16, 16);
+    }
   }
 
   protected void setFeatures(Features features) {
@@ -13,23 +13,15 @@ import java.awt.Dimension;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.image.BufferedImage;
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
 import javax.imageio.ImageIO;
-import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.DataLine;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
 import javax.swing.JFrame;
 import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
 import javax.swing.WindowConstants;
 
 /**
@@ -52,6 +44,8 @@ public class DungeonSwingView extends JFrame implements DungeonView {
   private final JScrollPane scrollPane;
   private final LocationPanel locationPanel;
   private final PlayerPanel playerPanel;
+  private final ImageCache images;
+  private final SoundPlayer sounds;
 
   private ReadOnlyDungeonModel model;
 
@@ -77,6 +71,8 @@ public class DungeonSwingView extends JFrame implements DungeonView {
       // Ignore Logo
     }
 
+    images = new ImageCache();
+    sounds = new SoundPlayer();
     dungeonPopup = new DungeonPopup(this);
 
     this.setLayout(new BorderLayout());
@@ -103,6 +99,10 @@ public class DungeonSwingView extends JFrame implements DungeonView {
     if (model == null) {
       throw new IllegalArgumentException("Model cannot be null.");
     }
+    if (!SwingUtilities.isEventDispatchThread()) {
+      SwingUtilities.invokeLater(() -> setModel(model));
+      return;
+    }
     this.model = model;
     showString("");
     dungeonPopup.setDefaultCloseOperation(HIDE_ON_CLOSE);
@@ -189,7 +189,13 @@ public class DungeonSwingView extends JFrame implements DungeonView {
 
   @Override
   public void refresh() {
-    repaint();
+    if (!SwingUtilities.isEventDispatchThread()) {
+      SwingUtilities.invokeLater(this::refresh);
+      return;
+    }
+    dungeonPanel.refresh();
+    locationPanel.repaint();
+    playerPanel.repaint();
   }
 
   @Override
@@ -199,6 +205,10 @@ public class DungeonSwingView extends JFrame implements DungeonView {
 
   @Override
   public void showErrorMessage(String error) {
+    if (!SwingUtilities.isEventDispatchThread()) {
+      SwingUtilities.invokeLater(() -> showErrorMessage(error));
+      return;
+    }
     playerPanel.showString(error);
   }
 
@@ -207,21 +217,16 @@ public class DungeonSwingView extends JFrame implements DungeonView {
     if (path == null) {
       throw new IllegalArgumentException("Path cannot be null.");
     }
-    try {
-      AudioInputStream audioStream = AudioSystem.getAudioInputStream(
-              new BufferedInputStream(new FileInputStream(path)));
-      AudioFormat format = audioStream.getFormat();
-      DataLine.Info info = new DataLine.Info(Clip.class, format);
-      Clip audioClip = (Clip) AudioSystem.getLine(info);
-      audioClip.open(audioStream);
-      audioClip.start();
-    } catch (UnsupportedAudioFileException | LineUnavailableException | IOException e) {
-      //Ignore to not play the sound.
-    }
+    //The sound player queues the sound to its own thread, so it is not passed to the EDT.
+    sounds.play(path);
   }
 
   @Override
   public void showString(String s) {
+    if (!SwingUtilities.isEventDispatchThread()) {
+      SwingUtilities.invokeLater(() -> showString(s));
+      return;
+    }
     playerPanel.showString(s);
   }
 
@@ -243,6 +248,10 @@ public class DungeonSwingView extends JFrame implements DungeonView {
     return model;
   }
 
+  protected ImageCache getImages() {
+    return images;
+  }
+
   protected boolean hasModel() {
     return model != null;
   }
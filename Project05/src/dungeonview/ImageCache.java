@@ -0,0 +1,190 @@
+package dungeonview;
+
+import dungeonmodel.Arrow;
+import dungeonmodel.Direction;
+import dungeonmodel.Item;
+import dungeonmodel.Key;
+import dungeonmodel.Treasure;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.imageio.ImageIO;
+
+/**
+ * Cache of all the images used to paint the dungeon.
+ * The images are read once when the cache is created and packed into a single atlas image.
+ * Images larger than a tile are scaled down to fit in a tile while packing, so that painting
+ * never reads or scales the files again. Every image given by the cache is a part of the atlas.
+ * An image which cannot be read is replaced by an empty tile.
+ * Visibility: package-private
+ */
+class ImageCache {
+  private static final String IMAGE_PATH = "Project05\\res\\dungeonImages\\";
+  private static final int TILE_SIZE = 64;
+  private static final int ATLAS_WIDTH = 8 * TILE_SIZE;
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private static final Item[] ITEMS = new Item[]{Treasure.DIAMOND, Treasure.RUBY,
+      Treasure.SAPPHIRE, Arrow.CROOKED_ARROW, Key.DOOR_KEY};
+
+  /**
+   * The images of the dungeon other than the locations and items.
+   */
+  enum Sprite {
+    BLANK("blank.png"),
+    LESS_PUNGENT("stench01.png"),
+    MORE_PUNGENT("stench02.png"),
+    OTYUGH("otyugh.png"),
+    ABOLETH("aboleth.png"),
+    PLAYER("player.png"),
+    DOOR("door.png");
+
+    private final String fileName;
+
+    Sprite(String fileName) {
+      this.fileName = fileName;
+    }
+  }
+
+  private final BufferedImage atlas;
+  private final Image[] locations;
+  private final Map<Sprite, Image> sprites;
+  private final Map<Item, Image> items;
+
+  protected ImageCache() {
+    List<BufferedImage> images = new ArrayList<>();
+    for (int mask = 0; mask < 1 << DIRECTIONS.length; mask++) {
+      images.add(mask == 0 ? read(IMAGE_PATH + Sprite.BLANK.fileName)
+              : read(Utilities.getImageName(getDirections(mask))));
+    }
+    for (Sprite sprite : Sprite.values()) {
+      images.add(read(IMAGE_PATH + sprite.fileName));
+    }
+    for (Item item : ITEMS) {
+      images.add(read(Utilities.getImageName(item)));
+    }
+
+    List<int[]> bounds = new ArrayList<>();
+    atlas = pack(images, bounds);
+
+    int index = 0;
+    locations = new Image[1 << DIRECTIONS.length];
+    for (int mask = 0; mask < locations.length; mask++) {
+      locations[mask] = subImage(bounds.get(index++));
+    }
+    sprites = new EnumMap<>(Sprite.class);
+    for (Sprite sprite : Sprite.values()) {
+      sprites.put(sprite, subImage(bounds.get(index++)));
+    }
+    items = new HashMap<>();
+    for (Item item : ITEMS) {
+      items.put(item, subImage(bounds.get(index++)));
+    }
+  }
+
+  /**
+   * Gives the image of a location having the given possible directions.
+   *
+   * @param directions the possible directions from the location.
+   * @return the image of the location.
+   */
+  protected Image getLocationImage(Set<Direction> directions) {
+    if (directions == null) {
+      throw new IllegalArgumentException("Directions cannot be null");
+    }
+    int mask = 0;
+    for (Direction direction : directions) {
+      mask |= 1 << direction.ordinal();
+    }
+    return locations[mask];
+  }
+
+  protected Image getImage(Sprite sprite) {
+    if (sprite == null) {
+      throw new IllegalArgumentException("Sprite cannot be null");
+    }
+    return sprites.get(sprite);
+  }
+
+  protected Image getImage(Item item) {
+    if (item == null || !items.containsKey(item)) {
+      throw new IllegalArgumentException("Invalid item.");
+    }
+    return items.get(item);
+  }
+
+  private Set<Direction> getDirections(int mask) {
+    Set<Direction> directions = EnumSet.noneOf(Direction.class);
+    for (Direction direction : DIRECTIONS) {
+      if ((mask & 1 << direction.ordinal()) != 0) {
+        directions.add(direction);
+      }
+    }
+    return directions;
+  }
+
+  private BufferedImage read(String fileName) {
+    try {
+      BufferedImage image = ImageIO.read(new File(fileName));
+      if (image != null) {
+        return image;
+      }
+    } catch (IOException e) {
+      // Replaced by an empty tile below.
+    }
+    return new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_ARGB);
+  }
+
+  private BufferedImage pack(List<BufferedImage> images, List<int[]> bounds) {
+    int x = 0;
+    int y = 0;
+    int rowHeight = 0;
+    for (BufferedImage image : images) {
+      int[] size = fitInTile(image);
+      if (x + size[0] > ATLAS_WIDTH) {
+        x = 0;
+        y += rowHeight;
+        rowHeight = 0;
+      }
+      bounds.add(new int[]{x, y, size[0], size[1]});
+      x += size[0];
+      rowHeight = Math.max(rowHeight, size[1]);
+    }
+    BufferedImage packed = new BufferedImage(ATLAS_WIDTH, Math.max(1, y + rowHeight),
+            BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g2d = packed.createGraphics();
+    g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+            RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+    for (int i = 0; i < images.size(); i++) {
+      int[] bound = bounds.get(i);
+      g2d.drawImage(images.get(i), bound[0], bound[1], bound[2], bound[3], null);
+    }
+    g2d.dispose();
+    return packed;
+  }
+
+  private int[] fitInTile(BufferedImage image) {
+    int width = image.getWidth();
+    int height = image.getHeight();
+    if (width <= TILE_SIZE && height <= TILE_SIZE) {
+      return new int[]{width, height};
+    }
+    double scale = (double) TILE_SIZE / Math.max(width, height);
+    return new int[]{Math.max(1, (int) Math.round(width * scale)),
+        Math.max(1, (int) Math.round(height * scale))};
+  }
+
+  private Image subImage(int[] bound) {
+    return atlas.getSubimage(bound[0], bound[1], bound[2], bound[3]);
+  }
+}
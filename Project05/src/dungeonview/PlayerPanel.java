@@ -18,7 +18,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import javax.swing.BorderFactory;
-import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JPanel;
 import javax.swing.JTextArea;
@@ -88,7 +87,7 @@ class PlayerPanel extends JPanel {
     treasures.add(Treasure.RUBY);
     treasures.add(Treasure.SAPPHIRE);
 
-    ReadOnlyDungeonModel model = view.getModel();
+    ReadOnlyDungeonModel model = view.getModel().getSnapshot();
     PlayerDescription player = model.getPlayerDescription();
     Map<Treasure, Integer> treasureMap = player.getCollectedTreasures();
 
@@ -131,7 +130,7 @@ class PlayerPanel extends JPanel {
     if (g2d == null) {
       throw new IllegalArgumentException("Graphics cannot be null");
     }
-    Image image = new ImageIcon(Utilities.getImageName(item)).getImage();
+    Image image = view.getImages().getImage(item);
     g2d.drawString(item.getStringFromNumber(number) + ".", 50, 30 + i * 35);
     double shrinkPercentage = (25.0) / image.getHeight(this);
     g2d.drawImage(image, 150, i * 35 + 12,
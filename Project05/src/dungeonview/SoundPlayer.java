@@ -0,0 +1,121 @@
+package dungeonview;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.Clip;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Plays the sounds of the game on its own audio thread.
+ * All the sounds in the sounds folder are decoded once when the player is created and each
+ * sound keeps a small pool of opened clips, which are rewound and started again to play it.
+ * A sound outside the folder is loaded the first time it is played.
+ * Requests to play are only queued to the audio thread, so the caller never waits for the
+ * audio files or lines. Sounds which cannot be loaded or played are ignored.
+ * Visibility: package-private
+ */
+class SoundPlayer {
+  private static final String SOUND_PATH = "Project05\\res\\dungeonSounds";
+  private static final int CLIPS_PER_SOUND = 3;
+
+  private final ExecutorService executor;
+  private final Map<File, Clip[]> sounds;
+  private final Map<File, Integer> nextClip;
+
+  protected SoundPlayer() {
+    this.sounds = new HashMap<>();
+    this.nextClip = new HashMap<>();
+    this.executor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "dungeon-audio");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.execute(this::preload);
+  }
+
+  /**
+   * Queues the sound at the given path to be played on the audio thread.
+   *
+   * @param path the path of the sound file.
+   */
+  protected void play(String path) {
+    if (path == null) {
+      throw new IllegalArgumentException("Path cannot be null.");
+    }
+    File file = new File(path).getAbsoluteFile();
+    executor.execute(() -> playClip(file));
+  }
+
+  private void preload() {
+    File[] files = new File(SOUND_PATH).listFiles((dir, name) -> name.endsWith(".wav"));
+    if (files != null) {
+      for (File file : files) {
+        load(file.getAbsoluteFile());
+      }
+    }
+  }
+
+  private Clip[] load(File file) {
+    Clip[] clips = sounds.get(file);
+    if (clips != null) {
+      return clips;
+    }
+    clips = new Clip[0];
+    try (AudioInputStream audioStream = AudioSystem.getAudioInputStream(
+            new BufferedInputStream(new FileInputStream(file)))) {
+      AudioFormat format = audioStream.getFormat();
+      byte[] data = audioStream.readAllBytes();
+      DataLine.Info info = new DataLine.Info(Clip.class, format);
+      clips = new Clip[CLIPS_PER_SOUND];
+      for (int i = 0; i < clips.length; i++) {
+        clips[i] = (Clip) AudioSystem.getLine(info);
+        clips[i].open(format, data, 0, data.length);
+      }
+    } catch (UnsupportedAudioFileException | LineUnavailableException | IOException
+             | IllegalArgumentException e) {
+      //Ignore to not play the sound, releasing the lines already taken.
+      for (Clip clip : clips) {
+        if (clip != null) {
+          clip.close();
+        }
+      }
+      clips = new Clip[0];
+    }
+    sounds.put(file, clips);
+    nextClip.put(file, 0);
+    return clips;
+  }
+
+  private void playClip(File file) {
+    Clip[] clips = load(file);
+    if (clips.length == 0) {
+      return;
+    }
+    Clip clip = null;
+    for (Clip candidate : clips) {
+      if (!candidate.isRunning()) {
+        clip = candidate;
+        break;
+      }
+    }
+    if (clip == null) {
+      int next = nextClip.get(file);
+      clip = clips[next];
+      nextClip.put(file, (next + 1) % clips.length);
+      clip.stop();
+    }
+    clip.setFramePosition(0);
+    clip.start();
+  }
+}
@@ -0,0 +1,26 @@
+package random;
+
+/**
+ * Source of random numbers used to generate and play a dungeon.
+ * Every dungeon draws its numbers from its own source, so dungeons using different sources
+ * do not affect each other and can be generated and played at the same time.
+ */
+public interface RandomSource {
+
+  /**
+   * Gives a random integer in the specified limits.
+   *
+   * @param lower lower limit (included)
+   * @param upper upper limit (included)
+   * @return a random integer in the specified limits
+   */
+  int getIntInRange(int lower, int upper);
+
+  /**
+   * Gives a new source whose numbers are independent of the numbers of this source.
+   * Splitting the same source in the same order always gives the same sources.
+   *
+   * @return the new source of random numbers.
+   */
+  RandomSource split();
+}
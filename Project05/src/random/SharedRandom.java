@@ -0,0 +1,20 @@
+package random;
+
+/**
+ * Source of random numbers which draws from the shared {@link RandomImpl}.
+ * The numbers depend on the seed and numbers set in RandomImpl, thus the dungeons using
+ * this source give the same results as the earlier versions of the game.
+ * Splitting gives the same source as there is only one shared stream of numbers.
+ */
+public class SharedRandom implements RandomSource {
+
+  @Override
+  public int getIntInRange(int lower, int upper) {
+    return RandomImpl.getIntInRange(lower, upper);
+  }
+
+  @Override
+  public RandomSource split() {
+    return this;
+  }
+}
@@ -0,0 +1,40 @@
+package random;
+
+import java.util.SplittableRandom;
+
+/**
+ * Source of random numbers backed by a {@link SplittableRandom}.
+ * Each dungeon should be given its own source split from a seeded source,
+ * so that many dungeons can be generated and played in parallel
+ * while each of them gives the same results for the same seed.
+ * A source should not be used by more than one thread at a time.
+ */
+public class SplittableRandomSource implements RandomSource {
+  private final SplittableRandom random;
+
+  /**
+   * Creates a new source of random numbers from the given seed.
+   *
+   * @param seed the seed of the source.
+   */
+  public SplittableRandomSource(long seed) {
+    this(new SplittableRandom(seed));
+  }
+
+  private SplittableRandomSource(SplittableRandom random) {
+    this.random = random;
+  }
+
+  @Override
+  public int getIntInRange(int lower, int upper) {
+    if (lower > upper) {
+      throw new IllegalArgumentException("Lower limit cannot be more than upper limit.");
+    }
+    return random.nextInt(upper - lower + 1) + lower;
+  }
+
+  @Override
+  public RandomSource split() {
+    return new SplittableRandomSource(random.split());
+  }
+}
@@ -1,12 +1,25 @@
 import org.junit.Test;
 
 import dungeoncontroller.DungeonAsyncController;
+import dungeoncontroller.VirtualClock;
 import dungeonmodel.Direction;
 import dungeonmodel.DungeonModel;
 import dungeonmodel.Key;
 import dungeonview.DungeonView;
+import random.SplittableRandomSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 /**
@@ -25,6 +38,20 @@ public class DungeonAsyncControllerTest {
     }
   }
 
+  @Test
+  public void testCreateNewModelFail() {
+    StringBuilder viewLog = new StringBuilder("");
+    DungeonAsyncController controller =
+            new DungeonAsyncController(new MockViewLogging(viewLog));
+    try {
+      controller.createNewModel(3, 3, false, 0, 50, 0, 0, 0, 0);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("Number of Otyugh should be atleast 1.", e.getMessage());
+    }
+    assertEquals("", viewLog.toString());
+  }
+
   @Test
   public void testMockingModelandController() {
     StringBuilder modelLog = new StringBuilder("");
@@ -65,4 +92,213 @@ public class DungeonAsyncControllerTest {
             + "setModel called\n"
             + "refresh called\n", viewLog.toString());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testFailedCommandIsReported() {
+    StringBuilder modelLog = new StringBuilder("");
+    DungeonModel failingModel = new MockModelLogging(modelLog) {
+      @Override
+      public void movePlayer(Direction direction) {
+        throw new NullPointerException("Defect.");
+      }
+    };
+    StringBuilder viewLog = new StringBuilder("");
+    DungeonAsyncController controller =
+            new DungeonAsyncController(failingModel, new MockViewLogging(viewLog));
+    List<Throwable> reported = new ArrayList<>();
+    Thread thread = Thread.currentThread();
+    Thread.UncaughtExceptionHandler handler = thread.getUncaughtExceptionHandler();
+    thread.setUncaughtExceptionHandler((t, e) -> reported.add(e));
+    try {
+      controller.movePlayer(Direction.NORTH);
+      controller.killMonster();
+    } finally {
+      thread.setUncaughtExceptionHandler(handler);
+    }
+    assertEquals(1, reported.size());
+    assertEquals("Defect.", reported.get(0).getMessage());
+    assertEquals("Kill Monster called.\n", modelLog.toString());
+  }
+
+  @Test
+  public void testStaleAbolethMoveSkippedAfterReset() {
+    StringBuilder modelLog = new StringBuilder("");
+    VirtualClock clock = new VirtualClock();
+    DungeonAsyncController[] controller = new DungeonAsyncController[1];
+    DungeonModel restartingModel = new MockModelLogging(modelLog) {
+      @Override
+      public void killMonster() {
+        super.killMonster();
+        //Queues a reset and then a move of the old game behind this command.
+        controller[0].resetModel();
+        clock.advance(2000);
+      }
+    };
+    controller[0] = new DungeonAsyncController(restartingModel,
+            new MockViewLogging(new StringBuilder()), clock);
+    controller[0].resetModel();
+    controller[0].killMonster();
+    assertEquals("Reset called.\n"
+            + "Kill Monster called.\n"
+            + "Reset called.\n", modelLog.toString());
+
+    clock.advance(2000);
+    assertEquals("Reset called.\n"
+            + "Kill Monster called.\n"
+            + "Reset called.\n"
+            + "Move Aboleth called.\n", modelLog.toString());
+  }
+
+  @Test
+  public void testConcurrentCommandsAreSerialized() throws InterruptedException {
+    StringBuilder modelLog = new StringBuilder("");
+    DungeonModel loggingModel = new MockModelLogging(modelLog);
+    StringBuilder viewLog = new StringBuilder("");
+    DungeonView loggingView = new MockViewLogging(viewLog);
+    DungeonAsyncController controller = new DungeonAsyncController(loggingModel, loggingView);
+    Thread[] threads = new Thread[8];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < 500; j++) {
+          controller.movePlayer(Direction.NORTH);
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals("Move: North\n".repeat(4000), modelLog.toString());
+    String log = viewLog.toString();
+    int refreshes = (log.length() - log.replace("refresh called\n", "").length())
+            / "refresh called\n".length();
+    assertTrue(refreshes >= 1 && refreshes <= 4000);
+  }
+
+  @Test
+  public void testVirtualClockRunsEventsInOrder() {
+    VirtualClock clock = new VirtualClock();
+    StringBuilder log = new StringBuilder();
+    clock.schedule(() -> log.append("A"), 10);
+    clock.schedule(() -> log.append("B"), 5);
+    clock.schedule(() -> log.append("C"), 5);
+    Future<?> repeating = clock.scheduleRepeating(() -> log.append("R"), 4);
+    Future<?> cancelled = clock.schedule(() -> log.append("X"), 7);
+    assertTrue(cancelled.cancel(false));
+
+    clock.advance(9);
+    assertEquals("RBCR", log.toString());
+    assertEquals(9, clock.currentTimeMillis());
+    clock.advance(3);
+    assertEquals("RBCRAR", log.toString());
+    repeating.cancel(false);
+    clock.advance(100);
+    assertEquals("RBCRAR", log.toString());
+    assertEquals(0, clock.countPendingEvents());
+  }
+
+  @Test
+  public void testVirtualClockEventsFollowFutureContract() throws Exception {
+    VirtualClock clock = new VirtualClock();
+    Future<?> pending = clock.schedule(() -> { }, 10);
+    Future<?> cancelled = clock.schedule(() -> { }, 10);
+    Future<?> failing = clock.schedule(() -> {
+      throw new IllegalStateException("Failed.");
+    }, 20);
+    assertTrue(cancelled.cancel(false));
+    try {
+      cancelled.get();
+      fail();
+    } catch (CancellationException e) {
+      assertTrue(cancelled.isCancelled());
+    }
+    try {
+      cancelled.get(1, TimeUnit.SECONDS);
+      fail();
+    } catch (CancellationException e) {
+      assertTrue(cancelled.isDone());
+    }
+    try {
+      pending.get(1, TimeUnit.SECONDS);
+      fail();
+    } catch (TimeoutException e) {
+      assertFalse(pending.isDone());
+    }
+
+    clock.advance(10);
+    assertNull(pending.get());
+    assertNull(pending.get(1, TimeUnit.SECONDS));
+    try {
+      clock.advance(10);
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals("Failed.", e.getMessage());
+    }
+    try {
+      failing.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertEquals("Failed.", e.getCause().getMessage());
+    }
+  }
+
+  @Test
+  public void testFailedRepeatingEventStops() throws Exception {
+    VirtualClock clock = new VirtualClock();
+    StringBuilder log = new StringBuilder();
+    Future<?> repeating = clock.scheduleRepeating(() -> {
+      log.append("R");
+      if (log.length() == 2) {
+        throw new IllegalStateException("Failed.");
+      }
+    }, 4);
+    clock.schedule(() -> log.append("A"), 10);
+    try {
+      clock.advance(12);
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals("Failed.", e.getMessage());
+    }
+    assertEquals("RR", log.toString());
+    assertEquals(8, clock.currentTimeMillis());
+    assertTrue(repeating.isDone());
+    assertFalse(repeating.isCancelled());
+    try {
+      repeating.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertEquals("Failed.", e.getCause().getMessage());
+    }
+    assertEquals(1, clock.countPendingEvents());
+
+    clock.advance(4);
+    assertEquals("RRA", log.toString());
+    assertEquals(12, clock.currentTimeMillis());
+    assertEquals(0, clock.countPendingEvents());
+  }
+
+  @Test
+  public void testAbolethMovesWithVirtualClock() {
+    StringBuilder viewLog = new StringBuilder("");
+    DungeonView loggingView = new MockViewLogging(viewLog);
+    VirtualClock clock = new VirtualClock();
+    DungeonAsyncController controller = new DungeonAsyncController(loggingView, clock,
+            new SplittableRandomSource(5));
+    controller.createNewModel(6, 8, false, 10, 50, 1, 1, 1, 0);
+    assertEquals("setModel called\n"
+            + "refresh called\n", viewLog.toString());
+
+    clock.advance(1999);
+    assertEquals("setModel called\n"
+            + "refresh called\n", viewLog.toString());
+    clock.advance(1);
+    assertEquals("setModel called\n"
+            + "refresh called\n"
+            + "refresh called\n", viewLog.toString());
+    assertEquals(1, clock.countPendingEvents());
+
+    controller.resetModel();
+    assertEquals(1, clock.countPendingEvents());
+  }
+}
+
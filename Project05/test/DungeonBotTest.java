@@ -0,0 +1,69 @@
+import org.junit.Test;
+
+import dungeonbot.BalanceSweep;
+import dungeonbot.CautiousStrategy;
+import dungeonbot.GameParameters;
+import dungeonbot.GameResult;
+import dungeonbot.GameRunner;
+import dungeonbot.GreedyTreasureStrategy;
+import dungeonbot.RandomWalkStrategy;
+import dungeonbot.SweepStats;
+import dungeonmodel.GameStatus;
+import random.SplittableRandomSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the bots playing dungeon games without a view.
+ * Covers playing single games and sweeping over parameters in parallel.
+ */
+public class DungeonBotTest {
+
+  @Test
+  public void testGameEndsWithinTurnLimit() {
+    GameParameters parameters = new GameParameters(6, 6, false, 2, 50, 1, 1, 1, 2);
+    GameRunner runner = new GameRunner(10);
+    for (long seed = 0; seed < 50; seed++) {
+      SplittableRandomSource random = new SplittableRandomSource(seed);
+      GameResult result = runner.play(parameters.createModel(random), new CautiousStrategy(),
+              random.split());
+      assertTrue(result.getTurns() <= 360);
+      assertTrue(result.getStatus() != GameStatus.GAME_CONTINUE || result.getTurns() == 360);
+    }
+  }
+
+  @Test
+  public void testSweepIsReproducible() {
+    List<GameParameters> grid = BalanceSweep.grid(new int[]{6, 8}, new int[]{0, 3},
+            new int[]{50}, new int[]{1, 3}, new int[]{1}, new int[]{1}, new int[]{1});
+    Map<GameParameters, SweepStats> single = new BalanceSweep(new ForkJoinPool(1),
+            new GameRunner(5), 40, 7).run(grid, GreedyTreasureStrategy::new);
+    Map<GameParameters, SweepStats> parallel = new BalanceSweep(new ForkJoinPool(4),
+            new GameRunner(5), 40, 7).run(grid, GreedyTreasureStrategy::new);
+    assertEquals(grid.size(), single.size());
+    for (GameParameters parameters : grid) {
+      SweepStats stats = single.get(parameters);
+      assertEquals(40, stats.getGames());
+      assertEquals(40, stats.getWins() + stats.getKills() + stats.getUnfinished());
+      assertEquals(stats.toString(), parallel.get(parameters).toString());
+    }
+  }
+
+  @Test
+  public void testInvalidParametersInSweep() {
+    List<GameParameters> grid = List.of(new GameParameters(6, 6, false, 0, 50, 0, 0, 0, 0));
+    try {
+      new BalanceSweep(ForkJoinPool.commonPool(), new GameRunner(5), 4, 1)
+              .run(grid, RandomWalkStrategy::new);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("Number of Otyugh should be atleast 1.", e.getMessage());
+    }
+  }
+}
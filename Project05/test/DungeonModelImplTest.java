@@ -611,6 +611,26 @@ public class DungeonModelImplTest {
     assertEquals(SmellLevel.MORE_PUNGENT, wrappingDungeon.detectSmell());
   }
 
+  @Test
+  public void testSmellAfterKillingOtyugh() {
+    wrappingDungeon.movePlayer(Direction.SOUTH);
+    wrappingDungeon.movePlayer(Direction.SOUTH);
+    assertEquals(SmellLevel.MORE_PUNGENT, wrappingDungeon.detectSmell());
+    assertEquals(SmellLevel.MORE_PUNGENT, wrappingDungeon.getSmellLevel(new Position(4, 4)));
+    assertEquals(SmellLevel.MORE_PUNGENT, wrappingDungeon.getSmellLevel(new Position(4, 6)));
+    assertEquals(SmellLevel.LESS_PUNGENT, wrappingDungeon.getSmellLevel(new Position(3, 4)));
+
+    assertEquals(HitStatus.HIT, wrappingDungeon.shoot(Direction.EAST, 1));
+    assertEquals(SmellLevel.MORE_PUNGENT, wrappingDungeon.detectSmell());
+    assertEquals(HitStatus.KILLED, wrappingDungeon.shoot(Direction.EAST, 1));
+
+    assertEquals(SmellLevel.NO_SMELL, wrappingDungeon.detectSmell());
+    assertEquals(SmellLevel.NO_SMELL, wrappingDungeon.getSmellLevel(new Position(4, 4)));
+    assertEquals(SmellLevel.NO_SMELL, wrappingDungeon.getSmellLevel(new Position(4, 6)));
+    assertEquals(SmellLevel.NO_SMELL, wrappingDungeon.getSmellLevel(new Position(3, 4)));
+    assertEquals(SmellLevel.MORE_PUNGENT, wrappingDungeon.getSmellLevel(new Position(0, 0)));
+  }
+
   @Test
   public void testShootFail() {
     try {
@@ -1,20 +1,39 @@
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 
+import dungeonmodel.Arrow;
 import dungeonmodel.Direction;
 import dungeonmodel.DungeonModel;
 import dungeonmodel.DungeonModelImpl;
 import dungeonmodel.GameStatus;
+import dungeonmodel.GraphType;
+import dungeonmodel.HitStatus;
 import dungeonmodel.Key;
+import dungeonmodel.MazeAlgorithm;
+import dungeonmodel.ReadOnlyDungeonModel;
 import dungeonmodel.Treasure;
 import random.RandomImpl;
+import random.SharedRandom;
+import random.SplittableRandomSource;
+import structureddata.LocationDescription;
 import structureddata.Position;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -404,4 +423,678 @@ public class DungeonModelNewImplTest {
     assertEquals(new Position(1, 0), model.getCurrentLocation().getPosition());
     assertTrue(model.getCurrentLocation().hasPitNearby());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testCompactGraphSameAsStandard() {
+    for (int seed = 0; seed < 16; seed++) {
+      MazeAlgorithm algorithm = MazeAlgorithm.values()[seed % 4 / 2];
+      RandomImpl.setSeed(seed);
+      DungeonModel standard = new DungeonModelImpl(6, 8, seed % 2 == 0, 10, 50, 3, 2, 2, 3, true,
+              GraphType.STANDARD, algorithm, new SharedRandom());
+      RandomImpl.setSeed(seed);
+      DungeonModel compact = new DungeonModelImpl(6, 8, seed % 2 == 0, 10, 50, 3, 2, 2, 3, true,
+              GraphType.COMPACT, algorithm, new SharedRandom());
+      assertEquals(standard.printDungeon(), compact.printDungeon());
+      assertEquals(standard.detectSmell(), compact.detectSmell());
+      for (int i = 0; i < 6; i++) {
+        for (int j = 0; j < 8; j++) {
+          LocationDescription expected = standard.getLocation(new Position(i, j));
+          LocationDescription actual = compact.getLocation(new Position(i, j));
+          assertEquals(expected, actual);
+          assertEquals(expected.isCave(), actual.isCave());
+          assertEquals(expected.countArrows(), actual.countArrows());
+          assertEquals(expected.containsOtyugh(), actual.containsOtyugh());
+          assertEquals(expected.containsAboleth(), actual.containsAboleth());
+          assertEquals(expected.containsThief(), actual.containsThief());
+          assertEquals(expected.hasKey(), actual.hasKey());
+          assertEquals(expected.hasPit(), actual.hasPit());
+          assertEquals(expected.hasPitNearby(), actual.hasPitNearby());
+        }
+      }
+      assertEquals(standard.getDistance(standard.getStartCave().getPosition(),
+              standard.getEndCave().getPosition()), compact.getDistance(
+                      compact.getStartCave().getPosition(), compact.getEndCave().getPosition()));
+    }
+  }
+
+  @Test
+  public void testFastKruskalConnectsAllLocations() {
+    for (int seed = 0; seed < 4; seed++) {
+      RandomImpl.setSeed(seed);
+      DungeonModel model = new DungeonModelImpl(10, 12, seed % 2 == 0, 4, 20, 3, 0, 0, 0, false,
+              GraphType.STANDARD, MazeAlgorithm.FAST_KRUSKAL, new SharedRandom());
+      Position start = model.getStartCave().getPosition();
+      for (int i = 0; i < 10; i++) {
+        for (int j = 0; j < 12; j++) {
+          assertTrue(model.getDistance(start, new Position(i, j)) >= 0);
+        }
+      }
+      assertTrue(model.getDistance(start, model.getEndCave().getPosition()) >= 5);
+    }
+  }
+
+  @Test
+  public void testTiledKruskalConnectsAllTiles() {
+    int rows = 270;
+    int columns = 300;
+    for (boolean isWrapped : new boolean[] {false, true}) {
+      DungeonModel model = new DungeonModelImpl(rows, columns, isWrapped, 25, 0, 1, 0, 0, 0,
+              false, GraphType.COMPACT, MazeAlgorithm.TILED_KRUSKAL,
+              new SplittableRandomSource(11));
+      DungeonModel same = new DungeonModelImpl(rows, columns, isWrapped, 25, 0, 1, 0, 0, 0,
+              false, GraphType.COMPACT, MazeAlgorithm.TILED_KRUSKAL,
+              new SplittableRandomSource(11));
+      Position start = model.getStartCave().getPosition();
+      int entrances = 0;
+      for (int i = 0; i < rows; i++) {
+        for (int j = 0; j < columns; j++) {
+          Position position = new Position(i, j);
+          assertTrue(model.getDistance(start, position) >= 0);
+          Set<Direction> directions = model.getLocation(position).getPossibleDirections();
+          assertEquals(directions, same.getLocation(position).getPossibleDirections());
+          entrances += directions.size();
+        }
+      }
+      assertEquals(2 * (rows * columns - 1 + 25), entrances);
+    }
+  }
+
+  @Test
+  public void testChunkedDungeonSameForAnyMemoryBudget() {
+    int rows = 150;
+    int columns = 140;
+    for (boolean isWrapped : new boolean[] {false, true}) {
+      DungeonModel model = DungeonModelImpl.chunked(rows, columns, isWrapped, 12, 40, 25, 8, 8,
+              20, true, MazeAlgorithm.FAST_KRUSKAL, 0, new SplittableRandomSource(23));
+      DungeonModel same = DungeonModelImpl.chunked(rows, columns, isWrapped, 12, 40, 25, 8, 8,
+              20, true, MazeAlgorithm.FAST_KRUSKAL, 64 << 20, new SplittableRandomSource(23));
+      ReadOnlyDungeonModel pristine = model.getSnapshot();
+      Position start = model.getStartCave().getPosition();
+      assertTrue(model.getDistance(start, model.getEndCave().getPosition()) >= 5);
+      assertEquals(25, model.countOtyughs());
+      assertEquals(rows * columns, countReachable(model, start));
+      int entrances = 0;
+      for (int i = 0; i < rows; i++) {
+        for (int j = 0; j < columns; j++) {
+          Position position = new Position(i, j);
+          LocationDescription location = model.getLocation(position);
+          assertSameLocation(location, same.getLocation(position));
+          assertSameLocation(location, pristine.getLocation(position));
+          assertEquals(model.getSmellLevel(position), pristine.getSmellLevel(position));
+          entrances += location.getPossibleDirections().size();
+        }
+      }
+      assertEquals(2 * (rows * columns - 1 + model.getDegree()), entrances);
+      assertEquals(12, model.getDegree());
+
+      for (int i = 0; i < 300 && model.getGameStatus() == GameStatus.GAME_CONTINUE; i++) {
+        LocationDescription location = model.getCurrentLocation();
+        assertSameLocation(location, same.getCurrentLocation());
+        assertEquals(model.detectSmell(), same.detectSmell());
+        if (model.getPlayerDescription().fallenInPit()) {
+          model.setPlayerinPit(false);
+          same.setPlayerinPit(false);
+        }
+        if (location.containsAboleth()) {
+          model.killMonster();
+          same.killMonster();
+        }
+        for (Treasure treasure : location.getTreasureMap().keySet()) {
+          model.pickItem(treasure);
+          same.pickItem(treasure);
+        }
+        Direction[] directions = location.getPossibleDirections().toArray(new Direction[0]);
+        Direction direction = directions[(i * 7) % directions.length];
+        if (i % 3 == 0 && location.countArrows() > 0) {
+          model.pickItem(Arrow.CROOKED_ARROW);
+          same.pickItem(Arrow.CROOKED_ARROW);
+        }
+        if (i % 2 == 0 && model.getPlayerDescription().countArrows() > 0) {
+          assertEquals(model.shoot(direction, 1 + i % 3), same.shoot(direction, 1 + i % 3));
+        }
+        model.movePlayer(direction);
+        same.movePlayer(direction);
+        if (model.getGameStatus() == GameStatus.GAME_CONTINUE) {
+          assertEquals(model.stealTreasure(), same.stealTreasure());
+          model.moveAboleth();
+          same.moveAboleth();
+        }
+        assertEquals(model.getPlayerDescription(), same.getPlayerDescription());
+        assertEquals(model.getGameStatus(), same.getGameStatus());
+        model.publishSnapshot();
+      }
+      assertSameDungeon(model, same);
+      assertSameDungeon(model, model.getSnapshot());
+
+      model.reset();
+      assertSameDungeon(pristine, model);
+      model.publishSnapshot();
+      assertSameDungeon(pristine, model.getSnapshot());
+    }
+  }
+
+  @Test
+  public void testChunkedDungeonCreatedWithoutGeneratingAllLocations() {
+    int rows = 40000;
+    int columns = 50000;
+    DungeonModel model = DungeonModelImpl.chunked(rows, columns, true, 100, 20, 5, 3, 3, 3,
+            true, MazeAlgorithm.FAST_KRUSKAL, 1 << 20, new SplittableRandomSource(5));
+    assertEquals(100, model.getDegree());
+    Position start = model.getStartCave().getPosition();
+    for (int i = 0; i < 20; i++) {
+      Direction direction = model.getCurrentLocation().getPossibleDirections().iterator().next();
+      model.movePlayer(direction);
+      model.publishSnapshot();
+    }
+    ReadOnlyDungeonModel snapshot = model.getSnapshot();
+    for (Position position : new Position[] {model.getCurrentLocation().getPosition(), start,
+        new Position(0, 0), new Position(rows - 1, columns - 1), new Position(rows / 2, 77)}) {
+      assertSameLocation(model.getLocation(position), snapshot.getLocation(position));
+      assertEquals(model.getSmellLevel(position), snapshot.getSmellLevel(position));
+    }
+    assertTrue(snapshot.getLocation(start).isVisited());
+  }
+
+  @Test
+  public void testChunkedDistanceSearchIsBounded() {
+    int rows = 40000;
+    int columns = 50000;
+    DungeonModel model = DungeonModelImpl.chunked(rows, columns, true, 100, 20, 5, 3, 3, 3,
+            true, MazeAlgorithm.FAST_KRUSKAL, 1 << 20, new SplittableRandomSource(5));
+    Position start = model.getStartCave().getPosition();
+    assertEquals(0, model.getDistance(start, start));
+    Direction direction = model.getCurrentLocation().getPossibleDirections().iterator().next();
+    model.movePlayer(direction);
+    assertEquals(1, model.getDistance(start, model.getCurrentLocation().getPosition()));
+    Position far = new Position((start.getRow() + rows / 2) % rows,
+            (start.getColumn() + columns / 2) % columns);
+    assertEquals(-1, model.getDistance(start, far));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullMazeAlgorithm() {
+    new DungeonModelImpl(6, 8, false, 0, 50, 3, 0, 0, 0, false, GraphType.STANDARD, null,
+            new SharedRandom());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullRandomSource() {
+    new DungeonModelImpl(6, 8, false, 0, 50, 3, 0, 0, 0, false, GraphType.STANDARD,
+            MazeAlgorithm.KRUSKAL, null);
+  }
+
+  @Test
+  public void testSplittableRandomSameForSameSeed() {
+    for (GraphType graphType : GraphType.values()) {
+      DungeonModel first = new DungeonModelImpl(8, 10, true, 5, 50, 3, 2, 2, 3, true,
+              graphType, MazeAlgorithm.FAST_KRUSKAL, new SplittableRandomSource(42));
+      RandomImpl.setSeed(7);
+      DungeonModel second = new DungeonModelImpl(8, 10, true, 5, 50, 3, 2, 2, 3, true,
+              graphType, MazeAlgorithm.FAST_KRUSKAL, new SplittableRandomSource(42));
+      assertEquals(first.printDungeon(), second.printDungeon());
+      for (int i = 0; i < 5; i++) {
+        first.moveAboleth();
+        second.moveAboleth();
+        assertEquals(first.printDungeon(), second.printDungeon());
+      }
+    }
+  }
+
+  @Test
+  public void testRepeatedDistanceQueries() {
+    RandomImpl.setSeed(3);
+    DungeonModel model = new DungeonModelImpl(7, 9, true, 6, 50, 3, 0, 0, 0, false);
+    Position start = model.getStartCave().getPosition();
+    int expected = model.getDistance(start, model.getEndCave().getPosition());
+    assertTrue(expected >= 5);
+    for (int k = 0; k < 3; k++) {
+      assertEquals(expected, model.getDistance(start, model.getEndCave().getPosition()));
+      assertEquals(expected, model.getDistance(model.getEndCave().getPosition(), start));
+    }
+    for (int i = 0; i < 7; i++) {
+      for (int j = 0; j < 9; j++) {
+        Position position = new Position(i, j);
+        assertEquals(model.getDistance(start, position), model.getDistance(position, start));
+        assertEquals(0, model.getDistance(position, position));
+      }
+    }
+  }
+
+  @Test
+  public void testChangedPositions() {
+    RandomImpl.setSeed(3);
+    DungeonModel model = new DungeonModelImpl(7, 9, true, 6, 50, 3, 0, 0, 0, false);
+    long version = model.getVersion();
+    assertTrue(model.getChangedPositions(version).isEmpty());
+
+    Position start = model.getCurrentLocation().getPosition();
+    Direction direction = model.getCurrentLocation().getPossibleDirections().iterator().next();
+    model.movePlayer(direction);
+    Position next = model.getCurrentLocation().getPosition();
+    assertTrue(model.getVersion() > version);
+    assertEquals(Set.of(start, next), model.getChangedPositions(version));
+
+    version = model.getVersion();
+    model.movePlayer(direction.opposite());
+    assertEquals(Set.of(start, next), model.getChangedPositions(version));
+    assertTrue(model.getOldestTrackedVersion() <= version);
+
+    try {
+      model.getChangedPositions(model.getVersion() + 1);
+      fail();
+    } catch (IllegalArgumentException e) {
+      //Expected as the version is newer than the current version.
+    }
+  }
+
+  @Test
+  public void testSnapshotIsImmutableCopy() {
+    for (GraphType graphType : GraphType.values()) {
+      RandomImpl.setSeed(3);
+      DungeonModel model = new DungeonModelImpl(7, 9, true, 6, 50, 3, 1, 1, 1, true, graphType,
+              MazeAlgorithm.KRUSKAL, new SharedRandom());
+      ReadOnlyDungeonModel first = model.getSnapshot();
+      assertSameState(model, first);
+
+      Position start = model.getCurrentLocation().getPosition();
+      Direction direction = model.getCurrentLocation().getPossibleDirections().iterator().next();
+      model.movePlayer(direction);
+      assertEquals(start, first.getPlayerDescription().getPosition());
+      assertSame(first, model.getSnapshot());
+
+      model.publishSnapshot();
+      ReadOnlyDungeonModel second = model.getSnapshot();
+      assertNotSame(first, second);
+      assertSameState(model, second);
+      assertEquals(start, first.getPlayerDescription().getPosition());
+      Position next = model.getCurrentLocation().getPosition();
+      assertFalse(first.getLocation(next).isVisited());
+      assertTrue(second.getLocation(next).isVisited());
+      assertTrue(second.getChangedPositions(first.getVersion())
+              .containsAll(Set.of(start, next)));
+      assertTrue(second.getChangedPositions(second.getVersion()).isEmpty());
+    }
+  }
+
+  @Test
+  public void testSaveAndLoad() throws IOException {
+    Path path = Files.createTempFile("dungeon", ".bin");
+    try {
+      for (GraphType graphType : GraphType.values()) {
+        RandomImpl.setSeed(5);
+        DungeonModelImpl model = new DungeonModelImpl(8, 10, true, 5, 50, 4, 2, 2, 3, true,
+                graphType, MazeAlgorithm.KRUSKAL, new SharedRandom());
+        for (int i = 0; i < 6 && model.getGameStatus() == GameStatus.GAME_CONTINUE; i++) {
+          if (model.getCurrentLocation().countArrows() > 0) {
+            model.pickItem(Arrow.CROOKED_ARROW);
+          }
+          Direction direction = model.getCurrentLocation().getPossibleDirections()
+                  .iterator().next();
+          if (model.getPlayerDescription().countArrows() > 0) {
+            model.shoot(direction, 1);
+          }
+          model.movePlayer(direction);
+          model.moveAboleth();
+        }
+        model.save(path);
+
+        DungeonModelImpl loaded = DungeonModelImpl.load(path, new SharedRandom());
+        assertSameDungeon(model, loaded);
+        assertSameDungeon(model, loaded.getSnapshot());
+        assertEquals(model.printDungeon(), loaded.printDungeon());
+        assertEquals(model.getStartCave(), loaded.getStartCave());
+        assertEquals(model.getEndCave(), loaded.getEndCave());
+        assertEquals(model.countOtyughs(), loaded.countOtyughs());
+        assertEquals(model.countAboleth(), loaded.countAboleth());
+        assertEquals(model.countThief(), loaded.countThief());
+        assertEquals(model.countPits(), loaded.countPits());
+        assertEquals(model.getDegree(), loaded.getDegree());
+        assertEquals(model.getWrapped(), loaded.getWrapped());
+        assertEquals(model.getDistance(model.getStartCave().getPosition(),
+                        model.getEndCave().getPosition()),
+                loaded.getDistance(loaded.getStartCave().getPosition(),
+                        loaded.getEndCave().getPosition()));
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testGenerateFileLoadsConnectedDungeon() throws IOException {
+    Path path = Files.createTempFile("dungeon", ".bin");
+    Path same = Files.createTempFile("dungeon", ".bin");
+    try {
+      for (boolean isWrapped : new boolean[] {false, true}) {
+        int rows = 40;
+        int columns = 30;
+        DungeonModelImpl.generateFile(path, rows, columns, isWrapped, 15, 50, 5, 3, 3, 4, true,
+                new SplittableRandomSource(7));
+        DungeonModelImpl.generateFile(same, rows, columns, isWrapped, 15, 50, 5, 3, 3, 4, true,
+                new SplittableRandomSource(7));
+        assertArrayEquals(Files.readAllBytes(path), Files.readAllBytes(same));
+
+        DungeonModelImpl model = DungeonModelImpl.load(path, new SplittableRandomSource(7));
+        Position start = model.getStartCave().getPosition();
+        assertEquals(rows * columns, countReachable(model, start));
+        assertEquals(isWrapped, model.getWrapped());
+        assertEquals(15, model.getDegree());
+        assertEquals(5, model.countOtyughs());
+        assertEquals(3, model.countAboleth());
+        assertEquals(3, model.countThief());
+        assertEquals(start, model.getCurrentLocation().getPosition());
+        assertTrue(model.getStartCave().isCave());
+        assertTrue(model.getEndCave().containsOtyugh());
+        assertTrue(model.getDistance(start, model.getEndCave().getPosition()) >= 5);
+
+        int entrances = 0;
+        int caves = 0;
+        int treasureCaves = 0;
+        int arrowLocations = 0;
+        int keys = 0;
+        for (int i = 0; i < rows; i++) {
+          for (int j = 0; j < columns; j++) {
+            LocationDescription location = model.getLocation(new Position(i, j));
+            entrances += location.getPossibleDirections().size();
+            caves += location.isCave() ? 1 : 0;
+            arrowLocations += location.countArrows() > 0 ? 1 : 0;
+            if (!location.isCave()) {
+              assertTrue(location.getTreasureMap().isEmpty());
+              assertFalse(location.containsOtyugh());
+            } else if (!location.getTreasureMap().isEmpty()) {
+              treasureCaves++;
+            }
+            if (location.containsThief()) {
+              assertFalse(location.isCave());
+            }
+            keys += location.hasKey() ? 1 : 0;
+          }
+        }
+        assertEquals(2 * (rows * columns - 1 + 15), entrances);
+        assertEquals((caves + 1) / 2, treasureCaves);
+        assertEquals(rows * columns / 2, arrowLocations);
+        assertEquals(1, keys);
+      }
+      try {
+        DungeonModelImpl.generateFile(path, 20000, 20000, false, 15, 50, 5, 3, 3, 4, true,
+                new SplittableRandomSource(7));
+        fail();
+      } catch (IllegalArgumentException e) {
+        assertEquals("Dungeon is too large for a dungeon file.", e.getMessage());
+      }
+    } finally {
+      Files.delete(path);
+      Files.delete(same);
+    }
+  }
+
+  @Test
+  public void testGenerateFileFindsEndInSmallDungeon() throws IOException {
+    Path path = Files.createTempFile("dungeon", ".bin");
+    try {
+      for (boolean isWrapped : new boolean[] {false, true}) {
+        for (int seed = 0; seed < 200; seed++) {
+          DungeonModelImpl.generateFile(path, 6, 6, isWrapped, 0, 20, 1, 0, 0, 0, false,
+                  new SplittableRandomSource(seed));
+          DungeonModelImpl model = DungeonModelImpl.load(path, new SplittableRandomSource(seed));
+          Position start = model.getStartCave().getPosition();
+          assertTrue(model.getDistance(start, model.getEndCave().getPosition()) >= 5);
+          assertTrue(model.getEndCave().isCave());
+          assertTrue(model.getEndCave().containsOtyugh());
+          assertEquals(36, countReachable(model, start));
+        }
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testEveryMazeAlgorithmConnectsDungeon() {
+    int rows = 12;
+    int columns = 15;
+    for (MazeAlgorithm algorithm : MazeAlgorithm.values()) {
+      for (boolean isWrapped : new boolean[] {false, true}) {
+        for (int degree : new int[] {0, 9}) {
+          DungeonModel model = new DungeonModelImpl(rows, columns, isWrapped, degree, 50, 3, 1,
+                  1, 1, true, GraphType.COMPACT, algorithm, new SplittableRandomSource(degree));
+          DungeonModel same = new DungeonModelImpl(rows, columns, isWrapped, degree, 50, 3, 1,
+                  1, 1, true, GraphType.STANDARD, algorithm, new SplittableRandomSource(degree));
+          assertEquals(model.printDungeon(), same.printDungeon());
+          assertEquals(degree, model.getDegree());
+          assertTrue(model.getDistance(model.getStartCave().getPosition(),
+                  model.getEndCave().getPosition()) >= 5);
+
+          DungeonModel chunked = DungeonModelImpl.chunked(rows, columns, isWrapped, degree, 50,
+                  3, 1, 1, 1, true, algorithm, 0, new SplittableRandomSource(degree));
+          for (DungeonModel dungeon : new DungeonModel[] {model, chunked}) {
+            Position start = dungeon.getStartCave().getPosition();
+            assertEquals(rows * columns, countReachable(dungeon, start));
+            int entrances = 0;
+            for (int i = 0; i < rows; i++) {
+              for (int j = 0; j < columns; j++) {
+                Set<Direction> directions =
+                        dungeon.getLocation(new Position(i, j)).getPossibleDirections();
+                entrances += directions.size();
+                if (!isWrapped) {
+                  assertFalse(i == 0 && directions.contains(Direction.NORTH));
+                  assertFalse(i == rows - 1 && directions.contains(Direction.SOUTH));
+                  assertFalse(j == 0 && directions.contains(Direction.WEST));
+                  assertFalse(j == columns - 1 && directions.contains(Direction.EAST));
+                }
+              }
+            }
+            assertEquals(2 * (rows * columns - 1 + dungeon.getDegree()), entrances);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCrowdedAbolethsFoundInLocation() {
+    int killed = 0;
+    for (GraphType graphType : GraphType.values()) {
+      for (int seed = 0; seed < 20; seed++) {
+        DungeonModel model = new DungeonModelImpl(6, 6, true, 10, 0, 1, 40, 0, 0, false,
+                graphType, MazeAlgorithm.KRUSKAL, new SplittableRandomSource(seed));
+        for (int i = 0; i < 200 && model.getGameStatus() == GameStatus.GAME_CONTINUE; i++) {
+          if (i % 2 == 0 && model.getCurrentLocation().containsAboleth()) {
+            model.killMonster();
+          }
+          boolean seen = model.getCurrentLocation().containsAboleth();
+          model.moveAboleth();
+          assertEquals(seen, model.getGameStatus() == GameStatus.GAME_OVER_KILLED);
+        }
+        killed += model.getGameStatus() == GameStatus.GAME_OVER_KILLED ? 1 : 0;
+      }
+    }
+    assertTrue(killed > 0);
+  }
+
+  @Test
+  public void testResetRestoresPristineState() {
+    //The walk is scripted for the dungeon which both of these generate for the seed.
+    for (GraphType graphType : new GraphType[] {GraphType.STANDARD, GraphType.COMPACT}) {
+      RandomImpl.setSeed(68);
+      DungeonModel model = new DungeonModelImpl(8, 10, true, 5, 80, 6, 2, 2, 3, true,
+              graphType, MazeAlgorithm.KRUSKAL, new SharedRandom());
+      ReadOnlyDungeonModel pristine = model.getSnapshot();
+      String dungeon = model.printDungeon();
+      for (int i = 0; i < 40; i++) {
+        LocationDescription location = model.getCurrentLocation();
+        if (location.containsAboleth()) {
+          model.killMonster();
+        }
+        if (location.countArrows() > 0) {
+          model.pickItem(Arrow.CROOKED_ARROW);
+        }
+        for (Treasure treasure : location.getTreasureMap().keySet()) {
+          model.pickItem(treasure);
+        }
+        if (location.hasKey()) {
+          model.pickItem(Key.DOOR_KEY);
+        }
+        Direction[] directions = location.getPossibleDirections().toArray(new Direction[0]);
+        Direction direction = directions[i % directions.length];
+        if (model.getPlayerDescription().countArrows() > 0) {
+          model.shoot(direction, 1 + i % 2);
+        }
+        model.movePlayer(direction);
+        model.stealTreasure();
+        model.moveAboleth();
+      }
+      assertEquals(GameStatus.GAME_CONTINUE, model.getGameStatus());
+      assertTrue(countLivingOtyughs(model) < countLivingOtyughs(pristine));
+      assertNotEquals(pristine.getPlayerDescription(), model.getPlayerDescription());
+
+      model.reset();
+      assertSameDungeon(pristine, model);
+      assertEquals(dungeon, model.printDungeon());
+      model.publishSnapshot();
+      assertSameDungeon(pristine, model.getSnapshot());
+      assertEquals(GameStatus.GAME_CONTINUE, model.getGameStatus());
+    }
+  }
+
+  @Test
+  public void testResetLoadedDungeonKeepsMonsterHealth() throws IOException {
+    Path path = Files.createTempFile("dungeon", ".bin");
+    Path same = Files.createTempFile("dungeon", ".bin");
+    try {
+      for (int i = 0; i < 4; i++) {
+        model.moveAboleth();
+      }
+      model.movePlayer(Direction.SOUTH);
+      model.movePlayer(Direction.EAST);
+      model.killMonster();
+      model.movePlayer(Direction.SOUTH);
+      model.movePlayer(Direction.EAST);
+      assertEquals(HitStatus.HIT, model.shoot(Direction.NORTH, 3));
+      Position end = model.getEndCave().getPosition();
+      assertTrue(model.getLocation(end).containsOtyugh());
+      ((DungeonModelImpl) model).save(path);
+
+      DungeonModelImpl loaded = DungeonModelImpl.load(path, new SplittableRandomSource(3));
+      assertEquals(HitStatus.KILLED, loaded.shoot(Direction.NORTH, 3));
+      assertFalse(loaded.getLocation(end).containsOtyugh());
+      loaded.reset();
+      loaded.moveAboleth();
+      assertEquals(model.printDungeon(), loaded.printDungeon());
+      assertTrue(loaded.getLocation(end).containsOtyugh());
+      loaded.save(same);
+      assertArrayEquals(Files.readAllBytes(path), Files.readAllBytes(same));
+
+      assertEquals(HitStatus.KILLED, loaded.shoot(Direction.NORTH, 3));
+      assertFalse(loaded.getLocation(end).containsOtyugh());
+    } finally {
+      Files.delete(path);
+      Files.delete(same);
+    }
+  }
+
+  @Test
+  public void testLoadInvalidFile() throws IOException {
+    Path path = Files.createTempFile("dungeon", ".bin");
+    try {
+      Files.write(path, "not a dungeon".getBytes());
+      try {
+        DungeonModelImpl.load(path, new SharedRandom());
+        fail();
+      } catch (IllegalArgumentException e) {
+        assertEquals("Not a dungeon file.", e.getMessage());
+      }
+
+      RandomImpl.setSeed(5);
+      new DungeonModelImpl(8, 10, false, 0, 50, 4).save(path);
+      byte[] bytes = Files.readAllBytes(path);
+      Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+      try {
+        DungeonModelImpl.load(path, new SharedRandom());
+        fail();
+      } catch (IllegalArgumentException e) {
+        assertEquals("Dungeon file is truncated or corrupted.", e.getMessage());
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  private void assertSameState(ReadOnlyDungeonModel model, ReadOnlyDungeonModel snapshot) {
+    assertEquals(model.getVersion(), snapshot.getVersion());
+    assertSameDungeon(model, snapshot);
+  }
+
+  private void assertSameDungeon(ReadOnlyDungeonModel model, ReadOnlyDungeonModel other) {
+    assertEquals(model.getPlayerDescription(), other.getPlayerDescription());
+    assertEquals(model.getGameStatus(), other.getGameStatus());
+    for (int i = 0; i < model.getRows(); i++) {
+      for (int j = 0; j < model.getColumns(); j++) {
+        Position position = new Position(i, j);
+        assertSameLocation(model.getLocation(position), other.getLocation(position));
+        assertEquals(model.getSmellLevel(position), other.getSmellLevel(position));
+      }
+    }
+  }
+
+  private int countReachable(ReadOnlyDungeonModel model, Position start) {
+    int columns = model.getColumns();
+    boolean[] reached = new boolean[model.getRows() * columns];
+    Deque<Position> queue = new ArrayDeque<>();
+    reached[start.getRow() * columns + start.getColumn()] = true;
+    queue.add(start);
+    int count = 0;
+    while (!queue.isEmpty()) {
+      Position position = queue.poll();
+      count++;
+      for (Direction direction : model.getLocation(position).getPossibleDirections()) {
+        Position next = neighbor(model, position, direction);
+        if (!reached[next.getRow() * columns + next.getColumn()]) {
+          reached[next.getRow() * columns + next.getColumn()] = true;
+          queue.add(next);
+        }
+      }
+    }
+    return count;
+  }
+
+  private Position neighbor(ReadOnlyDungeonModel model, Position position, Direction direction) {
+    int rows = model.getRows();
+    int columns = model.getColumns();
+    switch (direction) {
+      case NORTH:
+        return new Position((position.getRow() + rows - 1) % rows, position.getColumn());
+      case SOUTH:
+        return new Position((position.getRow() + 1) % rows, position.getColumn());
+      case EAST:
+        return new Position(position.getRow(), (position.getColumn() + 1) % columns);
+      default:
+        return new Position(position.getRow(), (position.getColumn() + columns - 1) % columns);
+    }
+  }
+
+  private int countLivingOtyughs(ReadOnlyDungeonModel model) {
+    int count = 0;
+    for (int i = 0; i < model.getRows(); i++) {
+      for (int j = 0; j < model.getColumns(); j++) {
+        if (model.getLocation(new Position(i, j)).containsOtyugh()) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  private void assertSameLocation(LocationDescription location, LocationDescription other) {
+    assertEquals(location, other);
+    assertEquals(location.countArrows(), other.countArrows());
+    assertEquals(location.isCave(), other.isCave());
+    assertEquals(location.containsOtyugh(), other.containsOtyugh());
+    assertEquals(location.isVisited(), other.isVisited());
+    assertEquals(location.containsAboleth(), other.containsAboleth());
+    assertEquals(location.hasKey(), other.hasKey());
+    assertEquals(location.containsThief(), other.containsThief());
+    assertEquals(location.hasPit(), other.hasPit());
+    assertEquals(location.hasPitNearby(), other.hasPitNearby());
+  }
+}
@@ -1,11 +1,13 @@
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Set;
 
 import dungeonmodel.Direction;
 import dungeonmodel.DungeonModel;
 import dungeonmodel.GameStatus;
 import dungeonmodel.HitStatus;
 import dungeonmodel.Item;
+import dungeonmodel.ReadOnlyDungeonModel;
 import dungeonmodel.SmellLevel;
 import structureddata.LocationDescription;
 import structureddata.PlayerDescription;
@@ -109,6 +111,41 @@ public class MockModelLogging implements DungeonModel {
     return SmellLevel.NO_SMELL;
   }
 
+  @Override
+  public SmellLevel getSmellLevel(Position position) {
+    return SmellLevel.NO_SMELL;
+  }
+
+  @Override
+  public long getVersion() {
+    return 0;
+  }
+
+  @Override
+  public long getOldestTrackedVersion() {
+    return 0;
+  }
+
+  @Override
+  public Set<Position> getChangedPositions(long version) {
+    return new HashSet<>();
+  }
+
+  @Override
+  public ReadOnlyDungeonModel getSnapshot() {
+    return this;
+  }
+
+  @Override
+  public void reset() {
+    log.append("Reset called.\n");
+  }
+
+  @Override
+  public void publishSnapshot() {
+    //Not logged as it is called by the controller after every command.
+  }
+
   @Override
   public int countPits() {
     return 0;